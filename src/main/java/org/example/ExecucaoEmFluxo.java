@@ -0,0 +1,33 @@
+package org.example;
+
+import java.util.List;
+import org.example.lexico.AnalisadorLexico;
+import org.example.lexico.Fonte;
+import org.example.semantico.AnalisadorSemantico;
+import org.example.sintatico.Parser;
+import org.example.sintatico.Stmt;
+
+// Modo em fluxo para scripts longos: cada comando do topo é lido, verificado
+// contra a tabela de símbolos acumulada e executado antes do próximo ser
+// lido. Depois disso nada mais aponta para ele, então a memória não cresce
+// com o tamanho do script (só com a quantidade de nomes distintos) e a saída
+// começa já no primeiro comando.
+public final class ExecucaoEmFluxo {
+
+    private ExecucaoEmFluxo() {
+    }
+
+    // Devolve quantos comandos do topo foram executados.
+    public static long executar(Fonte fonte) {
+        Parser parser = new Parser(new AnalisadorLexico(fonte).cursor());
+        AnalisadorSemantico semantico = new AnalisadorSemantico();
+        Interpretador interpretador = new Interpretador();
+
+        long executados = 0;
+        for (Stmt stmt = parser.proximoComando(); stmt != null; stmt = parser.proximoComando()) {
+            interpretador.executar(semantico.analisar(List.of(stmt)));
+            executados++;
+        }
+        return executados;
+    }
+}
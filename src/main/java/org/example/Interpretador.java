@@ -1,46 +1,72 @@
 package org.example;
 
 import org.example.sintatico.Expr;
+import org.example.sintatico.PilhaDeVisita;
 import org.example.sintatico.Stmt;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.Scanner;
 
 public class Interpretador implements Stmt.Visitor<Void>, Expr.Visitor<Object> {
 
-    private final Map<String, Object> ambiente = new HashMap<>();
+    private static final Object NAO_DEFINIDA = new Object();
+
+    // Valores das variáveis indexados pelo slot dado pelo Resolvedor.
+    private Object[] ambiente = new Object[16];
     private final Scanner scanner = new Scanner(System.in);
 
+    // Execução sem recursão: os nós esperam na pilha de visita e os
+    // resultados das expressões ficam na pilha de valores.
+    private PilhaDeVisita pilha = new PilhaDeVisita();
+    private Object[] valores = new Object[64];
+    private int topoValores = 0;
+
+    public Interpretador() {
+        Arrays.fill(ambiente, NAO_DEFINIDA);
+    }
+
     public void executar(List<Stmt> statements) {
-        for (Stmt stmt : statements) {
-            if (stmt != null) {
-                stmt.accept(this);
-            }
-        }
+        // Começa limpo mesmo se uma execução anterior parou num erro.
+        pilha = new PilhaDeVisita();
+        topoValores = 0;
+        pilha.empilharEmOrdem(statements);
+        pilha.percorrer(this, this);
     }
 
     @Override
     public Void visitVar(Stmt.Var stmt) {
-        Object valor = null;
-        if (stmt.initializer != null) {
-            valor = avaliar(stmt.initializer);
+        if (stmt.initializer == null) {
+            armazenar(stmt.slot, null);
+        } else if (pilha.etapa() == 0) {
+            pilha.empilhar(stmt, 1);
+            pilha.empilhar(stmt.initializer);
+        } else {
+            armazenar(stmt.slot, desempilharValor());
         }
-        ambiente.put(stmt.name, valor);
         return null;
     }
 
     @Override
     public Void visitExprStmt(Stmt.ExprStmt stmt) {
-        avaliar(stmt.expression);
+        if (pilha.etapa() == 0) {
+            pilha.empilhar(stmt, 1);
+            pilha.empilhar(stmt.expression);
+        } else {
+            desempilharValor();
+        }
         return null;
     }
 
     @Override
     public Void visitPrint(Stmt.Print stmt) {
-        Object valor = avaliar(stmt.expression);
-        System.out.println(valor != null ? valor : "null");
+        if (pilha.etapa() == 0) {
+            pilha.empilhar(stmt, 1);
+            pilha.empilhar(stmt.expression);
+        } else {
+            Object valor = desempilharValor();
+            System.out.println(valor != null ? valor : "null");
+        }
         return null;
     }
 
@@ -48,130 +74,195 @@ public class Interpretador implements Stmt.Visitor<Void>, Expr.Visitor<Object> {
     public Void visitRead(Stmt.Read stmt) {
         System.out.print("[INPUT] Informe valor para " + stmt.name + ": ");
         String linha = scanner.nextLine();
-        ambiente.put(stmt.name, linha);
+        armazenar(stmt.slot, linha);
         return null;
     }
 
     @Override
     public Void visitBlock(Stmt.Block stmt) {
-        for (Stmt s : stmt.statements) {
-            if (s != null) {
-                s.accept(this);
-            }
-        }
+        pilha.empilharEmOrdem(stmt.statements);
         return null;
     }
 
     @Override
     public Void visitIf(Stmt.If stmt) {
-        if (eVerdadeiro(avaliar(stmt.condition))) {
-            if (stmt.thenBranch != null) stmt.thenBranch.accept(this);
+        if (pilha.etapa() == 0) {
+            pilha.empilhar(stmt, 1);
+            pilha.empilhar(stmt.condition);
+        } else if (eVerdadeiro(desempilharValor())) {
+            if (stmt.thenBranch != null) pilha.empilhar(stmt.thenBranch);
         } else if (stmt.elseBranch != null) {
-            stmt.elseBranch.accept(this);
+            pilha.empilhar(stmt.elseBranch);
         }
         return null;
     }
 
+    // Cada volta reempilha o próprio while depois do corpo.
     @Override
     public Void visitWhile(Stmt.While stmt) {
-        while (eVerdadeiro(avaliar(stmt.condition))) {
-            if (stmt.body != null) stmt.body.accept(this);
+        if (pilha.etapa() == 0) {
+            pilha.empilhar(stmt, 1);
+            pilha.empilhar(stmt.condition);
+        } else if (eVerdadeiro(desempilharValor())) {
+            pilha.empilhar(stmt);
+            if (stmt.body != null) pilha.empilhar(stmt.body);
         }
         return null;
     }
 
     @Override
     public Object visitLiteral(Expr.Literal expr) {
-        return expr.value;
+        empilharValor(expr.value);
+        return null;
     }
 
     @Override
     public Object visitVariable(Expr.Variable expr) {
-        if (!ambiente.containsKey(expr.name)) {
+        Object valor = expr.slot < ambiente.length ? ambiente[expr.slot] : NAO_DEFINIDA;
+        if (valor == NAO_DEFINIDA) {
             throw new RuntimeException("Erro em tempo de execução: variável '" + expr.name + "' não inicializada.");
         }
-        return ambiente.get(expr.name);
+        empilharValor(valor);
+        return null;
     }
 
     @Override
     public Object visitGrouping(Expr.Grouping expr) {
-        return avaliar(expr.expression);
+        pilha.empilhar(expr.expression);
+        return null;
     }
 
     @Override
     public Object visitUnary(Expr.Unary expr) {
-        Object right = avaliar(expr.right);
+        if (pilha.etapa() == 0) {
+            pilha.empilhar(expr, 1);
+            pilha.empilhar(expr.right);
+            return null;
+        }
+        Object right = desempilharValor();
 
-        if ("-".equals(expr.operator)) {
+        if (expr.operator == Expr.UnaryOp.NEGATE) {
             Double v = paraNumero(right);
-            return -v;
+            empilharValor(-v);
+            return null;
         }
 
         throw new RuntimeException("Operador unário desconhecido: " + expr.operator);
     }
 
     @Override
-    public Object visitBinary(Expr.Binary expr) {
-        // Atribuição: (variable = expr)
-        if ("=".equals(expr.operator)) {
-            if (!(expr.left instanceof Expr.Variable)) {
-                throw new RuntimeException("Lado esquerdo da atribuição deve ser variável.");
-            }
-            String nome = ((Expr.Variable) expr.left).name;
-            Object valor = avaliar(expr.right);
-            ambiente.put(nome, valor);
-            return valor;
+    public Object visitConversion(Expr.Conversion expr) {
+        if (pilha.etapa() == 0) {
+            pilha.empilhar(expr, 1);
+            pilha.empilhar(expr.expression);
+            return null;
         }
+        empilharValor(paraNumero(desempilharValor()));
+        return null;
+    }
 
-        Object left = avaliar(expr.left);
-        Object right = avaliar(expr.right);
+    @Override
+    public Object visitBinary(Expr.Binary expr) {
+        if (pilha.etapa() == 0) {
+            pilha.empilhar(expr, 1);
+            pilha.empilhar(expr.right);
+            pilha.empilhar(expr.left);
+            return null;
+        }
+        Object right = desempilharValor();
+        Object left = desempilharValor();
+        empilharValor(aplicar(expr.operator, left, right));
+        return null;
+    }
 
-        switch (expr.operator) {
-            case "+":
+    private Object aplicar(Expr.BinaryOp operador, Object left, Object right) {
+        switch (operador) {
+            case ADD:
                 return paraNumero(left) + paraNumero(right);
-            case "-":
+            case SUBTRACT:
                 return paraNumero(left) - paraNumero(right);
-            case "*":
+            case MULTIPLY:
                 return paraNumero(left) * paraNumero(right);
-            case "/":
+            case DIVIDE:
                 return paraNumero(left) / paraNumero(right);
-            case "%":
+            case MODULO:
                 return paraNumero(left) % paraNumero(right);
-            case ">":
+            case GREATER:
                 return paraNumero(left) > paraNumero(right);
-            case "<":
+            case LESS:
                 return paraNumero(left) < paraNumero(right);
-            case ">=":
+            case GREATER_EQUAL:
                 return paraNumero(left) >= paraNumero(right);
-            case "<=":
+            case LESS_EQUAL:
                 return paraNumero(left) <= paraNumero(right);
-            case "==":
+            case EQUAL:
                 return (left == null) ? right == null : left.equals(right);
-            case "!=":
+            case NOT_EQUAL:
                 return (left == null) ? right != null : !left.equals(right);
             default:
-                throw new RuntimeException("Operador binário desconhecido: " + expr.operator);
+                throw new RuntimeException("Operador binário desconhecido: " + operador);
         }
     }
 
+    // Etapa 1 decide o curto-circuito; a etapa 2 só roda se o lado direito
+    // precisou ser avaliado.
     @Override
     public Object visitLogical(Expr.Logical expr) {
-        Object left = avaliar(expr.left);
+        switch (pilha.etapa()) {
+            case 0:
+                pilha.empilhar(expr, 1);
+                pilha.empilhar(expr.left);
+                break;
+            case 1: {
+                boolean left = eVerdadeiro(desempilharValor());
+                if (expr.operator == Expr.LogicalOp.OR && left) {
+                    empilharValor(true);
+                } else if (expr.operator == Expr.LogicalOp.AND && !left) {
+                    empilharValor(false);
+                } else {
+                    pilha.empilhar(expr, 2);
+                    pilha.empilhar(expr.right);
+                }
+                break;
+            }
+            default:
+                empilharValor(eVerdadeiro(desempilharValor()));
+        }
+        return null;
+    }
+
+    // O valor atribuído continua na pilha como resultado da expressão.
+    @Override
+    public Object visitAssign(Expr.Assign expr) {
+        if (pilha.etapa() == 0) {
+            pilha.empilhar(expr, 1);
+            pilha.empilhar(expr.value);
+        } else {
+            armazenar(expr.target.slot, valores[topoValores - 1]);
+        }
+        return null;
+    }
 
-        if ("||".equals(expr.operator)) {
-            if (eVerdadeiro(left)) return true;
-            return eVerdadeiro(avaliar(expr.right));
-        } else if ("&&".equals(expr.operator)) {
-            if (!eVerdadeiro(left)) return false;
-            return eVerdadeiro(avaliar(expr.right));
+    private void empilharValor(Object valor) {
+        if (topoValores == valores.length) {
+            valores = Arrays.copyOf(valores, topoValores * 2);
         }
+        valores[topoValores++] = valor;
+    }
 
-        throw new RuntimeException("Operador lógico desconhecido: " + expr.operator);
+    private Object desempilharValor() {
+        Object valor = valores[--topoValores];
+        valores[topoValores] = null;
+        return valor;
     }
 
-    private Object avaliar(Expr expr) {
-        if (expr == null) return null;
-        return expr.accept(this);
+    private void armazenar(int slot, Object valor) {
+        if (slot >= ambiente.length) {
+            int tamanhoAnterior = ambiente.length;
+            ambiente = Arrays.copyOf(ambiente, Math.max(slot + 1, tamanhoAnterior * 2));
+            Arrays.fill(ambiente, tamanhoAnterior, ambiente.length, NAO_DEFINIDA);
+        }
+        ambiente[slot] = valor;
     }
 
     private boolean eVerdadeiro(Object valor) {
@@ -2,6 +2,7 @@ package org.example;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.EnumMap;
@@ -17,9 +18,13 @@ import java.io.BufferedReader;
 import java.io.InputStreamReader;
 
 import org.example.lexico.AnalisadorLexico;
+import org.example.lexico.AnalisadorLexicoParalelo;
+import org.example.lexico.BufferDeTokens;
+import org.example.lexico.Fonte;
 import org.example.semantico.AnalisadorSemantico;
 import org.example.sintatico.AstPrinter;
-import org.example.sintatico.Parser;
+import org.example.sintatico.CacheDeAst;
+import org.example.sintatico.ParserParalelo;
 import org.example.sintatico.Stmt;
 import org.example.icg.GeradorDeCodigo;
 import org.example.icg.InterpretadorIC;
@@ -28,10 +33,14 @@ import org.example.icg.Instrucao;
 public class Main {
     private static final String DIRETORIO_PADRAO = "src/test/resources/";
     private static final String[] EXTENSOES_ACEITAS = {".txt", ".kl"};
+    private static final Path DIRETORIO_DO_CACHE = Path.of(System.getProperty("java.io.tmpdir"), "compilador-a3", "ast");
+    private static final long TAMANHO_MAXIMO_DO_CACHE = 64L * 1024 * 1024;
     
     public static void main(String[] args) {
         try {
-            if (args.length > 0) {
+            if (args.length > 1 && args[0].equals("--fluxo")) {
+                executarEmFluxo(args[1]);
+            } else if (args.length > 0) {
                 executarParaArquivo(args[0]);
             } else {
                 encontrarEExecutarArquivo();
@@ -87,7 +96,7 @@ public class Main {
             return;
         }
 
-        processarFonte(codigoFonte, "entrada interativa");
+        processarFonte(Fonte.de(codigoFonte), "entrada interativa");
     }
 
     private static String lerEntradaDoUsuario() throws IOException {
@@ -111,29 +120,53 @@ public class Main {
         exibirCabecalho("Executando análise a partir de arquivo");
         System.out.println("Arquivo: " + caminhoArquivo); 
         
-        String conteudo = Files.readString(Path.of(caminhoArquivo));
-        processarFonte(conteudo, caminhoArquivo);
+        Path arquivo = Path.of(caminhoArquivo);
+        CacheDeAst cache = new CacheDeAst(DIRETORIO_DO_CACHE, TAMANHO_MAXIMO_DO_CACHE);
+        // Chave e lexing saem do mesmo mapeamento: o arquivo é aberto uma vez só.
+        ByteBuffer conteudo = Fonte.mapearBytes(arquivo);
+        String chave = CacheDeAst.chave(conteudo);
+        List<Stmt> programa = cache.ler(chave);
+        if (programa != null) {
+            System.out.println("[INFO] AST lida do cache, sem lexing nem parsing. Total de declarações: " + programa.size());
+            exibirArvoreSintatica(programa);
+        } else {
+            BufferDeTokens tokens = executarAnaliseLexica(Fonte.de(conteudo), caminhoArquivo);
+            programa = executarAnaliseSintatica(tokens);
+            cache.gravar(chave, programa);
+        }
+        List<Stmt> tipado = executarAnaliseSemantica(programa);
+        executarTranspilacaoJava(tipado);
     }
     
+    // Lê, verifica e executa um comando do topo por vez (ver ExecucaoEmFluxo).
+    private static void executarEmFluxo(String caminhoArquivo) throws IOException {
+        exibirCabecalho("Executando em fluxo");
+        System.out.println("Arquivo: " + caminhoArquivo);
+
+        try (BufferedReader leitor = Files.newBufferedReader(Path.of(caminhoArquivo))) {
+            long executados = ExecucaoEmFluxo.executar(Fonte.de(leitor));
+            System.out.println("[INFO] Execução em fluxo concluída. Comandos executados: " + executados);
+        }
+    }
+
     private static void exibirCabecalho(String titulo) {
         System.out.println("\n" + "=".repeat(30));
         System.out.println(" " + titulo);
         System.out.println("=".repeat(30));
     }
 
-    private static void processarFonte(String fonte, String origem) {
-        List<AnalisadorLexico.Token> tokens = executarAnaliseLexica(fonte, origem);
+    private static void processarFonte(Fonte fonte, String origem) {
+        BufferDeTokens tokens = executarAnaliseLexica(fonte, origem);
         List<Stmt> programa = executarAnaliseSintatica(tokens);
-        executarAnaliseSemantica(programa);
-        executarTranspilacaoJava(programa); 
+        List<Stmt> tipado = executarAnaliseSemantica(programa);
+        executarTranspilacaoJava(tipado);
     }
 
 
 
-    private static List<AnalisadorLexico.Token> executarAnaliseLexica(String fonte, String origem) {
+    private static BufferDeTokens executarAnaliseLexica(Fonte fonte, String origem) {
         System.out.println("[INFO] Iniciando lexing para " + origem + "...");
-        AnalisadorLexico lexer = new AnalisadorLexico(fonte);
-        List<AnalisadorLexico.Token> tokens = lexer.analisar();
+        BufferDeTokens tokens = AnalisadorLexicoParalelo.analisar(fonte);
 
         exibirTokens(tokens);
         exibirResumoTokens(tokens);
@@ -141,18 +174,17 @@ public class Main {
         return tokens;
     }
 
-    private static void exibirTokens(List<AnalisadorLexico.Token> tokens) {
-        System.out.println("[INFO] Lexing concluído. Total de tokens: " + tokens.size());
-        int idx = 0;
-        for (AnalisadorLexico.Token token : tokens) {
-            System.out.printf("[TOK %03d] %-12s %s%n", idx++, token.tipo, token.lexema);
+    private static void exibirTokens(BufferDeTokens tokens) {
+        System.out.println("[INFO] Lexing concluído. Total de tokens: " + tokens.tamanho());
+        for (int idx = 0; idx < tokens.tamanho(); idx++) {
+            System.out.printf("[TOK %03d] %-12s %s%n", idx, tokens.tipo(idx), tokens.lexema(idx));
         }
     }
 
-    private static void exibirResumoTokens(List<AnalisadorLexico.Token> tokens) {
+    private static void exibirResumoTokens(BufferDeTokens tokens) {
         Map<AnalisadorLexico.TipoToken, Integer> contagem = new EnumMap<>(AnalisadorLexico.TipoToken.class);
-        for (AnalisadorLexico.Token t : tokens) {
-            contagem.merge(t.tipo, 1, Integer::sum);
+        for (int idx = 0; idx < tokens.tamanho(); idx++) {
+            contagem.merge(tokens.tipo(idx), 1, Integer::sum);
         }
         
         System.out.println("[INFO] Resumo por tipo de token:");
@@ -161,10 +193,9 @@ public class Main {
                 .forEach(e -> System.out.printf("   - %-15s : %d%n", e.getKey(), e.getValue()));
     }
 
-    private static List<Stmt> executarAnaliseSintatica(List<AnalisadorLexico.Token> tokens) {
+    private static List<Stmt> executarAnaliseSintatica(BufferDeTokens tokens) {
         System.out.println("[INFO] Iniciando parsing...");
-        Parser parser = new Parser(tokens);
-        List<Stmt> programa = parser.analisar();
+        List<Stmt> programa = ParserParalelo.analisar(tokens);
         
         System.out.println("[INFO] Parsing concluído. Total de declarações: " + programa.size());
         exibirArvoreSintatica(programa);
@@ -181,16 +212,17 @@ public class Main {
         }
     }
 
-    private static void executarAnaliseSemantica(List<Stmt> programa) {
+    private static List<Stmt> executarAnaliseSemantica(List<Stmt> programa) {
         System.out.println("[INFO] Iniciando Análise Semântica...");
         AnalisadorSemantico semantico = new AnalisadorSemantico();
-        semantico.analisar(programa);
+        List<Stmt> tipado = semantico.analisar(programa);
         System.out.println("[INFO] Semântica OK!");
+        return tipado;
     }
 
     private static List<Instrucao> executarGeracaoDeCodigo(List<Stmt> programa) {
         System.out.println("[INFO] Iniciando Geração de Código Intermediário...");
-        GeradorDeCodigo gerador = new GeradorDeCodigo();
+        GeradorDeCodigo gerador = new GeradorDeCodigo(true);
         List<Instrucao> codigo = gerador.gerar(programa);
 
         System.out.println("[INFO] Código Intermediário Gerado:");
@@ -198,6 +230,8 @@ public class Main {
         for (Instrucao inst : codigo) {
             System.out.printf("[IC %03d] %s%n", idx++, inst);
         }
+        System.out.println("[INFO] Código morto removido: " + gerador.getNosRemovidos() + " nós, "
+                + gerador.getInstrucoesRemovidas() + " instruções.");
         System.out.println("[INFO] Geração de Código concluída.");
         return codigo;
     }
@@ -218,8 +252,9 @@ public class Main {
     private static void executarTranspilacaoJava(List<Stmt> programa) {
         System.out.println("[INFO] Iniciando Transpilação para Java...");
         
-        org.example.gerador.GeradorCodigo gerador = new org.example.gerador.GeradorCodigo();
+        org.example.gerador.GeradorCodigo gerador = new org.example.gerador.GeradorCodigo(true);
         String codigoJava = gerador.gerarClasseJava(programa);
+        System.out.println("[INFO] Código morto removido: " + gerador.getNosRemovidos() + " nós.");
 
         System.out.println("\n--- CÓDIGO JAVA GERADO ---\n");
         System.out.println(codigoJava);
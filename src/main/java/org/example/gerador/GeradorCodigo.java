@@ -1,12 +1,32 @@
 package org.example.gerador;
 
+import org.example.otimizacao.Otimizador;
+import org.example.otimizacao.Semantica;
 import org.example.sintatico.Expr;
 import org.example.sintatico.Stmt;
 import org.example.sintatico.Stmt.Read;
 
 public class GeradorCodigo implements Stmt.Visitor<String>, Expr.Visitor<String> {
 
+    private final Otimizador otimizador;
+
+    public GeradorCodigo() {
+        this(false);
+    }
+
+    // Com otimizar, a árvore tipada passa antes pelo Otimizador com a
+    // semântica do Java.
+    public GeradorCodigo(boolean otimizar) {
+        this.otimizador = otimizar ? new Otimizador(Semantica.JAVA) : null;
+    }
+
+    // Nós removidos pela eliminação de código morto na última transpilação.
+    public int getNosRemovidos() {
+        return otimizador != null ? otimizador.getNosRemovidos() : 0;
+    }
+
 public String gerarClasseJava(java.util.List<Stmt> statements) {
+        if (otimizador != null) statements = otimizador.otimizar(statements);
         StringBuilder codigo = new StringBuilder();
         
         codigo.append("import java.util.Scanner;\n\n");
@@ -42,7 +62,7 @@ public String gerarClasseJava(java.util.List<Stmt> statements) {
 
     @Override
     public String visitIf(Stmt.If stmt) {
-        String codigo = "        if (" + stmt.condition.accept(this) + ") {\n";
+        String codigo = "        if (" + condicao(stmt.condition) + ") {\n";
         codigo += stmt.thenBranch.accept(this);
         codigo += "        }";
         if (stmt.elseBranch != null) {
@@ -53,7 +73,14 @@ public String gerarClasseJava(java.util.List<Stmt> statements) {
 
     @Override
     public String visitWhile(Stmt.While stmt) {
-        return "        while (" + stmt.condition.accept(this) + ") " + stmt.body.accept(this) + "\n";
+        return "        while (" + condicao(stmt.condition) + ") " + stmt.body.accept(this) + "\n";
+    }
+
+    // O verificador de tipos aceita int como condição; no Java ela vira uma
+    // comparação com zero.
+    private String condicao(Expr condicao) {
+        if (condicao.tipo == Expr.Tipo.INT) return "(" + condicao.accept(this) + ") != 0";
+        return condicao.accept(this);
     }
 
     @Override
@@ -75,9 +102,12 @@ public String gerarClasseJava(java.util.List<Stmt> statements) {
 
     @Override
     public String visitBinary(Expr.Binary expr) {
-        if (expr.operator.equals("==") || expr.operator.equals("!=")) {
-        }
-        return expr.left.accept(this) + " " + expr.operator + " " + expr.right.accept(this);
+        return expr.left.accept(this) + " " + expr.operator.symbol + " " + expr.right.accept(this);
+    }
+
+    @Override
+    public String visitAssign(Expr.Assign expr) {
+        return expr.target.name + " = " + expr.value.accept(this);
     }
 
     @Override
@@ -94,8 +124,9 @@ public String gerarClasseJava(java.util.List<Stmt> statements) {
     }
     
     @Override public String visitGrouping(Expr.Grouping expr) { return "(" + expr.expression.accept(this) + ")"; }
-    @Override public String visitUnary(Expr.Unary expr) { return expr.operator + expr.right.accept(this); }
-    @Override public String visitLogical(Expr.Logical expr) { return expr.left.accept(this) + " " + expr.operator + " " + expr.right.accept(this); }
+    @Override public String visitUnary(Expr.Unary expr) { return expr.operator.symbol + expr.right.accept(this); }
+    @Override public String visitConversion(Expr.Conversion expr) { return "((" + converterTipo(expr.tipo.nome) + ") (" + expr.expression.accept(this) + "))"; }
+    @Override public String visitLogical(Expr.Logical expr) { return expr.left.accept(this) + " " + expr.operator.symbol + " " + expr.right.accept(this); }
 
     private String converterTipo(String tipoNossaLing) {
         if (tipoNossaLing.equals("real")) return "double";
@@ -1,26 +1,185 @@
 package org.example.icg;
 
+import org.example.otimizacao.Otimizador;
+import org.example.otimizacao.Semantica;
+import org.example.sintatico.AstPlana;
 import org.example.sintatico.Expr;
+import org.example.sintatico.PilhaDeVisita;
 import org.example.sintatico.Stmt;
 
 import java.util.ArrayList;
 import java.util.List;
 
+// Os filhos são agendados na PilhaDeVisita em vez de visitados na hora; o que
+// precisa ser emitido depois deles fica numa etapa seguinte do mesmo nó. O
+// dado do quadro guarda o número do primeiro label reservado pelo nó.
 public class GeradorDeCodigo implements Stmt.Visitor<Void>, Expr.Visitor<Void> {
 
     private final List<Instrucao> codigo = new ArrayList<>();
+    private final PilhaDeVisita pilha = new PilhaDeVisita();
     private int labelCounter = 0;
+    private final Otimizador otimizador;
+
+    public GeradorDeCodigo() {
+        this(false);
+    }
+
+    // Com otimizar, a árvore passa antes pelo Otimizador com a semântica do
+    // InterpretadorIC.
+    public GeradorDeCodigo(boolean otimizar) {
+        this.otimizador = otimizar ? new Otimizador(Semantica.CODIGO_INTERMEDIARIO) : null;
+    }
 
     public List<Instrucao> gerar(List<Stmt> statements) {
-        for (Stmt stmt : statements) {
-            if (stmt != null) {
-                stmt.accept(this);
-            }
+        if (otimizador != null) statements = otimizador.otimizar(statements);
+        pilha.empilharEmOrdem(statements);
+        pilha.percorrer(this, this);
+        codigo.add(new Instrucao(Instrucao.OpCode.HALT));
+        return codigo;
+    }
+
+    // Quanto a eliminação de código morto tirou do último gerar(): os nós da
+    // árvore e as instruções que o mesmo programa geraria sem ela.
+    public int getNosRemovidos() {
+        return otimizador != null ? otimizador.getNosRemovidos() : 0;
+    }
+
+    public int getInstrucoesRemovidas() {
+        if (otimizador == null) return 0;
+        return new GeradorDeCodigo().gerar(otimizador.getAntesDaEliminacao()).size() - codigo.size();
+    }
+
+    // Mesma geração, percorrendo a árvore plana por índices.
+    public List<Instrucao> gerar(AstPlana ast) {
+        for (int raiz = 0; raiz < ast.tamanho(); raiz = ast.fim(raiz)) {
+            pilha.agendar(raiz);
+        }
+        pilha.descarregarAgenda();
+        while (!pilha.vazia()) {
+            visitarPlano(ast, (Integer) pilha.desempilhar());
+            pilha.descarregarAgenda();
         }
         codigo.add(new Instrucao(Instrucao.OpCode.HALT));
         return codigo;
     }
 
+    private void visitarPlano(AstPlana ast, int no) {
+        int etapa = pilha.etapa();
+        int base = pilha.dado();
+        switch (ast.tipo(no)) {
+            case DECLARACAO:
+                if (etapa == 0 && ast.temFilhos(no)) {
+                    pilha.agendar(no + 1);
+                    pilha.agendar(no, 1);
+                    return;
+                }
+                if (etapa == 0) emit(Instrucao.OpCode.PUSH, 0);
+                emitVariavel(Instrucao.OpCode.STORE, ast.nome(no), ast.simbolo(no));
+                break;
+            case EXPRESSAO:
+            case PRINT:
+                if (etapa == 0) {
+                    pilha.agendar(no + 1);
+                    pilha.agendar(no, 1);
+                } else {
+                    emit(ast.tipo(no) == AstPlana.TipoNo.PRINT ? Instrucao.OpCode.PRINT : Instrucao.OpCode.POP);
+                }
+                break;
+            case READ:
+                emitVariavel(Instrucao.OpCode.READ, ast.nome(no), ast.simbolo(no));
+                break;
+            case BLOCO:
+                for (int filho = no + 1; filho < ast.fim(no); filho = ast.fim(filho)) {
+                    pilha.agendar(filho);
+                }
+                break;
+            case IF:
+                if (etapa == 0) {
+                    base = reservarLabels(2);
+                    int condicao = no + 1;
+                    int entao = ast.fim(condicao);
+                    int senao = ast.fim(entao);
+                    pilha.agendar(condicao);
+                    pilha.agendar(no, 1, base);
+                    pilha.agendar(entao);
+                    pilha.agendar(no, 2, base);
+                    if (senao < ast.fim(no)) pilha.agendar(senao);
+                    pilha.agendar(no, 3, base);
+                } else {
+                    emitirIf(etapa, base);
+                }
+                break;
+            case WHILE:
+                if (etapa == 0) {
+                    base = reservarLabels(2);
+                    emitLabel(label(base));
+                    pilha.agendar(no + 1);
+                    pilha.agendar(no, 1, base);
+                    pilha.agendar(ast.fim(no + 1));
+                    pilha.agendar(no, 2, base);
+                } else {
+                    emitirWhile(etapa, base);
+                }
+                break;
+            case LITERAL:
+                emit(Instrucao.OpCode.PUSH, ast.constante(no));
+                break;
+            case VARIAVEL:
+                emitVariavel(Instrucao.OpCode.LOAD, ast.nome(no), ast.simbolo(no));
+                break;
+            case AGRUPAMENTO:
+                pilha.agendar(no + 1);
+                break;
+            case UNARIO:
+                if (etapa == 0) {
+                    pilha.agendar(no + 1);
+                    pilha.agendar(no, 1);
+                } else {
+                    emit(opCode(ast.operadorUnario(no)));
+                }
+                break;
+            case CONVERSAO:
+                if (etapa == 0) {
+                    pilha.agendar(no + 1);
+                    pilha.agendar(no, 1);
+                } else {
+                    emit(Instrucao.OpCode.CONV, ast.tipoConvertido(no).nome);
+                }
+                break;
+            case BINARIO:
+                if (etapa == 0) {
+                    pilha.agendar(no + 1);
+                    pilha.agendar(ast.fim(no + 1));
+                    pilha.agendar(no, 1);
+                } else {
+                    emit(opCode(ast.operadorBinario(no)));
+                }
+                break;
+            case LOGICO:
+                if (etapa == 0) {
+                    base = reservarLabels(1);
+                    pilha.agendar(no + 1);
+                    pilha.agendar(no, 1, base);
+                    pilha.agendar(ast.fim(no + 1));
+                    pilha.agendar(no, 2, base);
+                } else {
+                    emitirLogico(ast.operadorLogico(no), etapa, base);
+                }
+                break;
+            case ATRIBUICAO:
+                if (etapa == 0) {
+                    pilha.agendar(no + 1);
+                    pilha.agendar(no, 1);
+                } else {
+                    emitVariavel(Instrucao.OpCode.STORE, ast.nome(no), ast.simbolo(no));
+                    emitVariavel(Instrucao.OpCode.LOAD, ast.nome(no), ast.simbolo(no));
+                }
+                break;
+            default:
+                throw new RuntimeException("Nó inesperado na Geração de Código: " + ast.tipo(no));
+        }
+    }
+
     private void emit(Instrucao.OpCode opCode) {
         codigo.add(new Instrucao(opCode));
     }
@@ -28,186 +187,247 @@ public class GeradorDeCodigo implements Stmt.Visitor<Void>, Expr.Visitor<Void> {
     private void emit(Instrucao.OpCode opCode, Object operando) {
         codigo.add(new Instrucao(opCode, operando));
     }
-    
+
+    private void emitVariavel(Instrucao.OpCode opCode, String nome, int indice) {
+        codigo.add(new Instrucao(opCode, nome, indice));
+    }
+
     private void emitLabel(String label) {
         codigo.add(new Instrucao(Instrucao.OpCode.LABEL, label));
     }
 
-    private String novaLabel() {
-        return "L" + (labelCounter++);
+    // Reserva 'quantidade' labels seguidos e devolve o número do primeiro.
+    private int reservarLabels(int quantidade) {
+        int primeiro = labelCounter;
+        labelCounter += quantidade;
+        return primeiro;
+    }
+
+    private static String label(int numero) {
+        return "L" + numero;
+    }
+
+    private void gerar(Stmt stmt) {
+        if (stmt != null) pilha.agendar(stmt);
+    }
+
+    private void gerar(Expr expr) {
+        pilha.agendar(expr);
     }
 
     @Override
     public Void visitVar(Stmt.Var stmt) {
-        if (stmt.initializer != null) {
-            stmt.initializer.accept(this);
-            emit(Instrucao.OpCode.STORE, stmt.name);
-        } else {
-            emit(Instrucao.OpCode.PUSH, 0);
-            emit(Instrucao.OpCode.STORE, stmt.name);
+        if (pilha.etapa() == 0 && stmt.initializer != null) {
+            gerar(stmt.initializer);
+            pilha.agendar(stmt, 1);
+            return null;
         }
+        if (stmt.initializer == null) emit(Instrucao.OpCode.PUSH, 0);
+        emitVariavel(Instrucao.OpCode.STORE, stmt.name, stmt.slot);
         return null;
     }
 
     @Override
     public Void visitExprStmt(Stmt.ExprStmt stmt) {
-        stmt.expression.accept(this);
-        emit(Instrucao.OpCode.POP);
+        if (pilha.etapa() == 0) {
+            gerar(stmt.expression);
+            pilha.agendar(stmt, 1);
+        } else {
+            emit(Instrucao.OpCode.POP);
+        }
         return null;
     }
 
     @Override
     public Void visitPrint(Stmt.Print stmt) {
-        stmt.expression.accept(this); 
-        emit(Instrucao.OpCode.PRINT); 
+        if (pilha.etapa() == 0) {
+            gerar(stmt.expression);
+            pilha.agendar(stmt, 1);
+        } else {
+            emit(Instrucao.OpCode.PRINT);
+        }
         return null;
     }
 
     @Override
     public Void visitRead(Stmt.Read stmt) {
-        emit(Instrucao.OpCode.READ, stmt.name); 
+        emitVariavel(Instrucao.OpCode.READ, stmt.name, stmt.slot);
         return null;
     }
 
     @Override
     public Void visitBlock(Stmt.Block stmt) {
         for (Stmt s : stmt.statements) {
-            if (s != null) {
-                s.accept(this);
-            }
+            gerar(s);
         }
         return null;
     }
 
     @Override
     public Void visitIf(Stmt.If stmt) {
-        String labelElse = novaLabel();
-        String labelFim = novaLabel();
-
-        stmt.condition.accept(this);
-        emit(Instrucao.OpCode.JMPF, labelElse);
-
-        if (stmt.thenBranch != null) {
-            stmt.thenBranch.accept(this);
+        if (pilha.etapa() != 0) {
+            emitirIf(pilha.etapa(), pilha.dado());
+            return null;
         }
+        int base = reservarLabels(2);
+        gerar(stmt.condition);
+        pilha.agendar(stmt, 1, base);
+        gerar(stmt.thenBranch);
+        pilha.agendar(stmt, 2, base);
+        gerar(stmt.elseBranch);
+        pilha.agendar(stmt, 3, base);
+        return null;
+    }
 
-        emit(Instrucao.OpCode.JMP, labelFim);
-        emitLabel(labelElse);
-
-        if (stmt.elseBranch != null) {
-            stmt.elseBranch.accept(this);
+    // Labels: base é o else, base + 1 o fim.
+    private void emitirIf(int etapa, int base) {
+        if (etapa == 1) {
+            emit(Instrucao.OpCode.JMPF, label(base));
+        } else if (etapa == 2) {
+            emit(Instrucao.OpCode.JMP, label(base + 1));
+            emitLabel(label(base));
+        } else {
+            emitLabel(label(base + 1));
         }
-
-        emitLabel(labelFim);
-        return null;
     }
 
     @Override
     public Void visitWhile(Stmt.While stmt) {
-        String labelInicio = novaLabel();
-        String labelFim = novaLabel();
-
-        emitLabel(labelInicio);
-
-        stmt.condition.accept(this); 
-
-        emit(Instrucao.OpCode.JMPF, labelFim);
-
-        if (stmt.body != null) {
-            stmt.body.accept(this);
+        if (pilha.etapa() != 0) {
+            emitirWhile(pilha.etapa(), pilha.dado());
+            return null;
         }
-
-        emit(Instrucao.OpCode.JMP, labelInicio);
-
-        emitLabel(labelFim);
+        int base = reservarLabels(2);
+        emitLabel(label(base));
+        gerar(stmt.condition);
+        pilha.agendar(stmt, 1, base);
+        gerar(stmt.body);
+        pilha.agendar(stmt, 2, base);
         return null;
     }
 
+    // Labels: base é o início, base + 1 o fim.
+    private void emitirWhile(int etapa, int base) {
+        if (etapa == 1) {
+            emit(Instrucao.OpCode.JMPF, label(base + 1));
+        } else {
+            emit(Instrucao.OpCode.JMP, label(base));
+            emitLabel(label(base + 1));
+        }
+    }
+
     @Override
     public Void visitLiteral(Expr.Literal expr) {
-        emit(Instrucao.OpCode.PUSH, expr.value); 
+        emit(Instrucao.OpCode.PUSH, expr.value);
         return null;
     }
 
     @Override
     public Void visitVariable(Expr.Variable expr) {
-        emit(Instrucao.OpCode.LOAD, expr.name); 
+        emitVariavel(Instrucao.OpCode.LOAD, expr.name, expr.slot);
         return null;
     }
 
     @Override
     public Void visitGrouping(Expr.Grouping expr) {
-        expr.expression.accept(this); 
+        gerar(expr.expression);
         return null;
     }
 
     @Override
     public Void visitUnary(Expr.Unary expr) {
-        expr.right.accept(this);
-        switch (expr.operator) {
-            case "-":
-                emit(Instrucao.OpCode.NEG);
-                break;
-            case "!":
-                emit(Instrucao.OpCode.NOT);
-                break;
-            default:
-                throw new RuntimeException("Operador unário desconhecido: " + expr.operator);
+        if (pilha.etapa() == 0) {
+            gerar(expr.right);
+            pilha.agendar(expr, 1);
+        } else {
+            emit(opCode(expr.operator));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitConversion(Expr.Conversion expr) {
+        if (pilha.etapa() == 0) {
+            gerar(expr.expression);
+            pilha.agendar(expr, 1);
+        } else {
+            emit(Instrucao.OpCode.CONV, expr.tipo.nome);
         }
         return null;
     }
 
     @Override
     public Void visitBinary(Expr.Binary expr) {
-        // Atribuição
-        if ("=".equals(expr.operator)) {
-            if (!(expr.left instanceof Expr.Variable)) {
-                throw new RuntimeException("Lado esquerdo da atribuição deve ser variável.");
-            }
-            Expr.Variable var = (Expr.Variable) expr.left;
-            expr.right.accept(this);
-            emit(Instrucao.OpCode.STORE, var.name);
-            emit(Instrucao.OpCode.LOAD, var.name); 
-            return null;
+        if (pilha.etapa() == 0) {
+            gerar(expr.left);
+            gerar(expr.right);
+            pilha.agendar(expr, 1);
+        } else {
+            emit(opCode(expr.operator));
         }
+        return null;
+    }
 
-        expr.left.accept(this);
-        expr.right.accept(this);
+    private static Instrucao.OpCode opCode(Expr.UnaryOp operador) {
+        switch (operador) {
+            case NEGATE: return Instrucao.OpCode.NEG;
+            case NOT: return Instrucao.OpCode.NOT;
+            default: throw new RuntimeException("Operador unário desconhecido: " + operador);
+        }
+    }
 
-        switch (expr.operator) {
-            case "+": emit(Instrucao.OpCode.ADD); break;
-            case "-": emit(Instrucao.OpCode.SUB); break;
-            case "*": emit(Instrucao.OpCode.MUL); break;
-            case "/": emit(Instrucao.OpCode.DIV); break;
-            case "%": emit(Instrucao.OpCode.MOD); break;
-            case "==": emit(Instrucao.OpCode.EQ); break;
-            case "!=": emit(Instrucao.OpCode.NEQ); break;
-            case ">": emit(Instrucao.OpCode.GT); break;
-            case "<": emit(Instrucao.OpCode.LT); break;
-            case ">=": emit(Instrucao.OpCode.GTE); break;
-            case "<=": emit(Instrucao.OpCode.LTE); break;
-            default: throw new RuntimeException("Operador binário desconhecido na Geração de Código: " + expr.operator);
+    private static Instrucao.OpCode opCode(Expr.BinaryOp operador) {
+        switch (operador) {
+            case ADD: return Instrucao.OpCode.ADD;
+            case SUBTRACT: return Instrucao.OpCode.SUB;
+            case MULTIPLY: return Instrucao.OpCode.MUL;
+            case DIVIDE: return Instrucao.OpCode.DIV;
+            case MODULO: return Instrucao.OpCode.MOD;
+            case EQUAL: return Instrucao.OpCode.EQ;
+            case NOT_EQUAL: return Instrucao.OpCode.NEQ;
+            case GREATER: return Instrucao.OpCode.GT;
+            case LESS: return Instrucao.OpCode.LT;
+            case GREATER_EQUAL: return Instrucao.OpCode.GTE;
+            case LESS_EQUAL: return Instrucao.OpCode.LTE;
+            default: throw new RuntimeException("Operador binário desconhecido na Geração de Código: " + operador);
         }
-        return null;
     }
 
     @Override
     public Void visitLogical(Expr.Logical expr) {
-        String labelFim = novaLabel();
-        
-        expr.left.accept(this);
-        
-        if ("||".equals(expr.operator)) {
-            emit(Instrucao.OpCode.JMPT, labelFim);
-            expr.right.accept(this);
-        } else if ("&&".equals(expr.operator)) {
-            emit(Instrucao.OpCode.JMPF, labelFim);
-            expr.right.accept(this);
+        if (pilha.etapa() != 0) {
+            emitirLogico(expr.operator, pilha.etapa(), pilha.dado());
+            return null;
+        }
+        int base = reservarLabels(1);
+        gerar(expr.left);
+        pilha.agendar(expr, 1, base);
+        gerar(expr.right);
+        pilha.agendar(expr, 2, base);
+        return null;
+    }
+
+    private void emitirLogico(Expr.LogicalOp operador, int etapa, int labelFim) {
+        if (etapa == 2) {
+            emitLabel(label(labelFim));
+        } else if (operador == Expr.LogicalOp.OR) {
+            emit(Instrucao.OpCode.JMPT, label(labelFim));
+        } else if (operador == Expr.LogicalOp.AND) {
+            emit(Instrucao.OpCode.JMPF, label(labelFim));
+        } else {
+            throw new RuntimeException("Operador lógico desconhecido: " + operador);
+        }
+    }
+
+    @Override
+    public Void visitAssign(Expr.Assign expr) {
+        if (pilha.etapa() == 0) {
+            gerar(expr.value);
+            pilha.agendar(expr, 1);
         } else {
-            throw new RuntimeException("Operador lógico desconhecido: " + expr.operator);
+            emitVariavel(Instrucao.OpCode.STORE, expr.target.name, expr.target.slot);
+            emitVariavel(Instrucao.OpCode.LOAD, expr.target.name, expr.target.slot);
         }
-        
-        emitLabel(labelFim);
         return null;
     }
 }
@@ -6,6 +6,7 @@ public class Instrucao {
         LOAD, STORE,
         ADD, SUB, MUL, DIV, MOD,
         NEG,  
+        CONV,
         EQ, NEQ, GT, LT, GTE, LTE,
         AND, OR, NOT,
         JMP, JMPT, JMPF,
@@ -16,14 +17,22 @@ public class Instrucao {
 
     public final OpCode opCode;
     public final Object operando;
+    // Em LOAD/STORE/READ: posição da variável no ambiente (o operando guarda o
+    // nome). Vem do slot do Resolvedor ou, na árvore plana, do id do símbolo.
+    public final int indice;
 
     public Instrucao(OpCode opCode) {
         this(opCode, null);
     }
 
     public Instrucao(OpCode opCode, Object operando) {
+        this(opCode, operando, -1);
+    }
+
+    public Instrucao(OpCode opCode, Object operando, int indice) {
         this.opCode = opCode;
         this.operando = operando;
+        this.indice = indice;
     }
 
     @Override
@@ -1,23 +1,27 @@
 package org.example.icg;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.Scanner;
 import java.util.Stack;
 
 public class InterpretadorIC {
 
     private final List<Instrucao> codigo;
-    private final Map<String, Object> ambiente = new HashMap<>();
+    private static final Object NAO_DEFINIDA = new Object();
+
+    // Valores das variáveis indexados pelo índice das instruções.
+    private Object[] ambiente = new Object[16];
     private final Stack<Object> pilha = new Stack<>();
     private final Scanner scanner = new Scanner(System.in);
 
     public InterpretadorIC(List<Instrucao> codigo) {
         this.codigo = codigo;
+        Arrays.fill(ambiente, NAO_DEFINIDA);
     }
 
     public void executar() {
+        verificarIndices();
         int pc = 0; 
         while (pc < codigo.size()) {
             Instrucao instrucao = codigo.get(pc);
@@ -31,18 +35,17 @@ public class InterpretadorIC {
                     pilha.pop();
                     break;
                 case LOAD:
-                    String varLoad = (String) instrucao.operando;
-                    if (!ambiente.containsKey(varLoad)) {
-                        throw new RuntimeException("Erro em tempo de execução: Variável '" + varLoad + "' não inicializada.");
+                    Object valorLoad = instrucao.indice < ambiente.length ? ambiente[instrucao.indice] : NAO_DEFINIDA;
+                    if (valorLoad == NAO_DEFINIDA) {
+                        throw new RuntimeException("Erro em tempo de execução: Variável '" + instrucao.operando + "' não inicializada.");
                     }
-                    pilha.push(ambiente.get(varLoad));
+                    pilha.push(valorLoad);
                     break;
                 case STORE: {
                     if (pilha.isEmpty()) {
                         throw new RuntimeException("Pilha vazia para operação STORE");
                     }
-                    String varStore = (String) instrucao.operando;
-                    ambiente.put(varStore, pilha.pop());
+                    armazenar(instrucao.indice, pilha.pop());
                     break;
                 }
                 case ADD: {
@@ -103,6 +106,14 @@ public class InterpretadorIC {
                     pilha.push(-paraNumero(pilha.pop()));
                     break;
                 }
+                case CONV: {
+                    // O operando é o tipo de destino; hoje só há int para real.
+                    if (!"real".equals(instrucao.operando)) {
+                        throw new RuntimeException("Conversão desconhecida: " + instrucao.operando);
+                    }
+                    pilha.push(paraNumero(pilha.pop()));
+                    break;
+                }
                 case EQ: {
                     if (pilha.size() < 2) {
                         throw new RuntimeException("Pilha vazia para operação EQ");
@@ -212,9 +223,9 @@ public class InterpretadorIC {
                     System.out.print("[INPUT] Informe valor para " + varRead + ": ");
                     String linha = scanner.nextLine();
                     try {
-                        ambiente.put(varRead, Double.parseDouble(linha));
+                        armazenar(instrucao.indice, Double.parseDouble(linha));
                     } catch (NumberFormatException e) {
-                        ambiente.put(varRead, linha);
+                        armazenar(instrucao.indice, linha);
                     }
                     break;
                 case PRINT: {
@@ -235,6 +246,29 @@ public class InterpretadorIC {
         }
     }
 
+    // Instruções montadas à mão com Instrucao(OpCode, Object), ou geradas de
+    // uma árvore não resolvida, ficam com índice -1; o ambiente é indexado,
+    // então elas são recusadas antes de executar qualquer coisa.
+    private void verificarIndices() {
+        for (Instrucao instrucao : codigo) {
+            boolean variavel = instrucao.opCode == Instrucao.OpCode.LOAD || instrucao.opCode == Instrucao.OpCode.STORE
+                    || instrucao.opCode == Instrucao.OpCode.READ;
+            if (variavel && instrucao.indice < 0) {
+                throw new RuntimeException("Erro em tempo de execução: Instrução " + instrucao.opCode + " da variável '"
+                        + instrucao.operando + "' sem índice no ambiente.");
+            }
+        }
+    }
+
+    private void armazenar(int indice, Object valor) {
+        if (indice >= ambiente.length) {
+            int tamanhoAnterior = ambiente.length;
+            ambiente = Arrays.copyOf(ambiente, Math.max(indice + 1, tamanhoAnterior * 2));
+            Arrays.fill(ambiente, tamanhoAnterior, ambiente.length, NAO_DEFINIDA);
+        }
+        ambiente[indice] = valor;
+    }
+
     private int encontrarLabel(String label) {
         for (int i = 0; i < codigo.size(); i++) {
             Instrucao inst = codigo.get(i);
@@ -1,8 +1,11 @@
 package org.example.lexico;
 
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 
 public class AnalisadorLexico {
@@ -26,10 +29,26 @@ public class AnalisadorLexico {
     public static class Token {
         public TipoToken tipo;
         public String lexema;
+        public int simbolo;
+        public long valorInteiro;
+        public double valorReal;
+        public Operador operador;
 
+        // Token montado à mão: o número é decodificado do lexema como o
+        // analisador léxico faria, inclusive a checagem de estouro.
         public Token(TipoToken tipo, String lexema) {
+            this(tipo, lexema, -1);
+            if (tipo == TipoToken.NUM_INT) {
+                valorInteiro = decodificarInteiro(new FonteTexto(lexema), 0, lexema.length());
+            } else if (tipo == TipoToken.NUM_REAL) {
+                valorReal = decodificarReal(new FonteTexto(lexema), 0, lexema.length());
+            }
+        }
+
+        public Token(TipoToken tipo, String lexema, int simbolo) {
             this.tipo = tipo;
             this.lexema = lexema;
+            this.simbolo = simbolo;
         }
 
         @Override
@@ -38,108 +57,330 @@ public class AnalisadorLexico {
         }
     }
 
-    private String codigo;
+    private static final String[] PALAVRAS_RESERVADAS = new String[TipoToken.values().length];
+
+    static {
+        PALAVRAS_RESERVADAS[TipoToken.PC_INT.ordinal()] = "int";
+        PALAVRAS_RESERVADAS[TipoToken.PC_REAL.ordinal()] = "real";
+        PALAVRAS_RESERVADAS[TipoToken.PC_STRING.ordinal()] = "string";
+        PALAVRAS_RESERVADAS[TipoToken.PC_IF.ordinal()] = "if";
+        PALAVRAS_RESERVADAS[TipoToken.PC_ELSE.ordinal()] = "else";
+        PALAVRAS_RESERVADAS[TipoToken.PC_WHILE.ordinal()] = "while";
+        PALAVRAS_RESERVADAS[TipoToken.PC_FUNC.ordinal()] = "func";
+        PALAVRAS_RESERVADAS[TipoToken.PC_MAIN.ordinal()] = "main";
+        PALAVRAS_RESERVADAS[TipoToken.PC_READ.ordinal()] = "read";
+        PALAVRAS_RESERVADAS[TipoToken.PC_PRINT.ordinal()] = "print";
+    }
+
+    private static final long LIMITE_MANTISSA = 1L << 53;
+    private static final double[] POTENCIAS_DE_DEZ = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Fonte fonte;
+    private final TabelaDeIdentificadores identificadores;
     private int pos = 0;
+    private int inicioLexema;
+    private int fimLexema;
+    // Id do símbolo (ID), valor do NUM_INT, bits do double (NUM_REAL) ou
+    // ordinal do Operador.
+    private long valorAtual;
 
     public AnalisadorLexico(String codigo) {
-        this.codigo = codigo;
+        this(Fonte.de(codigo));
     }
 
-    public List<Token> analisar() {
-        List<Token> tokens = new ArrayList<>();
+    public AnalisadorLexico(Reader leitor) {
+        this(Fonte.de(leitor));
+    }
 
-        while (pos < codigo.length()) {
-            char atual = codigo.charAt(pos);
+    public AnalisadorLexico(ReadableByteChannel canal) {
+        this(Channels.newReader(canal, StandardCharsets.UTF_8));
+    }
 
-            if (Character.isWhitespace(atual)) { pos++; continue; }
+    public AnalisadorLexico(Fonte fonte) {
+        this(fonte, new TabelaDeIdentificadores());
+    }
 
-            if (Character.isDigit(atual)) {
-                tokens.add(lerNumero());
-            } else if (Character.isLetter(atual)) {
-                tokens.add(lerPalavra());
-            } else if (atual == '"') {
-                tokens.add(lerString());
-            } else {
-                tokens.add(lerSimbolo(atual));
-            }
-        }
+    public AnalisadorLexico(Fonte fonte, TabelaDeIdentificadores identificadores) {
+        this(fonte, identificadores, 0);
+    }
+
+    // Começa a leitura em 'inicio'; usado para analisar pedaços de uma fonte.
+    AnalisadorLexico(Fonte fonte, TabelaDeIdentificadores identificadores, int inicio) {
+        this.fonte = fonte;
+        this.identificadores = identificadores;
+        this.pos = inicio;
+    }
+
+    public TabelaDeIdentificadores getIdentificadores() {
+        return identificadores;
+    }
 
-        tokens.add(new Token(TipoToken.EOF, ""));
+    public List<Token> analisar() {
+        List<Token> tokens = new ArrayList<>();
+        TipoToken tipo;
+        do {
+            tipo = proximoToken();
+            Token token = new Token(tipo, lexemaAtual(tipo), tipo == TipoToken.ID ? (int) valorAtual : -1);
+            if (tipo == TipoToken.NUM_INT) token.valorInteiro = valorAtual;
+            if (tipo == TipoToken.NUM_REAL) token.valorReal = Double.longBitsToDouble(valorAtual);
+            if (Operador.ehOperador(tipo)) token.operador = Operador.porOrdinal(valorAtual);
+            tokens.add(token);
+        } while (tipo != TipoToken.EOF);
         return tokens;
     }
 
-    private Token lerNumero() {
+    public BufferDeTokens analisarParaBuffer() {
+        BufferDeTokens buffer = new BufferDeTokens(fonte, identificadores, 256);
+        TipoToken tipo;
+        do {
+            tipo = proximoToken();
+            buffer.adicionar(tipo, inicioLexema, fimLexema, valorAtual);
+        } while (tipo != TipoToken.EOF);
+        return buffer;
+    }
+
+    // Um token por vez direto para o buffer; usado pela análise incremental.
+    TipoToken analisarProximoPara(BufferDeTokens buffer) {
+        TipoToken tipo = proximoToken();
+        buffer.adicionar(tipo, inicioLexema, fimLexema, valorAtual);
+        return tipo;
+    }
+
+    // Fluxo preguiçoso: cada token só é lido quando o Parser avança até ele.
+    public CursorDeTokens cursor() {
+        return new CursorSobDemanda();
+    }
+
+    private TipoToken proximoToken() {
+        pularEspacos();
         int inicio = pos;
-        boolean ehReal = false;
+        valorAtual = 0;
+        if (!fonte.temCaractere(pos)) {
+            marcarLexema(pos, pos);
+            return TipoToken.EOF;
+        }
 
-        while (pos < codigo.length() && (Character.isDigit(codigo.charAt(pos)) || codigo.charAt(pos) == '.')) {
-            if (codigo.charAt(pos) == '.') {
-                if (ehReal) break;
-                ehReal = true;
+        int estado = AutomatoLexico.INICIO;
+        while (fonte.temCaractere(pos)) {
+            int proximo = AutomatoLexico.proximo(estado, AutomatoLexico.classe(fonte.charAt(pos)));
+            if (proximo == AutomatoLexico.UNICODE) {
+                int ponto = fonte.pontoDeCodigo(pos);
+                boolean continua = estado == AutomatoLexico.INICIO
+                        ? Character.isLetter(ponto) : Character.isLetterOrDigit(ponto);
+                if (!continua) break;
+                estado = AutomatoLexico.PALAVRA;
+                pos += fonte.largura(pos);
+                continue;
             }
+            if (proximo == AutomatoLexico.PARAR) break;
+            estado = proximo;
             pos++;
+            // Corpo de string e resto de palavra ASCII são atravessados em bloco.
+            if (estado == AutomatoLexico.STRING) pos = fonte.procurar('"', pos);
+            else if (estado == AutomatoLexico.PALAVRA) pos = fonte.fimDePalavraAscii(pos);
+        }
+
+        TipoToken tipo = AutomatoLexico.aceita(estado);
+        if (tipo == null) throw caractereInvalido(inicio);
+
+        switch (estado) {
+            case AutomatoLexico.STRING:
+                marcarLexema(inicio + 1, pos);
+                return tipo;
+            case AutomatoLexico.STRING_FECHADA:
+                marcarLexema(inicio + 1, pos - 1);
+                return tipo;
+            case AutomatoLexico.PALAVRA:
+                marcarLexema(inicio, pos);
+                tipo = classificarPalavra(inicio, pos);
+                if (tipo == TipoToken.ID) valorAtual = identificadores.internar(fonte, inicio, pos);
+                return tipo;
+            case AutomatoLexico.INTEIRO:
+                marcarLexema(inicio, pos);
+                valorAtual = decodificarInteiro(fonte, inicio, pos);
+                return tipo;
+            case AutomatoLexico.REAL:
+                marcarLexema(inicio, pos);
+                valorAtual = Double.doubleToRawLongBits(decodificarReal(fonte, inicio, pos));
+                return tipo;
+            case AutomatoLexico.ATRIBUICAO:
+            case AutomatoLexico.MAIOR_MENOR:
+            case AutomatoLexico.RELACIONAL_DUPLO:
+            case AutomatoLexico.LOGICO:
+            case AutomatoLexico.OPERADOR_ARITMETICO:
+                marcarLexema(inicio, pos);
+                valorAtual = Operador.de(fonte.charAt(inicio), pos - inicio).ordinal();
+                return tipo;
+            default:
+                marcarLexema(inicio, pos);
+                return tipo;
         }
-        String valor = codigo.substring(inicio, pos);
-        return new Token(ehReal ? TipoToken.NUM_REAL : TipoToken.NUM_INT, valor);
     }
 
-    private Token lerString() {
-        pos++;
-        int inicio = pos;
-        while (pos < codigo.length() && codigo.charAt(pos) != '"') {
-            pos++;
+    private void pularEspacos() {
+        while (fonte.temCaractere(pos)) {
+            char c = fonte.charAt(pos);
+            if (c == ' ') {
+                pos = fonte.pularRepetidos(' ', pos);
+            } else if (c < 0x80) {
+                if (AutomatoLexico.CLASSE[c] != AutomatoLexico.ESPACO) return;
+                pos++;
+            } else {
+                if (!Character.isWhitespace(fonte.pontoDeCodigo(pos))) return;
+                pos += fonte.largura(pos);
+            }
         }
-        String valor = codigo.substring(inicio, pos);
-        if (pos < codigo.length()) pos++;
-        return new Token(TipoToken.TEXTO_STRING, valor);
     }
 
-    private Token lerPalavra() {
-        int inicio = pos;
-        while (pos < codigo.length() && (Character.isLetterOrDigit(codigo.charAt(pos)) || codigo.charAt(pos) == '_')) {
-            pos++;
+    // Palavras reservadas são decididas pelo tamanho e por um caractere que as
+    // distingue, confirmadas comparando direto na fonte; nenhuma String é criada.
+    private TipoToken classificarPalavra(int inicio, int fim) {
+        TipoToken candidata = null;
+        switch (fim - inicio) {
+            case 2:
+                candidata = TipoToken.PC_IF;
+                break;
+            case 3:
+                candidata = TipoToken.PC_INT;
+                break;
+            case 4:
+                switch (fonte.charAt(inicio + 3)) {
+                    case 'l': candidata = TipoToken.PC_REAL; break;
+                    case 'd': candidata = TipoToken.PC_READ; break;
+                    case 'e': candidata = TipoToken.PC_ELSE; break;
+                    case 'c': candidata = TipoToken.PC_FUNC; break;
+                    case 'n': candidata = TipoToken.PC_MAIN; break;
+                }
+                break;
+            case 5:
+                switch (fonte.charAt(inicio)) {
+                    case 'w': candidata = TipoToken.PC_WHILE; break;
+                    case 'p': candidata = TipoToken.PC_PRINT; break;
+                }
+                break;
+            case 6:
+                candidata = TipoToken.PC_STRING;
+                break;
         }
-        String palavra = codigo.substring(inicio, pos);
 
-        switch (palavra) {
-            case "int": return new Token(TipoToken.PC_INT, palavra);
-            case "real": return new Token(TipoToken.PC_REAL, palavra);
-            case "string": return new Token(TipoToken.PC_STRING, palavra);
-            case "if": return new Token(TipoToken.PC_IF, palavra);
-            case "else": return new Token(TipoToken.PC_ELSE, palavra);
-            case "while": return new Token(TipoToken.PC_WHILE, palavra);
-            case "read": return new Token(TipoToken.PC_READ, palavra);
-            case "print": return new Token(TipoToken.PC_PRINT, palavra);
-            case "func": return new Token(TipoToken.PC_FUNC, palavra);
-            case "main": return new Token(TipoToken.PC_MAIN, palavra);
-            default: return new Token(TipoToken.ID, palavra);
+        if (candidata != null && fonte.trechoIgual(inicio, fim, PALAVRAS_RESERVADAS[candidata.ordinal()])) {
+            return candidata;
         }
+        return TipoToken.ID;
     }
 
-    private Token lerSimbolo(char c) {
-        char proximo = (pos + 1 < codigo.length()) ? codigo.charAt(pos + 1) : '\0';
+    private static long decodificarInteiro(Fonte fonte, int inicio, int fim) {
+        long valor = 0;
+        for (int i = inicio; i < fim; i++) {
+            int digito = fonte.charAt(i) - '0';
+            if (valor > (Long.MAX_VALUE - digito) / 10) {
+                throw new RuntimeException("Erro Léxico: Literal inteiro grande demais '" + fonte.trecho(inicio, fim) + "'");
+            }
+            valor = valor * 10 + digito;
+        }
+        return valor;
+    }
+
+    // Caminho rápido de Clinger: com mantissa de até 53 bits e no máximo 22
+    // casas decimais, mantissa / 10^casas é exato com uma única divisão.
+    // Fora disso cai no Double.parseDouble.
+    private static double decodificarReal(Fonte fonte, int inicio, int fim) {
+        long mantissa = 0;
+        int casas = 0;
+        boolean depoisDoPonto = false;
+        for (int i = inicio; i < fim; i++) {
+            char c = fonte.charAt(i);
+            if (c == '.') {
+                depoisDoPonto = true;
+                continue;
+            }
+            if (mantissa > LIMITE_MANTISSA) {
+                return Double.parseDouble(fonte.trecho(inicio, fim));
+            }
+            mantissa = mantissa * 10 + (c - '0');
+            if (depoisDoPonto) casas++;
+        }
+        if (mantissa > LIMITE_MANTISSA || casas >= POTENCIAS_DE_DEZ.length) {
+            return Double.parseDouble(fonte.trecho(inicio, fim));
+        }
+        return mantissa / POTENCIAS_DE_DEZ[casas];
+    }
+
+    private RuntimeException caractereInvalido(int posicao) {
+        char c = fonte.charAt(posicao);
+        String texto = c < 0x80 ? String.valueOf(c) : new String(Character.toChars(fonte.pontoDeCodigo(posicao)));
+        return new RuntimeException("Erro Léxico: Caractere inválido '" + texto + "'");
+    }
+
+    // Palavras reservadas reaproveitam a constante; identificadores usam o nome
+    // guardado na TabelaDeIdentificadores.
+    static String lexema(Fonte fonte, TipoToken tipo, int inicio, int fim) {
+        String reservada = PALAVRAS_RESERVADAS[tipo.ordinal()];
+        return reservada != null ? reservada : fonte.trecho(inicio, fim);
+    }
+
+    private String lexemaAtual(TipoToken tipo) {
+        if (tipo == TipoToken.ID) return identificadores.nome((int) valorAtual);
+        return lexema(fonte, tipo, inicioLexema, fimLexema);
+    }
+
+    private void marcarLexema(int inicio, int fim) {
+        inicioLexema = inicio;
+        fimLexema = fim;
+    }
+
+    private class CursorSobDemanda implements CursorDeTokens {
+        private TipoToken tipo = proximoToken();
+
+        @Override
+        public TipoToken tipo() {
+            return tipo;
+        }
+
+        @Override
+        public String lexema() {
+            return lexemaAtual(tipo);
+        }
+
+        @Override
+        public int simbolo() {
+            return tipo == TipoToken.ID ? (int) valorAtual : -1;
+        }
 
-        if (c == '=' && proximo == '=') { pos += 2; return new Token(TipoToken.OP_REL, "=="); }
-        if (c == '!' && proximo == '=') { pos += 2; return new Token(TipoToken.OP_REL, "!="); }
-        if (c == '&' && proximo == '&') { pos += 2; return new Token(TipoToken.OP_LOGICO, "&&"); }
-        if (c == '|' && proximo == '|') { pos += 2; return new Token(TipoToken.OP_LOGICO, "||"); }
-        if (c == '>' && proximo == '=') { pos += 2; return new Token(TipoToken.OP_REL, ">="); }
-        if (c == '<' && proximo == '=') { pos += 2; return new Token(TipoToken.OP_REL, "<="); }
+        @Override
+        public long valorInteiro() {
+            return valorAtual;
+        }
 
-        pos++;
-        switch (c) {
-            case '=': return new Token(TipoToken.OP_ATRIB, "=");
-            case '+': case '-': case '*': case '/': case '%': return new Token(TipoToken.OP_ARIT, String.valueOf(c));
-            case '>': case '<': return new Token(TipoToken.OP_REL, String.valueOf(c));
-            case '(': case ')': case '{': case '}': case ';': return new Token(TipoToken.DELIM, String.valueOf(c));
-            default: throw new RuntimeException("Erro Léxico: Caractere inválido '" + c + "'");
+        @Override
+        public double valorReal() {
+            return Double.longBitsToDouble(valorAtual);
+        }
+
+        @Override
+        public Operador operador() {
+            return Operador.ehOperador(tipo) ? Operador.porOrdinal(valorAtual) : null;
+        }
+
+        @Override
+        public boolean lexemaIgual(String valor) {
+            return fonte.trechoIgual(inicioLexema, fimLexema, valor);
+        }
+
+        @Override
+        public void avancar() {
+            if (tipo == TipoToken.EOF) return;
+            fonte.descartarAte(pos);
+            tipo = proximoToken();
         }
     }
 
     public static List<Token> analisarArquivo(String caminhoArquivo) {
         try {
-            String conteudo = new String(Files.readAllBytes(Paths.get(caminhoArquivo)));
-            return new AnalisadorLexico(conteudo).analisar();
+            return new AnalisadorLexico(Fonte.mapear(Paths.get(caminhoArquivo))).analisar();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao ler o arquivo: " + e.getMessage(), e);
         }
@@ -0,0 +1,170 @@
+package org.example.lexico;
+
+import java.util.concurrent.locks.LockSupport;
+import org.example.lexico.AnalisadorLexico.TipoToken;
+
+// Análise léxica numa thread produtora enquanto o Parser consome os tokens na
+// thread atual. Os tokens vão em lotes por um anel limitado de um produtor e
+// um consumidor: com o anel cheio o produtor espera (contrapressão), e um
+// erro léxico viaja no anel e só é lançado quando o Parser chega nele, como
+// no cursor sob demanda. Cada lote leva os nomes dos seus identificadores,
+// então o consumidor nunca lê a tabela enquanto ela cresce. Com o anel cheio
+// o produtor dorme sem prazo até o consumidor tirar um lote ou fechar o
+// cursor, e com o anel vazio o consumidor dorme até o próximo lote ser
+// publicado. Fechar encerra o produtor, e o Parser fecha o cursor quando
+// lança um erro. Quem abandona a leitura no meio sem erro precisa fechar.
+//
+// A fonte precisa ter tamanho conhecido: a janela da FonteLeitor é movida
+// pelo produtor e não pode ser lida por outra thread.
+public final class AnalisadorLexicoEmPipeline implements CursorDeTokens, AutoCloseable {
+
+    static final int TOKENS_POR_LOTE = 4096;
+    static final int LOTES_NO_ANEL = 16;
+
+    private static final class Lote {
+        final BufferDeTokens tokens;
+        final String[] nomes = new String[TOKENS_POR_LOTE];
+        RuntimeException erro;
+
+        Lote(Fonte fonte, TabelaDeIdentificadores identificadores) {
+            tokens = new BufferDeTokens(fonte, identificadores, TOKENS_POR_LOTE);
+        }
+    }
+
+    private final Lote[] anel = new Lote[LOTES_NO_ANEL];
+    private volatile long escritos = 0;
+    private volatile long lidos = 0;
+    private volatile boolean fechado = false;
+
+    private final Thread produtor;
+    // Quem lê os lotes; o produtor o acorda a cada lote publicado.
+    private volatile Thread consumidor;
+    private Lote atual;
+    private int posicao = 0;
+
+    public AnalisadorLexicoEmPipeline(Fonte fonte) {
+        if (fonte.tamanho() < 0) {
+            throw new IllegalArgumentException("O pipeline léxico precisa de uma fonte de tamanho conhecido");
+        }
+        produtor = new Thread(() -> produzir(fonte), "analisador-lexico");
+        produtor.setDaemon(true);
+        produtor.start();
+        atual = proximoLote();
+    }
+
+    private void produzir(Fonte fonte) {
+        TabelaDeIdentificadores identificadores = new TabelaDeIdentificadores();
+        AnalisadorLexico lexer = new AnalisadorLexico(fonte, identificadores);
+        TipoToken tipo = null;
+        while (tipo != TipoToken.EOF && !fechado) {
+            Lote lote = new Lote(fonte, identificadores);
+            try {
+                while (lote.tokens.tamanho() < TOKENS_POR_LOTE && tipo != TipoToken.EOF) {
+                    tipo = lexer.analisarProximoPara(lote.tokens);
+                    if (tipo == TipoToken.ID) {
+                        int indice = lote.tokens.tamanho() - 1;
+                        lote.nomes[indice] = identificadores.nome(lote.tokens.simbolo(indice));
+                    }
+                }
+            } catch (RuntimeException e) {
+                lote.erro = e;
+                tipo = TipoToken.EOF;
+            } catch (Error e) {
+                lote.erro = new RuntimeException("Falha no analisador léxico em pipeline", e);
+                tipo = TipoToken.EOF;
+            }
+            publicar(lote);
+        }
+    }
+
+    private void publicar(Lote lote) {
+        for (int tentativas = 0; escritos - lidos == LOTES_NO_ANEL; tentativas++) {
+            if (fechado) return;
+            esperar(tentativas);
+        }
+        anel[(int) (escritos % LOTES_NO_ANEL)] = lote;
+        escritos++;
+        Thread esperando = consumidor;
+        if (esperando != null) LockSupport.unpark(esperando);
+    }
+
+    private Lote proximoLote() {
+        // Registrado antes de olhar o anel: ou o consumidor já vê o lote novo,
+        // ou o produtor vê o registro e o acorda.
+        consumidor = Thread.currentThread();
+        for (int tentativas = 0; lidos == escritos; tentativas++) {
+            esperar(tentativas);
+        }
+        int indice = (int) (lidos % LOTES_NO_ANEL);
+        Lote lote = anel[indice];
+        anel[indice] = null;
+        lidos++;
+        LockSupport.unpark(produtor);
+        return lote;
+    }
+
+    // Os dois lados dormem sem prazo; um unpark que chegue antes do park fica
+    // guardado como permissão, então nenhum aviso se perde.
+    private void esperar(int tentativas) {
+        if (tentativas < 64) Thread.onSpinWait();
+        else LockSupport.park(this);
+    }
+
+    @Override
+    public void close() {
+        fechado = true;
+        LockSupport.unpark(produtor);
+    }
+
+    @Override
+    public TipoToken tipo() {
+        if (posicao == atual.tokens.tamanho() && atual.erro != null) throw atual.erro;
+        return atual.tokens.tipo(posicao);
+    }
+
+    @Override
+    public String lexema() {
+        if (tipo() == TipoToken.ID) return atual.nomes[posicao];
+        return atual.tokens.lexema(posicao);
+    }
+
+    @Override
+    public boolean lexemaIgual(String valor) {
+        tipo();
+        return atual.tokens.lexemaIgual(posicao, valor);
+    }
+
+    @Override
+    public int simbolo() {
+        tipo();
+        return atual.tokens.simbolo(posicao);
+    }
+
+    @Override
+    public long valorInteiro() {
+        tipo();
+        return atual.tokens.valorInteiro(posicao);
+    }
+
+    @Override
+    public double valorReal() {
+        tipo();
+        return atual.tokens.valorReal(posicao);
+    }
+
+    @Override
+    public Operador operador() {
+        tipo();
+        return atual.tokens.operador(posicao);
+    }
+
+    @Override
+    public void avancar() {
+        if (tipo() == TipoToken.EOF) return;
+        posicao++;
+        if (posicao == atual.tokens.tamanho() && atual.erro == null) {
+            atual = proximoLote();
+            posicao = 0;
+        }
+    }
+}
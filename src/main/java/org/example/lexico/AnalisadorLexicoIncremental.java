@@ -0,0 +1,68 @@
+package org.example.lexico;
+
+import org.example.lexico.AnalisadorLexico.TipoToken;
+
+// Reanálise depois de uma edição (posição, quantos caracteres saíram, quantos
+// entraram). Os tokens que terminam antes da edição são reaproveitados, a
+// análise recomeça no fim do último deles e para assim que um token novo
+// começa, já depois da edição, no mesmo ponto em que começava um token antigo:
+// dali em diante o texto é igual, então o resto é copiado com as posições
+// deslocadas. A tabela de identificadores é compartilhada, então os ids
+// antigos continuam valendo.
+public final class AnalisadorLexicoIncremental {
+
+    private AnalisadorLexicoIncremental() {
+    }
+
+    // Edição por texto; as posições são as da fonte textual anterior.
+    public static BufferDeTokens relexar(BufferDeTokens anterior, int inicio, int removidos, String inserido) {
+        Fonte fonte = anterior.getFonte();
+        if (!(fonte instanceof FonteTexto)) {
+            throw new IllegalArgumentException("Edição por texto só é suportada em fontes textuais");
+        }
+        String codigo = fonte.trecho(0, inicio) + inserido + fonte.trecho(inicio + removidos, fonte.tamanho());
+        return relexar(anterior, Fonte.de(codigo), inicio, removidos, inserido.length());
+    }
+
+    public static BufferDeTokens relexar(BufferDeTokens anterior, Fonte nova, int inicio, int removidos, int inseridos) {
+        int deslocamento = inseridos - removidos;
+        int fimDaEdicao = inicio + inseridos;
+        int total = anterior.tamanho();
+
+        int primeiroAfetado = primeiroQueAlcanca(anterior, inicio);
+        int retomada = primeiroAfetado > 0 ? anterior.fimBruto(primeiroAfetado - 1) : 0;
+
+        BufferDeTokens resultado = new BufferDeTokens(nova, anterior.getIdentificadores(), total + 16);
+        resultado.copiar(anterior, 0, primeiroAfetado, 0);
+
+        AnalisadorLexico lexer = new AnalisadorLexico(nova, anterior.getIdentificadores(), retomada);
+        int antigo = primeiroAfetado;
+        while (true) {
+            int indice = resultado.tamanho();
+            TipoToken tipo = lexer.analisarProximoPara(resultado);
+            int posicao = resultado.inicioBruto(indice);
+            if (posicao >= fimDaEdicao) {
+                int posicaoAntiga = posicao - deslocamento;
+                while (antigo < total && anterior.inicioBruto(antigo) < posicaoAntiga) antigo++;
+                if (antigo < total && anterior.inicioBruto(antigo) == posicaoAntiga) {
+                    resultado.truncar(indice);
+                    resultado.copiar(anterior, antigo, total, deslocamento);
+                    return resultado;
+                }
+            }
+            if (tipo == TipoToken.EOF) return resultado;
+        }
+    }
+
+    // Primeiro token cujo fim chega à posição editada; o EOF sempre chega.
+    private static int primeiroQueAlcanca(BufferDeTokens tokens, int posicao) {
+        int baixo = 0;
+        int alto = tokens.tamanho() - 1;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (tokens.fimBruto(meio) < posicao) baixo = meio + 1;
+            else alto = meio;
+        }
+        return baixo;
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.lexico;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import org.example.lexico.AnalisadorLexico.TipoToken;
+
+// Análise léxica em pedaços para fontes grandes. A fonte é cortada logo após
+// um '\n' ou ';' fora de string (sempre fronteira de token), cada pedaço é
+// analisado no ForkJoinPool e os buffers são costurados em ordem. O resultado
+// é o mesmo da análise sequencial, inclusive os ids dos identificadores.
+public final class AnalisadorLexicoParalelo {
+
+    static final int TAMANHO_MINIMO_DO_PEDACO = 256 * 1024;
+
+    private AnalisadorLexicoParalelo() {
+    }
+
+    public static BufferDeTokens analisar(Fonte fonte) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int tamanhoDoPedaco = Math.max(TAMANHO_MINIMO_DO_PEDACO, fonte.tamanho() / (pool.getParallelism() * 4));
+        return analisar(fonte, pool, tamanhoDoPedaco);
+    }
+
+    public static BufferDeTokens analisar(Fonte fonte, ForkJoinPool pool, int tamanhoDoPedaco) {
+        int tamanho = fonte.tamanho();
+        if (tamanho < 0 || tamanho <= tamanhoDoPedaco) {
+            return new AnalisadorLexico(fonte).analisarParaBuffer();
+        }
+
+        int[] cortes = cortes(fonte, pool, tamanhoDoPedaco);
+        List<Callable<BufferDeTokens>> tarefas = new ArrayList<>();
+        for (int i = 0; i + 1 < cortes.length; i++) {
+            int inicio = cortes[i];
+            int fim = cortes[i + 1];
+            tarefas.add(() -> new AnalisadorLexico(new FonteRecortada(fonte, fim), new TabelaDeIdentificadores(), inicio)
+                    .analisarParaBuffer());
+        }
+        return costurar(fonte, executar(pool, tarefas));
+    }
+
+    // Pontos de corte: início, fim e um ponto seguro depois de cada múltiplo
+    // de 'tamanhoDoPedaco'. Para saber se um ponto está dentro de string basta
+    // a paridade de aspas antes dele, já que a linguagem não tem escapes.
+    private static int[] cortes(Fonte fonte, ForkJoinPool pool, int tamanhoDoPedaco) {
+        int tamanho = fonte.tamanho();
+        int faixas = (tamanho + tamanhoDoPedaco - 1) / tamanhoDoPedaco;
+
+        List<Callable<Integer>> contagens = new ArrayList<>();
+        for (int i = 0; i < faixas; i++) {
+            int inicio = i * tamanhoDoPedaco;
+            int fim = Math.min(tamanho, inicio + tamanhoDoPedaco);
+            contagens.add(() -> contarAspas(fonte, inicio, fim));
+        }
+        List<Integer> aspas = executar(pool, contagens);
+
+        int[] cortes = new int[faixas + 1];
+        int quantidade = 1;
+        boolean dentroDeString = false;
+        for (int i = 1; i < faixas; i++) {
+            dentroDeString ^= (aspas.get(i - 1) & 1) == 1;
+            int corte = pontoSeguro(fonte, i * tamanhoDoPedaco, dentroDeString);
+            if (corte > cortes[quantidade - 1] && corte < tamanho) {
+                cortes[quantidade++] = corte;
+            }
+        }
+        cortes[quantidade++] = tamanho;
+        return Arrays.copyOf(cortes, quantidade);
+    }
+
+    private static int contarAspas(Fonte fonte, int inicio, int fim) {
+        int aspas = 0;
+        for (int pos = inicio; pos < fim; pos++) {
+            if (fonte.charAt(pos) == '"') aspas++;
+        }
+        return aspas;
+    }
+
+    private static int pontoSeguro(Fonte fonte, int pos, boolean dentroDeString) {
+        for (; fonte.temCaractere(pos); pos++) {
+            char c = fonte.charAt(pos);
+            if (c == '"') dentroDeString = !dentroDeString;
+            else if (!dentroDeString && (c == '\n' || c == ';')) return pos + 1;
+        }
+        return pos;
+    }
+
+    // Junta os pedaços descartando os EOFs intermediários. Os ids locais de
+    // cada pedaço são reinternados na tabela global na ordem em que surgiram,
+    // o que reproduz a numeração da análise sequencial.
+    private static BufferDeTokens costurar(Fonte fonte, List<BufferDeTokens> pedacos) {
+        int total = 1;
+        for (BufferDeTokens pedaco : pedacos) total += pedaco.tamanho() - 1;
+
+        TabelaDeIdentificadores identificadores = new TabelaDeIdentificadores();
+        BufferDeTokens resultado = new BufferDeTokens(fonte, identificadores, total);
+        for (int p = 0; p < pedacos.size(); p++) {
+            BufferDeTokens pedaco = pedacos.get(p);
+            TabelaDeIdentificadores locais = pedaco.getIdentificadores();
+            int[] ids = new int[locais.tamanho()];
+            for (int id = 0; id < ids.length; id++) {
+                ids[id] = identificadores.internar(locais.nome(id));
+            }
+
+            boolean ultimo = p == pedacos.size() - 1;
+            int quantidade = ultimo ? pedaco.tamanho() : pedaco.tamanho() - 1;
+            for (int i = 0; i < quantidade; i++) {
+                TipoToken tipo = pedaco.tipo(i);
+                long valor = tipo == TipoToken.ID ? ids[pedaco.simbolo(i)] : pedaco.valorInteiro(i);
+                resultado.adicionar(tipo, pedaco.inicio(i), pedaco.fim(i), valor);
+            }
+        }
+        return resultado;
+    }
+
+    // Espera as tarefas em ordem; o primeiro erro na ordem da fonte é o mesmo
+    // que a análise sequencial reportaria.
+    private static <T> List<T> executar(ForkJoinPool pool, List<Callable<T>> tarefas) {
+        List<T> resultados = new ArrayList<>(tarefas.size());
+        for (Future<T> futuro : pool.invokeAll(tarefas)) {
+            try {
+                resultados.add(futuro.get());
+            } catch (ExecutionException e) {
+                // O pool pode recriar a exceção no thread que espera, com a
+                // original como causa; repassamos a original.
+                Throwable causa = e.getCause();
+                while (causa.getCause() != null && causa.getCause().getClass() == causa.getClass()) {
+                    causa = causa.getCause();
+                }
+                if (causa instanceof RuntimeException erro) throw erro;
+                throw new RuntimeException(causa);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Análise léxica interrompida", e);
+            }
+        }
+        return resultados;
+    }
+}
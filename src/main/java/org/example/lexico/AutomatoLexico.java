@@ -0,0 +1,138 @@
+package org.example.lexico;
+
+import java.util.Arrays;
+import org.example.lexico.AnalisadorLexico.TipoToken;
+
+// Tabelas do autômato do analisador léxico: classe de cada caractere ASCII e
+// transições estado x classe. Tudo fora do ASCII cai em NAO_ASCII e é
+// resolvido pelo caminho lento do AnalisadorLexico.
+final class AutomatoLexico {
+
+    static final int OUTRO = 0;
+    static final int ESPACO = 1;
+    static final int DIGITO = 2;
+    static final int LETRA = 3;
+    static final int SUBLINHADO = 4;
+    static final int PONTO = 5;
+    static final int ASPAS = 6;
+    static final int IGUAL = 7;
+    static final int EXCLAMACAO = 8;
+    static final int E_COMERCIAL = 9;
+    static final int BARRA_VERTICAL = 10;
+    static final int MAIOR = 11;
+    static final int MENOR = 12;
+    static final int ARITMETICO = 13;
+    static final int DELIMITADOR = 14;
+    static final int NAO_ASCII = 15;
+    private static final int NUM_CLASSES = 16;
+
+    static final int INICIO = 0;
+    static final int INTEIRO = 1;
+    static final int REAL = 2;
+    static final int PALAVRA = 3;
+    static final int STRING = 4;
+    static final int STRING_FECHADA = 5;
+    static final int ATRIBUICAO = 6;
+    static final int EXCLAMACAO_SO = 7;
+    static final int E_SO = 8;
+    static final int BARRA_SO = 9;
+    static final int MAIOR_MENOR = 10;
+    static final int RELACIONAL_DUPLO = 11;
+    static final int LOGICO = 12;
+    static final int OPERADOR_ARITMETICO = 13;
+    static final int DELIM = 14;
+    private static final int NUM_ESTADOS = 15;
+
+    // Transições especiais: PARAR encerra o token; UNICODE pede o caminho lento.
+    static final int PARAR = -1;
+    static final int UNICODE = -2;
+
+    static final byte[] CLASSE = new byte[128];
+    private static final byte[] TRANSICAO = new byte[NUM_ESTADOS * NUM_CLASSES];
+    private static final TipoToken[] ACEITA = new TipoToken[NUM_ESTADOS];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            if (Character.isWhitespace(c)) CLASSE[c] = ESPACO;
+            else if (c >= '0' && c <= '9') CLASSE[c] = DIGITO;
+            else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) CLASSE[c] = LETRA;
+        }
+        CLASSE['_'] = SUBLINHADO;
+        CLASSE['.'] = PONTO;
+        CLASSE['"'] = ASPAS;
+        CLASSE['='] = IGUAL;
+        CLASSE['!'] = EXCLAMACAO;
+        CLASSE['&'] = E_COMERCIAL;
+        CLASSE['|'] = BARRA_VERTICAL;
+        CLASSE['>'] = MAIOR;
+        CLASSE['<'] = MENOR;
+        for (char c : "+-*/%".toCharArray()) CLASSE[c] = ARITMETICO;
+        for (char c : "(){};".toCharArray()) CLASSE[c] = DELIMITADOR;
+
+        Arrays.fill(TRANSICAO, (byte) PARAR);
+
+        transicao(INICIO, DIGITO, INTEIRO);
+        transicao(INICIO, LETRA, PALAVRA);
+        transicao(INICIO, NAO_ASCII, UNICODE);
+        transicao(INICIO, ASPAS, STRING);
+        transicao(INICIO, IGUAL, ATRIBUICAO);
+        transicao(INICIO, EXCLAMACAO, EXCLAMACAO_SO);
+        transicao(INICIO, E_COMERCIAL, E_SO);
+        transicao(INICIO, BARRA_VERTICAL, BARRA_SO);
+        transicao(INICIO, MAIOR, MAIOR_MENOR);
+        transicao(INICIO, MENOR, MAIOR_MENOR);
+        transicao(INICIO, ARITMETICO, OPERADOR_ARITMETICO);
+        transicao(INICIO, DELIMITADOR, DELIM);
+
+        transicao(INTEIRO, DIGITO, INTEIRO);
+        transicao(INTEIRO, PONTO, REAL);
+        transicao(REAL, DIGITO, REAL);
+
+        transicao(PALAVRA, LETRA, PALAVRA);
+        transicao(PALAVRA, DIGITO, PALAVRA);
+        transicao(PALAVRA, SUBLINHADO, PALAVRA);
+        transicao(PALAVRA, NAO_ASCII, UNICODE);
+
+        for (int classe = 0; classe < NUM_CLASSES; classe++) {
+            transicao(STRING, classe, classe == ASPAS ? STRING_FECHADA : STRING);
+        }
+
+        transicao(ATRIBUICAO, IGUAL, RELACIONAL_DUPLO);
+        transicao(EXCLAMACAO_SO, IGUAL, RELACIONAL_DUPLO);
+        transicao(MAIOR_MENOR, IGUAL, RELACIONAL_DUPLO);
+        transicao(E_SO, E_COMERCIAL, LOGICO);
+        transicao(BARRA_SO, BARRA_VERTICAL, LOGICO);
+
+        ACEITA[INTEIRO] = TipoToken.NUM_INT;
+        ACEITA[REAL] = TipoToken.NUM_REAL;
+        ACEITA[PALAVRA] = TipoToken.ID;
+        ACEITA[STRING] = TipoToken.TEXTO_STRING;
+        ACEITA[STRING_FECHADA] = TipoToken.TEXTO_STRING;
+        ACEITA[ATRIBUICAO] = TipoToken.OP_ATRIB;
+        ACEITA[MAIOR_MENOR] = TipoToken.OP_REL;
+        ACEITA[RELACIONAL_DUPLO] = TipoToken.OP_REL;
+        ACEITA[LOGICO] = TipoToken.OP_LOGICO;
+        ACEITA[OPERADOR_ARITMETICO] = TipoToken.OP_ARIT;
+        ACEITA[DELIM] = TipoToken.DELIM;
+    }
+
+    private AutomatoLexico() {
+    }
+
+    private static void transicao(int estado, int classe, int destino) {
+        TRANSICAO[estado * NUM_CLASSES + classe] = (byte) destino;
+    }
+
+    static int classe(char c) {
+        return c < 128 ? CLASSE[c] : NAO_ASCII;
+    }
+
+    static int proximo(int estado, int classe) {
+        return TRANSICAO[estado * NUM_CLASSES + classe];
+    }
+
+    // null para estados que não fecham token (ex.: '!' ou '&' sozinhos).
+    static TipoToken aceita(int estado) {
+        return ACEITA[estado];
+    }
+}
@@ -0,0 +1,193 @@
+package org.example.lexico;
+
+import java.util.Arrays;
+import org.example.lexico.AnalisadorLexico.TipoToken;
+
+// Tokens guardados em vetores paralelos (tipo, início e fim na fonte, valor),
+// sem um objeto por token. O lexema só vira String quando alguém pede. O valor
+// é o id na TabelaDeIdentificadores para ID, o número já decodificado para
+// NUM_INT, os bits do double para NUM_REAL e o ordinal do Operador para os
+// tokens de operador.
+public final class BufferDeTokens {
+
+    private static final TipoToken[] TIPOS = TipoToken.values();
+
+    private final Fonte fonte;
+    private final TabelaDeIdentificadores identificadores;
+    private int[] tipos;
+    private int[] inicios;
+    private int[] fins;
+    private long[] valores;
+    private int tamanho = 0;
+
+    BufferDeTokens(Fonte fonte, TabelaDeIdentificadores identificadores, int capacidade) {
+        this.fonte = fonte;
+        this.identificadores = identificadores;
+        this.tipos = new int[capacidade];
+        this.inicios = new int[capacidade];
+        this.fins = new int[capacidade];
+        this.valores = new long[capacidade];
+    }
+
+    void adicionar(TipoToken tipo, int inicio, int fim, long valor) {
+        if (tamanho == tipos.length) {
+            int novaCapacidade = Math.max(16, tamanho * 2);
+            tipos = Arrays.copyOf(tipos, novaCapacidade);
+            inicios = Arrays.copyOf(inicios, novaCapacidade);
+            fins = Arrays.copyOf(fins, novaCapacidade);
+            valores = Arrays.copyOf(valores, novaCapacidade);
+        }
+        tipos[tamanho] = tipo.ordinal();
+        inicios[tamanho] = inicio;
+        fins[tamanho] = fim;
+        valores[tamanho] = valor;
+        tamanho++;
+    }
+
+    public TabelaDeIdentificadores getIdentificadores() {
+        return identificadores;
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    public TipoToken tipo(int indice) {
+        return TIPOS[tipos[indice]];
+    }
+
+    public int inicio(int indice) {
+        return inicios[indice];
+    }
+
+    public int fim(int indice) {
+        return fins[indice];
+    }
+
+    public int simbolo(int indice) {
+        return tipos[indice] == TipoToken.ID.ordinal() ? (int) valores[indice] : -1;
+    }
+
+    public long valorInteiro(int indice) {
+        return valores[indice];
+    }
+
+    public double valorReal(int indice) {
+        return Double.longBitsToDouble(valores[indice]);
+    }
+
+    // Extensão do token na fonte; para strings inclui as aspas, que ficam fora
+    // de inicio/fim. Uma string sem fechamento vai até o fim da fonte.
+    int inicioBruto(int indice) {
+        return tipos[indice] == TipoToken.TEXTO_STRING.ordinal() ? inicios[indice] - 1 : inicios[indice];
+    }
+
+    int fimBruto(int indice) {
+        int fim = fins[indice];
+        return tipos[indice] == TipoToken.TEXTO_STRING.ordinal() && fonte.temCaractere(fim) ? fim + 1 : fim;
+    }
+
+    Fonte getFonte() {
+        return fonte;
+    }
+
+    void truncar(int novoTamanho) {
+        tamanho = novoTamanho;
+    }
+
+    // Copia os tokens [de, ate) de outro buffer deslocando suas posições.
+    void copiar(BufferDeTokens origem, int de, int ate, int deslocamento) {
+        int quantidade = ate - de;
+        if (tamanho + quantidade > tipos.length) {
+            int novaCapacidade = Math.max(tamanho + quantidade, tamanho * 2);
+            tipos = Arrays.copyOf(tipos, novaCapacidade);
+            inicios = Arrays.copyOf(inicios, novaCapacidade);
+            fins = Arrays.copyOf(fins, novaCapacidade);
+            valores = Arrays.copyOf(valores, novaCapacidade);
+        }
+        System.arraycopy(origem.tipos, de, tipos, tamanho, quantidade);
+        System.arraycopy(origem.inicios, de, inicios, tamanho, quantidade);
+        System.arraycopy(origem.fins, de, fins, tamanho, quantidade);
+        System.arraycopy(origem.valores, de, valores, tamanho, quantidade);
+        if (deslocamento != 0) {
+            for (int i = tamanho; i < tamanho + quantidade; i++) {
+                inicios[i] += deslocamento;
+                fins[i] += deslocamento;
+            }
+        }
+        tamanho += quantidade;
+    }
+
+    public Operador operador(int indice) {
+        return Operador.ehOperador(TIPOS[tipos[indice]]) ? Operador.porOrdinal(valores[indice]) : null;
+    }
+
+    public String lexema(int indice) {
+        TipoToken tipo = TIPOS[tipos[indice]];
+        if (tipo == TipoToken.ID) return identificadores.nome((int) valores[indice]);
+        return AnalisadorLexico.lexema(fonte, tipo, inicios[indice], fins[indice]);
+    }
+
+    public boolean lexemaIgual(int indice, String valor) {
+        return fonte.trechoIgual(inicios[indice], fins[indice], valor);
+    }
+
+    public CursorDeTokens cursor() {
+        return new Cursor(0, tamanho - 1);
+    }
+
+    // Cursor sobre os tokens [de, ate): em 'ate' ele se comporta como EOF.
+    public CursorDeTokens cursor(int de, int ate) {
+        return new Cursor(de, ate);
+    }
+
+    private class Cursor implements CursorDeTokens {
+        private int posicao;
+        private final int fim;
+
+        Cursor(int inicio, int fim) {
+            this.posicao = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        public TipoToken tipo() {
+            return posicao == fim ? TipoToken.EOF : TIPOS[tipos[posicao]];
+        }
+
+        @Override
+        public String lexema() {
+            return BufferDeTokens.this.lexema(posicao);
+        }
+
+        @Override
+        public boolean lexemaIgual(String valor) {
+            return BufferDeTokens.this.lexemaIgual(posicao, valor);
+        }
+
+        @Override
+        public int simbolo() {
+            return BufferDeTokens.this.simbolo(posicao);
+        }
+
+        @Override
+        public long valorInteiro() {
+            return valores[posicao];
+        }
+
+        @Override
+        public double valorReal() {
+            return Double.longBitsToDouble(valores[posicao]);
+        }
+
+        @Override
+        public Operador operador() {
+            return BufferDeTokens.this.operador(posicao);
+        }
+
+        @Override
+        public void avancar() {
+            if (posicao < fim) posicao++;
+        }
+    }
+}
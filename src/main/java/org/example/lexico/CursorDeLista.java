@@ -0,0 +1,74 @@
+package org.example.lexico;
+
+import java.util.List;
+import org.example.lexico.AnalisadorLexico.TipoToken;
+import org.example.lexico.AnalisadorLexico.Token;
+
+final class CursorDeLista implements CursorDeTokens {
+
+    private final List<Token> tokens;
+    // Só existe se algum ID veio sem id (token montado à mão): aí todos os
+    // IDs da lista são internados pelo lexema, para que ids da tabela do
+    // analisador léxico não colidam com os internados aqui.
+    private final TabelaDeIdentificadores identificadores;
+    private int posicao = 0;
+
+    CursorDeLista(List<Token> tokens) {
+        this.tokens = tokens;
+        this.identificadores = temIdSemSimbolo(tokens) ? new TabelaDeIdentificadores() : null;
+    }
+
+    private static boolean temIdSemSimbolo(List<Token> tokens) {
+        for (Token token : tokens) {
+            if (token.tipo == TipoToken.ID && token.simbolo < 0) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public TipoToken tipo() {
+        return tokens.get(posicao).tipo;
+    }
+
+    @Override
+    public String lexema() {
+        return tokens.get(posicao).lexema;
+    }
+
+    @Override
+    public boolean lexemaIgual(String valor) {
+        return tokens.get(posicao).lexema.equals(valor);
+    }
+
+    @Override
+    public int simbolo() {
+        Token token = tokens.get(posicao);
+        if (identificadores != null && token.tipo == TipoToken.ID) return identificadores.internar(token.lexema);
+        return token.simbolo;
+    }
+
+    @Override
+    public long valorInteiro() {
+        return tokens.get(posicao).valorInteiro;
+    }
+
+    @Override
+    public double valorReal() {
+        return tokens.get(posicao).valorReal;
+    }
+
+    @Override
+    public Operador operador() {
+        Token token = tokens.get(posicao);
+        // Tokens montados à mão podem vir sem o operador decodificado.
+        if (token.operador == null && Operador.ehOperador(token.tipo)) {
+            return Operador.de(token.lexema.charAt(0), token.lexema.length());
+        }
+        return token.operador;
+    }
+
+    @Override
+    public void avancar() {
+        if (tipo() != TipoToken.EOF) posicao++;
+    }
+}
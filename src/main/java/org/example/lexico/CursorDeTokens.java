@@ -0,0 +1,38 @@
+package org.example.lexico;
+
+import java.util.List;
+import org.example.lexico.AnalisadorLexico.TipoToken;
+import org.example.lexico.AnalisadorLexico.Token;
+
+// Visão de um token por vez, usada pelo Parser. Ao chegar no EOF o cursor
+// permanece parado nele. O Parser fecha o cursor quando desiste da leitura
+// por um erro; só cursores com uma thread por trás têm o que liberar.
+public interface CursorDeTokens extends AutoCloseable {
+
+    TipoToken tipo();
+
+    String lexema();
+
+    boolean lexemaIgual(String valor);
+
+    // Id do identificador atual na TabelaDeIdentificadores, ou -1.
+    int simbolo();
+
+    // Valor já decodificado pelo analisador léxico para NUM_INT / NUM_REAL.
+    long valorInteiro();
+
+    double valorReal();
+
+    // Operador do token atual, ou null se não for um token de operador.
+    Operador operador();
+
+    void avancar();
+
+    @Override
+    default void close() {
+    }
+
+    static CursorDeTokens de(List<Token> tokens) {
+        return new CursorDeLista(tokens);
+    }
+}
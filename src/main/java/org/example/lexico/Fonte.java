@@ -0,0 +1,101 @@
+package org.example.lexico;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Origem dos caracteres do analisador léxico, endereçada por posição absoluta.
+public interface Fonte {
+
+    boolean temCaractere(int pos);
+
+    char charAt(int pos);
+
+    String trecho(int inicio, int fim);
+
+    // Total de posições da fonte, ou -1 quando é um fluxo de tamanho desconhecido.
+    default int tamanho() {
+        return -1;
+    }
+
+    // Fontes em fluxo podem liberar tudo o que vem antes de 'pos'.
+    default void descartarAte(int pos) {
+    }
+
+    // Caminho lento para o que não é ASCII: o ponto de código em 'pos' e
+    // quantas posições ele ocupa na fonte.
+    default int pontoDeCodigo(int pos) {
+        char c = charAt(pos);
+        if (Character.isHighSurrogate(c) && temCaractere(pos + 1) && Character.isLowSurrogate(charAt(pos + 1))) {
+            return Character.toCodePoint(c, charAt(pos + 1));
+        }
+        return c;
+    }
+
+    default int largura(int pos) {
+        return Character.charCount(pontoDeCodigo(pos));
+    }
+
+    // Buscas usadas para atravessar trechos longos de uma vez: a primeira
+    // posição a partir de 'pos' com 'alvo' (ou o fim da fonte), a primeira que
+    // não é 'c', e o fim de uma sequência ASCII de letras, dígitos e '_'.
+    default int procurar(char alvo, int pos) {
+        while (temCaractere(pos) && charAt(pos) != alvo) pos++;
+        return pos;
+    }
+
+    default int pularRepetidos(char c, int pos) {
+        while (temCaractere(pos) && charAt(pos) == c) pos++;
+        return pos;
+    }
+
+    default int fimDePalavraAscii(int pos) {
+        while (temCaractere(pos) && ehCaractereDePalavra(charAt(pos))) pos++;
+        return pos;
+    }
+
+    static boolean ehCaractereDePalavra(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    default boolean trechoIgual(int inicio, int fim, String valor) {
+        if (fim - inicio != valor.length()) return false;
+        for (int i = 0; i < valor.length(); i++) {
+            if (charAt(inicio + i) != valor.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    static Fonte de(String codigo) {
+        return new FonteTexto(codigo);
+    }
+
+    static Fonte de(Reader leitor) {
+        return new FonteLeitor(leitor);
+    }
+
+    // Mapeia o arquivo em memória; as posições passam a ser offsets em bytes UTF-8.
+    static Fonte mapear(Path arquivo) throws IOException {
+        return de(mapearBytes(arquivo));
+    }
+
+    // O mapeamento cru, para quem precisa dos mesmos bytes que serão lidos
+    // (por exemplo, para calcular a chave do CacheDeAst sem ler o arquivo de novo).
+    static ByteBuffer mapearBytes(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            if (tamanho > Integer.MAX_VALUE) {
+                throw new IOException("Arquivo grande demais para mapear: " + arquivo);
+            }
+            return canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanho);
+        }
+    }
+
+    // Bytes UTF-8; a posição e o limite do buffer não são alterados.
+    static Fonte de(ByteBuffer utf8) {
+        return new FonteMapeada(utf8.duplicate());
+    }
+}
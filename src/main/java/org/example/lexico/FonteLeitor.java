@@ -0,0 +1,72 @@
+package org.example.lexico;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+// Janela deslizante sobre um Reader: só guarda os caracteres a partir do
+// último descarte, então a memória depende do maior token e não do arquivo.
+final class FonteLeitor implements Fonte {
+
+    private static final int TAMANHO_INICIAL = 8192;
+
+    private final Reader leitor;
+    private char[] janela = new char[TAMANHO_INICIAL];
+    private int base = 0;
+    private int limite = 0;
+    private int descartavel = 0;
+    private boolean fim = false;
+
+    FonteLeitor(Reader leitor) {
+        this.leitor = leitor;
+    }
+
+    @Override
+    public boolean temCaractere(int pos) {
+        while (pos >= base + limite && !fim) {
+            carregar();
+        }
+        return pos < base + limite;
+    }
+
+    @Override
+    public char charAt(int pos) {
+        return janela[pos - base];
+    }
+
+    @Override
+    public String trecho(int inicio, int fim) {
+        return new String(janela, inicio - base, fim - inicio);
+    }
+
+    @Override
+    public void descartarAte(int pos) {
+        if (pos > descartavel) descartavel = pos;
+    }
+
+    private void carregar() {
+        if (limite == janela.length) {
+            int livres = descartavel - base;
+            if (livres > 0) {
+                System.arraycopy(janela, livres, janela, 0, limite - livres);
+                limite -= livres;
+                base = descartavel;
+            } else {
+                char[] maior = new char[janela.length * 2];
+                System.arraycopy(janela, 0, maior, 0, limite);
+                janela = maior;
+            }
+        }
+        try {
+            int lidos = leitor.read(janela, limite, janela.length - limite);
+            if (lidos < 0) {
+                fim = true;
+                leitor.close();
+            } else {
+                limite += lidos;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao ler o código fonte: " + e.getMessage(), e);
+        }
+    }
+}
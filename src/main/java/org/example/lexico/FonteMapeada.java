@@ -0,0 +1,143 @@
+package org.example.lexico;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+// Fonte sobre os bytes UTF-8 de um arquivo mapeado. ASCII é lido direto do
+// buffer; só os trechos pedidos pelo Parser são decodificados para String.
+final class FonteMapeada implements Fonte {
+
+    private static final int SUBSTITUTO = 0xFFFD;
+
+    // Constantes SWAR: o mesmo byte repetido nas 8 posições de um long.
+    private static final long UNS = 0x0101010101010101L;
+    private static final long ALTOS = 0x8080808080808080L;
+    private static final long BAIXOS = 0x7F7F7F7F7F7F7F7FL;
+
+    private final ByteBuffer bytes;
+    // Mesma memória lida em blocos de 8 bytes; little-endian para que o
+    // primeiro byte fique nos bits baixos.
+    private final ByteBuffer blocos;
+    private final int tamanho;
+
+    FonteMapeada(ByteBuffer bytes) {
+        this.bytes = bytes;
+        this.blocos = bytes.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.tamanho = bytes.limit();
+    }
+
+    @Override
+    public boolean temCaractere(int pos) {
+        return pos < tamanho;
+    }
+
+    @Override
+    public int tamanho() {
+        return tamanho;
+    }
+
+    @Override
+    public char charAt(int pos) {
+        return (char) (bytes.get(pos) & 0xFF);
+    }
+
+    @Override
+    public String trecho(int inicio, int fim) {
+        byte[] copia = new byte[fim - inicio];
+        bytes.get(inicio, copia);
+        return new String(copia, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int procurar(char alvo, int pos) {
+        if (alvo >= 0x80) return Fonte.super.procurar(alvo, pos);
+        long padrao = UNS * alvo;
+        for (; pos + 8 <= tamanho; pos += 8) {
+            long iguais = bytesZero(blocos.getLong(pos) ^ padrao);
+            if (iguais != 0) return pos + primeiroByte(iguais);
+        }
+        return Fonte.super.procurar(alvo, pos);
+    }
+
+    @Override
+    public int pularRepetidos(char c, int pos) {
+        if (c >= 0x80) return Fonte.super.pularRepetidos(c, pos);
+        long padrao = UNS * c;
+        for (; pos + 8 <= tamanho; pos += 8) {
+            long diferentes = ~bytesZero(blocos.getLong(pos) ^ padrao) & ALTOS;
+            if (diferentes != 0) return pos + primeiroByte(diferentes);
+        }
+        return Fonte.super.pularRepetidos(c, pos);
+    }
+
+    @Override
+    public int fimDePalavraAscii(int pos) {
+        for (; pos + 8 <= tamanho; pos += 8) {
+            long bloco = blocos.getLong(pos);
+            long x = bloco & BAIXOS;
+            long palavra = (faixa(x, '0', '9') | faixa(x, 'A', 'Z') | faixa(x, 'a', 'z') | bytesZero(x ^ (UNS * '_')))
+                    & ~bloco & ALTOS;
+            long fora = ~palavra & ALTOS;
+            if (fora != 0) return pos + primeiroByte(fora);
+        }
+        return Fonte.super.fimDePalavraAscii(pos);
+    }
+
+    // Bit alto ligado exatamente nos bytes nulos de 'v'.
+    private static long bytesZero(long v) {
+        return ~(((v & BAIXOS) + BAIXOS) | v | BAIXOS);
+    }
+
+    // Bit alto ligado nos bytes de 'x' (todos < 0x80) entre 'de' e 'ate'.
+    private static long faixa(long x, char de, char ate) {
+        long aPartirDe = (x + UNS * (0x80 - de)) & ALTOS;
+        long depoisDe = (x + UNS * (0x80 - ate - 1)) & ALTOS;
+        return aPartirDe & ~depoisDe;
+    }
+
+    private static int primeiroByte(long marcas) {
+        return Long.numberOfTrailingZeros(marcas) >>> 3;
+    }
+
+    @Override
+    public boolean trechoIgual(int inicio, int fim, String valor) {
+        for (int i = 0; i < valor.length(); i++) {
+            if (valor.charAt(i) >= 0x80) return trecho(inicio, fim).equals(valor);
+        }
+        if (fim - inicio != valor.length()) return false;
+        for (int i = 0; i < valor.length(); i++) {
+            if (bytes.get(inicio + i) != (byte) valor.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int pontoDeCodigo(int pos) {
+        int b0 = bytes.get(pos) & 0xFF;
+        int largura = largura(pos);
+        if (largura == 1) return b0 < 0x80 ? b0 : SUBSTITUTO;
+
+        int ponto = b0 & (0xFF >> (largura + 1));
+        for (int i = 1; i < largura; i++) {
+            ponto = (ponto << 6) | (bytes.get(pos + i) & 0x3F);
+        }
+        return ponto;
+    }
+
+    @Override
+    public int largura(int pos) {
+        int b0 = bytes.get(pos) & 0xFF;
+        int largura;
+        if (b0 >= 0xF0 && b0 < 0xF8) largura = 4;
+        else if (b0 >= 0xE0) largura = b0 < 0xF0 ? 3 : 1;
+        else if (b0 >= 0xC2) largura = 2;
+        else largura = 1;
+
+        if (pos + largura > tamanho) return 1;
+        for (int i = 1; i < largura; i++) {
+            if ((bytes.get(pos + i) & 0xC0) != 0x80) return 1;
+        }
+        return largura;
+    }
+}
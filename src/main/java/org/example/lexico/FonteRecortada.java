@@ -0,0 +1,64 @@
+package org.example.lexico;
+
+// Vista de uma fonte que termina em 'fim'. As posições continuam absolutas,
+// então os tokens de um pedaço já saem com os offsets da fonte inteira.
+final class FonteRecortada implements Fonte {
+
+    private final Fonte fonte;
+    private final int fim;
+
+    FonteRecortada(Fonte fonte, int fim) {
+        this.fonte = fonte;
+        this.fim = fim;
+    }
+
+    @Override
+    public int tamanho() {
+        return fim;
+    }
+
+    @Override
+    public boolean temCaractere(int pos) {
+        return pos < fim;
+    }
+
+    @Override
+    public char charAt(int pos) {
+        return fonte.charAt(pos);
+    }
+
+    @Override
+    public String trecho(int inicio, int fim) {
+        return fonte.trecho(inicio, fim);
+    }
+
+    @Override
+    public int pontoDeCodigo(int pos) {
+        return fonte.pontoDeCodigo(pos);
+    }
+
+    @Override
+    public int largura(int pos) {
+        return fonte.largura(pos);
+    }
+
+    @Override
+    public int procurar(char alvo, int pos) {
+        return Math.min(fonte.procurar(alvo, pos), Math.max(pos, fim));
+    }
+
+    @Override
+    public int pularRepetidos(char c, int pos) {
+        return Math.min(fonte.pularRepetidos(c, pos), Math.max(pos, fim));
+    }
+
+    @Override
+    public int fimDePalavraAscii(int pos) {
+        return Math.min(fonte.fimDePalavraAscii(pos), Math.max(pos, fim));
+    }
+
+    @Override
+    public boolean trechoIgual(int inicio, int fim, String valor) {
+        return fonte.trechoIgual(inicio, fim, valor);
+    }
+}
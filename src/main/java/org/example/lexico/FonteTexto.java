@@ -0,0 +1,42 @@
+package org.example.lexico;
+
+final class FonteTexto implements Fonte {
+
+    private final String codigo;
+
+    FonteTexto(String codigo) {
+        this.codigo = codigo;
+    }
+
+    @Override
+    public boolean temCaractere(int pos) {
+        return pos < codigo.length();
+    }
+
+    @Override
+    public int tamanho() {
+        return codigo.length();
+    }
+
+    @Override
+    public char charAt(int pos) {
+        return codigo.charAt(pos);
+    }
+
+    @Override
+    public String trecho(int inicio, int fim) {
+        return codigo.substring(inicio, fim);
+    }
+
+    // indexOf é intrínseco na JVM e já compara vários caracteres por vez.
+    @Override
+    public int procurar(char alvo, int pos) {
+        int achado = codigo.indexOf(alvo, pos);
+        return achado < 0 ? Math.max(pos, codigo.length()) : achado;
+    }
+
+    @Override
+    public boolean trechoIgual(int inicio, int fim, String valor) {
+        return fim - inicio == valor.length() && codigo.startsWith(valor, inicio);
+    }
+}
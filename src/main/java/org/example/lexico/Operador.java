@@ -0,0 +1,56 @@
+package org.example.lexico;
+
+import org.example.lexico.AnalisadorLexico.TipoToken;
+
+// Qual operador um token OP_ATRIB, OP_ARIT, OP_REL ou OP_LOGICO representa.
+// Decidido uma vez pelo analisador léxico para que o Parser não compare
+// lexemas.
+public enum Operador {
+    ATRIBUICAO("="),
+    OU("||"),
+    E("&&"),
+    IGUAL("=="),
+    DIFERENTE("!="),
+    MAIOR(">"),
+    MENOR("<"),
+    MAIOR_IGUAL(">="),
+    MENOR_IGUAL("<="),
+    SOMA("+"),
+    SUBTRACAO("-"),
+    MULTIPLICACAO("*"),
+    DIVISAO("/"),
+    RESTO("%");
+
+    private static final Operador[] VALORES = values();
+
+    public final String simbolo;
+
+    Operador(String simbolo) {
+        this.simbolo = simbolo;
+    }
+
+    static Operador porOrdinal(long ordinal) {
+        return VALORES[(int) ordinal];
+    }
+
+    static Operador de(char primeiro, int tamanho) {
+        switch (primeiro) {
+            case '=': return tamanho == 1 ? ATRIBUICAO : IGUAL;
+            case '!': return DIFERENTE;
+            case '>': return tamanho == 1 ? MAIOR : MAIOR_IGUAL;
+            case '<': return tamanho == 1 ? MENOR : MENOR_IGUAL;
+            case '|': return OU;
+            case '&': return E;
+            case '+': return SOMA;
+            case '-': return SUBTRACAO;
+            case '*': return MULTIPLICACAO;
+            case '/': return DIVISAO;
+            default: return RESTO;
+        }
+    }
+
+    static boolean ehOperador(TipoToken tipo) {
+        return tipo == TipoToken.OP_ATRIB || tipo == TipoToken.OP_ARIT
+                || tipo == TipoToken.OP_REL || tipo == TipoToken.OP_LOGICO;
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.lexico;
+
+import java.util.Arrays;
+
+// Interna cada identificador distinto de uma compilação e lhe dá um id denso
+// (0, 1, 2...). A busca é feita direto sobre o trecho da fonte, então só um
+// nome novo gera String.
+public final class TabelaDeIdentificadores {
+
+    private static final int VAZIO = -1;
+
+    private String[] nomes = new String[64];
+    private int[] hashes = new int[64];
+    private int[] baldes = new int[128];
+    private int tamanho = 0;
+
+    public TabelaDeIdentificadores() {
+        Arrays.fill(baldes, VAZIO);
+    }
+
+    public int internar(Fonte fonte, int inicio, int fim) {
+        int hash = hash(fonte, inicio, fim);
+        int mascara = baldes.length - 1;
+        for (int i = hash & mascara; ; i = (i + 1) & mascara) {
+            int id = baldes[i];
+            if (id == VAZIO) {
+                return adicionar(fonte.trecho(inicio, fim), hash, i);
+            }
+            if (hashes[id] == hash && fonte.trechoIgual(inicio, fim, nomes[id])) {
+                return id;
+            }
+        }
+    }
+
+    public int internar(String nome) {
+        int hash = hash(nome);
+        int mascara = baldes.length - 1;
+        for (int i = hash & mascara; ; i = (i + 1) & mascara) {
+            int id = baldes[i];
+            if (id == VAZIO) {
+                return adicionar(nome, hash, i);
+            }
+            if (hashes[id] == hash && nomes[id].equals(nome)) {
+                return id;
+            }
+        }
+    }
+
+    public String nome(int id) {
+        return nomes[id];
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    private int adicionar(String nome, int hash, int balde) {
+        if (tamanho == nomes.length) {
+            nomes = Arrays.copyOf(nomes, tamanho * 2);
+            hashes = Arrays.copyOf(hashes, tamanho * 2);
+        }
+        int id = tamanho++;
+        nomes[id] = nome;
+        hashes[id] = hash;
+        baldes[balde] = id;
+        if (tamanho * 2 > baldes.length) {
+            redistribuir();
+        }
+        return id;
+    }
+
+    private void redistribuir() {
+        baldes = new int[baldes.length * 2];
+        Arrays.fill(baldes, VAZIO);
+        int mascara = baldes.length - 1;
+        for (int id = 0; id < tamanho; id++) {
+            int i = hashes[id] & mascara;
+            while (baldes[i] != VAZIO) i = (i + 1) & mascara;
+            baldes[i] = id;
+        }
+    }
+
+    // O hash é calculado por ponto de código para que fontes em bytes UTF-8 e
+    // Strings em UTF-16 concordem.
+    private static int hash(Fonte fonte, int inicio, int fim) {
+        int h = 0;
+        int pos = inicio;
+        while (pos < fim) {
+            char c = fonte.charAt(pos);
+            if (c < 0x80) {
+                h = 31 * h + c;
+                pos++;
+            } else {
+                h = 31 * h + fonte.pontoDeCodigo(pos);
+                pos += fonte.largura(pos);
+            }
+        }
+        return espalhar(h);
+    }
+
+    private static int hash(String nome) {
+        int h = 0;
+        for (int i = 0; i < nome.length(); ) {
+            int ponto = nome.codePointAt(i);
+            h = 31 * h + ponto;
+            i += Character.charCount(ponto);
+        }
+        return espalhar(h);
+    }
+
+    private static int espalhar(int h) {
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,427 @@
+package org.example.otimizacao;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.example.sintatico.Expr;
+import org.example.sintatico.PilhaDeVisita;
+import org.example.sintatico.Stmt;
+
+// Dobramento e propagação de constantes. Uma expressão cujos operandos são
+// conhecidos vira um literal com o valor que o backend calcularia (ver
+// Semantica), e uma variável cujo valor é conhecido naquele ponto vira esse
+// literal. O valor conhecido de cada slot segue o programa: depois de um if
+// fica só o que os dois caminhos concordam, e num while os slots atribuídos
+// em qualquer ponto do laço são esquecidos antes da condição.
+//
+// Atribuições nunca são dobradas, então nenhum efeito colateral some. Roda
+// depois do Resolvedor, porque os valores são guardados por slot. Devolve
+// uma árvore nova; subárvores sem mudança são reaproveitadas.
+public class DobradorDeConstantes implements Stmt.Visitor<Void>, Expr.Visitor<Void> {
+
+    private final Semantica semantica;
+    private final PilhaDeVisita pilha = new PilhaDeVisita();
+
+    // Nós já processados, em pós-ordem, e o valor constante de cada um (null
+    // se desconhecido ou se é um comando).
+    private Object[] prontos = new Object[64];
+    private Object[] valores = new Object[64];
+    private int topo = 0;
+
+    // Valor conhecido de cada slot, e cópias guardadas nas bifurcações.
+    private Object[] ambiente = new Object[16];
+    private final List<Object[]> guardados = new ArrayList<>();
+
+    public DobradorDeConstantes(Semantica semantica) {
+        this.semantica = semantica;
+    }
+
+    public List<Stmt> otimizar(List<Stmt> programa) {
+        pilha.empilharEmOrdem(programa);
+        pilha.percorrer(this, this);
+
+        Stmt[] otimizado = new Stmt[topo];
+        for (int i = otimizado.length - 1; i >= 0; i--) otimizado[i] = (Stmt) tirar();
+        return new ArrayList<>(Arrays.asList(otimizado));
+    }
+
+    private void por(Object no, Object valor) {
+        if (topo == prontos.length) {
+            prontos = Arrays.copyOf(prontos, topo * 2);
+            valores = Arrays.copyOf(valores, topo * 2);
+        }
+        prontos[topo] = no;
+        valores[topo] = valor;
+        topo++;
+    }
+
+    private Object tirar() {
+        Object no = prontos[--topo];
+        prontos[topo] = null;
+        valores[topo] = null;
+        return no;
+    }
+
+    private Expr tirarExpr() {
+        return (Expr) tirar();
+    }
+
+    private Stmt tirarStmt(Stmt original) {
+        return original != null ? (Stmt) tirar() : null;
+    }
+
+    // Valor do n-ésimo nó a partir do topo (0 é o topo).
+    private Object valor(int distancia) {
+        return valores[topo - 1 - distancia];
+    }
+
+    // Põe o literal no lugar da expressão quando o valor é conhecido.
+    private void terminar(Expr original, Expr reconstruida, Object valor) {
+        if (valor == null || original instanceof Expr.Literal) {
+            por(reconstruida, valor);
+            return;
+        }
+        Expr.Literal literal = new Expr.Literal(valor);
+        literal.tipo = original.tipo;
+        por(literal, valor);
+    }
+
+    private void agendar(Object no) {
+        if (no != null) pilha.agendar(no);
+    }
+
+    private Object conhecido(int slot) {
+        return slot >= 0 && slot < ambiente.length ? ambiente[slot] : null;
+    }
+
+    private void definir(int slot, Object valor) {
+        if (slot < 0) return;
+        if (slot >= ambiente.length) ambiente = Arrays.copyOf(ambiente, Math.max(slot + 1, ambiente.length * 2));
+        ambiente[slot] = valor;
+    }
+
+    private void guardarAmbiente() {
+        guardados.add(ambiente.clone());
+    }
+
+    private Object[] retomarGuardado() {
+        return guardados.remove(guardados.size() - 1);
+    }
+
+    // Fica só o que os dois caminhos concordam.
+    private void juntar(Object[] outro) {
+        for (int slot = 0; slot < ambiente.length; slot++) {
+            Object valor = slot < outro.length ? outro[slot] : null;
+            if (ambiente[slot] != null && !ambiente[slot].equals(valor)) ambiente[slot] = null;
+        }
+    }
+
+    // Esquece todo slot atribuído, lido ou declarado dentro do laço.
+    private void esquecerAtribuidas(Stmt.While laco) {
+        ArrayDeque<Object> pendentes = new ArrayDeque<>();
+        pendentes.push(laco);
+        while (!pendentes.isEmpty()) {
+            Object no = pendentes.pop();
+            if (no instanceof Stmt.Var) {
+                definir(((Stmt.Var) no).slot, null);
+                adicionar(pendentes, ((Stmt.Var) no).initializer);
+            } else if (no instanceof Stmt.Read) {
+                definir(((Stmt.Read) no).slot, null);
+            } else if (no instanceof Expr.Assign) {
+                definir(((Expr.Assign) no).target.slot, null);
+                adicionar(pendentes, ((Expr.Assign) no).value);
+            } else if (no instanceof Stmt.ExprStmt) {
+                adicionar(pendentes, ((Stmt.ExprStmt) no).expression);
+            } else if (no instanceof Stmt.Print) {
+                adicionar(pendentes, ((Stmt.Print) no).expression);
+            } else if (no instanceof Stmt.Block) {
+                for (Stmt s : ((Stmt.Block) no).statements) adicionar(pendentes, s);
+            } else if (no instanceof Stmt.If) {
+                Stmt.If se = (Stmt.If) no;
+                adicionar(pendentes, se.condition);
+                adicionar(pendentes, se.thenBranch);
+                adicionar(pendentes, se.elseBranch);
+            } else if (no instanceof Stmt.While) {
+                adicionar(pendentes, ((Stmt.While) no).condition);
+                adicionar(pendentes, ((Stmt.While) no).body);
+            } else if (no instanceof Expr.Grouping) {
+                adicionar(pendentes, ((Expr.Grouping) no).expression);
+            } else if (no instanceof Expr.Conversion) {
+                adicionar(pendentes, ((Expr.Conversion) no).expression);
+            } else if (no instanceof Expr.Unary) {
+                adicionar(pendentes, ((Expr.Unary) no).right);
+            } else if (no instanceof Expr.Binary) {
+                adicionar(pendentes, ((Expr.Binary) no).left);
+                adicionar(pendentes, ((Expr.Binary) no).right);
+            } else if (no instanceof Expr.Logical) {
+                adicionar(pendentes, ((Expr.Logical) no).left);
+                adicionar(pendentes, ((Expr.Logical) no).right);
+            }
+        }
+    }
+
+    private static void adicionar(ArrayDeque<Object> pendentes, Object no) {
+        if (no != null) pendentes.push(no);
+    }
+
+    @Override
+    public Void visitVar(Stmt.Var stmt) {
+        if (pilha.etapa() == 0 && stmt.initializer != null) {
+            agendar(stmt.initializer);
+            pilha.agendar(stmt, 1);
+            return null;
+        }
+        if (stmt.initializer == null) {
+            definir(stmt.slot, semantica.valorInicial());
+            por(stmt, null);
+            return null;
+        }
+        definir(stmt.slot, valor(0));
+        Expr inicializacao = tirarExpr();
+        if (inicializacao == stmt.initializer) {
+            por(stmt, null);
+        } else {
+            Stmt.Var otimizado = new Stmt.Var(stmt.typeKeyword, stmt.name, stmt.simbolo, inicializacao);
+            otimizado.slot = stmt.slot;
+            por(otimizado, null);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitRead(Stmt.Read stmt) {
+        definir(stmt.slot, null);
+        por(stmt, null);
+        return null;
+    }
+
+    @Override
+    public Void visitExprStmt(Stmt.ExprStmt stmt) {
+        if (pilha.etapa() == 0) {
+            agendar(stmt.expression);
+            pilha.agendar(stmt, 1);
+            return null;
+        }
+        Expr expressao = tirarExpr();
+        por(expressao == stmt.expression ? stmt : new Stmt.ExprStmt(expressao), null);
+        return null;
+    }
+
+    @Override
+    public Void visitPrint(Stmt.Print stmt) {
+        if (pilha.etapa() == 0) {
+            agendar(stmt.expression);
+            pilha.agendar(stmt, 1);
+            return null;
+        }
+        Expr expressao = tirarExpr();
+        por(expressao == stmt.expression ? stmt : new Stmt.Print(expressao), null);
+        return null;
+    }
+
+    @Override
+    public Void visitBlock(Stmt.Block stmt) {
+        if (pilha.etapa() == 0) {
+            for (Stmt s : stmt.statements) agendar(s);
+            pilha.agendar(stmt, 1);
+            return null;
+        }
+        Stmt[] corpo = new Stmt[stmt.statements.size()];
+        boolean mudou = false;
+        for (int i = corpo.length - 1; i >= 0; i--) {
+            corpo[i] = (Stmt) tirar();
+            mudou |= corpo[i] != stmt.statements.get(i);
+        }
+        por(mudou ? new Stmt.Block(new ArrayList<>(Arrays.asList(corpo))) : stmt, null);
+        return null;
+    }
+
+    // Etapas: 1 depois da condição, 2 depois do then, 3 depois do else. O
+    // ambiente de depois da condição fica guardado para o else.
+    @Override
+    public Void visitIf(Stmt.If stmt) {
+        switch (pilha.etapa()) {
+            case 0:
+                agendar(stmt.condition);
+                pilha.agendar(stmt, 1);
+                return null;
+            case 1:
+                guardarAmbiente();
+                agendar(stmt.thenBranch);
+                pilha.agendar(stmt, 2);
+                return null;
+            case 2: {
+                Object[] depoisDaCondicao = retomarGuardado();
+                guardarAmbiente();
+                ambiente = depoisDaCondicao;
+                agendar(stmt.elseBranch);
+                pilha.agendar(stmt, 3);
+                return null;
+            }
+            default:
+                break;
+        }
+        Object[] depoisDoThen = retomarGuardado();
+        Stmt senao = tirarStmt(stmt.elseBranch);
+        Stmt entao = tirarStmt(stmt.thenBranch);
+        Boolean condicao = valor(0) != null ? semantica.verdadeiro(valor(0)) : null;
+        Expr expressao = tirarExpr();
+
+        if (condicao == null) juntar(depoisDoThen);
+        else if (condicao) ambiente = depoisDoThen;
+
+        boolean mudou = expressao != stmt.condition || entao != stmt.thenBranch || senao != stmt.elseBranch;
+        por(mudou ? new Stmt.If(expressao, entao, senao) : stmt, null);
+        return null;
+    }
+
+    // O laço sai sempre logo depois de avaliar a condição, então o ambiente
+    // de depois da condição (com os slots do laço esquecidos) vale na saída.
+    @Override
+    public Void visitWhile(Stmt.While stmt) {
+        switch (pilha.etapa()) {
+            case 0:
+                esquecerAtribuidas(stmt);
+                agendar(stmt.condition);
+                pilha.agendar(stmt, 1);
+                return null;
+            case 1:
+                guardarAmbiente();
+                agendar(stmt.body);
+                pilha.agendar(stmt, 2);
+                return null;
+            default:
+                break;
+        }
+        ambiente = retomarGuardado();
+        Stmt corpo = tirarStmt(stmt.body);
+        Expr condicao = tirarExpr();
+        boolean mudou = condicao != stmt.condition || corpo != stmt.body;
+        por(mudou ? new Stmt.While(condicao, corpo) : stmt, null);
+        return null;
+    }
+
+    @Override
+    public Void visitLiteral(Expr.Literal expr) {
+        por(expr, semantica.literal(expr));
+        return null;
+    }
+
+    @Override
+    public Void visitVariable(Expr.Variable expr) {
+        terminar(expr, expr, conhecido(expr.slot));
+        return null;
+    }
+
+    @Override
+    public Void visitGrouping(Expr.Grouping expr) {
+        if (pilha.etapa() == 0) {
+            agendar(expr.expression);
+            pilha.agendar(expr, 1);
+            return null;
+        }
+        Object valor = valor(0);
+        Expr interna = tirarExpr();
+        terminar(expr, interna == expr.expression ? expr : copiarTipo(expr, new Expr.Grouping(interna)), valor);
+        return null;
+    }
+
+    @Override
+    public Void visitConversion(Expr.Conversion expr) {
+        if (pilha.etapa() == 0) {
+            agendar(expr.expression);
+            pilha.agendar(expr, 1);
+            return null;
+        }
+        Object valor = valor(0) != null ? semantica.conversao(expr, valor(0)) : null;
+        Expr interna = tirarExpr();
+        terminar(expr, interna == expr.expression ? expr : new Expr.Conversion(interna, expr.tipo), valor);
+        return null;
+    }
+
+    @Override
+    public Void visitUnary(Expr.Unary expr) {
+        if (pilha.etapa() == 0) {
+            agendar(expr.right);
+            pilha.agendar(expr, 1);
+            return null;
+        }
+        Object valor = valor(0) != null ? semantica.unario(expr, valor(0)) : null;
+        Expr direita = tirarExpr();
+        terminar(expr, direita == expr.right ? expr : copiarTipo(expr, new Expr.Unary(expr.operator, direita)), valor);
+        return null;
+    }
+
+    @Override
+    public Void visitBinary(Expr.Binary expr) {
+        if (pilha.etapa() == 0) {
+            agendar(expr.left);
+            agendar(expr.right);
+            pilha.agendar(expr, 1);
+            return null;
+        }
+        Object valor = valor(1) != null && valor(0) != null ? semantica.binario(expr, valor(1), valor(0)) : null;
+        Expr direita = tirarExpr();
+        Expr esquerda = tirarExpr();
+        Expr reconstruida = esquerda == expr.left && direita == expr.right
+                ? expr : copiarTipo(expr, new Expr.Binary(esquerda, expr.operator, direita));
+        terminar(expr, reconstruida, valor);
+        return null;
+    }
+
+    // Etapa 1 decide se o lado esquerdo já basta; se não, o direito é
+    // visitado e, como pode não rodar, o ambiente depois dele é juntado com o
+    // de antes.
+    @Override
+    public Void visitLogical(Expr.Logical expr) {
+        switch (pilha.etapa()) {
+            case 0:
+                agendar(expr.left);
+                pilha.agendar(expr, 1);
+                return null;
+            case 1: {
+                Object decidido = valor(0) != null ? semantica.curtoCircuito(expr, valor(0)) : null;
+                if (decidido != null) {
+                    tirar();
+                    terminar(expr, expr, decidido);
+                    return null;
+                }
+                guardarAmbiente();
+                agendar(expr.right);
+                pilha.agendar(expr, 2);
+                return null;
+            }
+            default:
+                break;
+        }
+        juntar(retomarGuardado());
+        Object valor = valor(1) != null && valor(0) != null ? semantica.logico(expr, valor(1), valor(0)) : null;
+        Expr direita = tirarExpr();
+        Expr esquerda = tirarExpr();
+        Expr reconstruida = esquerda == expr.left && direita == expr.right
+                ? expr : copiarTipo(expr, new Expr.Logical(esquerda, expr.operator, direita));
+        terminar(expr, reconstruida, valor);
+        return null;
+    }
+
+    // O valor atribuído é propagado para os usos seguintes, mas a atribuição
+    // em si fica.
+    @Override
+    public Void visitAssign(Expr.Assign expr) {
+        if (pilha.etapa() == 0) {
+            agendar(expr.value);
+            pilha.agendar(expr, 1);
+            return null;
+        }
+        definir(expr.target.slot, valor(0));
+        Expr valor = tirarExpr();
+        por(valor == expr.value ? expr : copiarTipo(expr, new Expr.Assign(expr.target, valor)), null);
+        return null;
+    }
+
+    private static Expr copiarTipo(Expr original, Expr copia) {
+        copia.tipo = original.tipo;
+        return copia;
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.otimizacao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import org.example.sintatico.Expr;
+import org.example.sintatico.Stmt;
+
+// Remove o que nunca executa: o ramo não escolhido de um if com condição
+// constante, laços cuja condição é constantemente falsa, blocos vazios e
+// tudo que vem depois de um laço infinito (a linguagem não tem break). A
+// condição é lida com a Semantica do backend; no Java uma condição int vira
+// (cond) != 0, então while (1) é infinito em todos eles.
+public class EliminadorDeCodigoMorto extends ReescritorDeArvore {
+
+    private final Semantica semantica;
+    // Comandos que nunca terminam: while com condição sempre verdadeira, ou
+    // um bloco ou if que sempre chega a um deles.
+    private final Set<Stmt> semFim = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    public EliminadorDeCodigoMorto(Semantica semantica) {
+        this.semantica = semantica;
+    }
+
+    @Override
+    public List<Stmt> reescrever(List<Stmt> programa) {
+        return ateOPrimeiroSemFim(super.reescrever(programa));
+    }
+
+    private List<Stmt> ateOPrimeiroSemFim(List<Stmt> comandos) {
+        for (int i = 0; i < comandos.size(); i++) {
+            if (semFim.contains(comandos.get(i))) return new ArrayList<>(comandos.subList(0, i + 1));
+        }
+        return comandos;
+    }
+
+    private Boolean condicaoConstante(Expr condicao) {
+        Expr interna = Simplificador.semParenteses(condicao);
+        if (!(interna instanceof Expr.Literal)) return null;
+        Object valor = semantica.literal((Expr.Literal) interna);
+        return valor != null ? semantica.verdadeiro(valor) : null;
+    }
+
+    private static boolean vazio(Stmt stmt) {
+        return stmt == null || stmt instanceof Stmt.Block && ((Stmt.Block) stmt).statements.isEmpty();
+    }
+
+    private static Stmt.Block blocoVazio() {
+        return new Stmt.Block(new ArrayList<>());
+    }
+
+    @Override
+    protected Stmt comando(Stmt no) {
+        if (no instanceof Stmt.Block) return bloco((Stmt.Block) no);
+        if (no instanceof Stmt.If) return se((Stmt.If) no);
+        if (no instanceof Stmt.While) return enquanto((Stmt.While) no);
+        return no;
+    }
+
+    private Stmt bloco(Stmt.Block stmt) {
+        List<Stmt> alcancaveis = ateOPrimeiroSemFim(stmt.statements);
+        if (alcancaveis.isEmpty()) return null;
+        Stmt.Block resultado = alcancaveis == stmt.statements ? stmt : new Stmt.Block(alcancaveis);
+        if (semFim.contains(alcancaveis.get(alcancaveis.size() - 1))) semFim.add(resultado);
+        return resultado;
+    }
+
+    private Stmt se(Stmt.If stmt) {
+        Boolean condicao = condicaoConstante(stmt.condition);
+        if (condicao != null) return condicao ? stmt.thenBranch : stmt.elseBranch;
+
+        Stmt senao = vazio(stmt.elseBranch) ? null : stmt.elseBranch;
+        if (vazio(stmt.thenBranch) && senao == null && semEfeito(stmt.condition)) return null;
+        // O Java exige um corpo no then, mesmo vazio.
+        Stmt entao = stmt.thenBranch != null ? stmt.thenBranch : blocoVazio();
+        Stmt.If resultado = entao == stmt.thenBranch && senao == stmt.elseBranch ? stmt : new Stmt.If(stmt.condition, entao, senao);
+        if (semFim.contains(entao) && semFim.contains(senao)) semFim.add(resultado);
+        return resultado;
+    }
+
+    private Stmt enquanto(Stmt.While stmt) {
+        Boolean condicao = condicaoConstante(stmt.condition);
+        if (Boolean.FALSE.equals(condicao)) return null;
+
+        Stmt.While resultado = stmt.body != null ? stmt : new Stmt.While(stmt.condition, blocoVazio());
+        if (Boolean.TRUE.equals(condicao)) semFim.add(resultado);
+        return resultado;
+    }
+
+    // Só variáveis e literais: qualquer operação pode lançar erro em algum
+    // backend (divisão por zero, string que não é número).
+    private static boolean semEfeito(Expr expr) {
+        Expr interna = Simplificador.semParenteses(expr);
+        return interna instanceof Expr.Variable || interna instanceof Expr.Literal;
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.otimizacao;
+
+import java.util.List;
+import org.example.sintatico.AstPlana;
+import org.example.sintatico.Stmt;
+
+// Passes de otimização sobre a árvore, na ordem em que rodam. Recebe o
+// programa já resolvido (e, para o Java, tipado) e a semântica do backend
+// que vai consumir o resultado.
+public final class Otimizador {
+
+    private final Semantica semantica;
+    private List<Stmt> antesDaEliminacao = List.of();
+    private List<Stmt> otimizado = List.of();
+
+    public Otimizador(Semantica semantica) {
+        this.semantica = semantica;
+    }
+
+    public static List<Stmt> otimizar(List<Stmt> programa, Semantica semantica) {
+        return new Otimizador(semantica).otimizar(programa);
+    }
+
+    public List<Stmt> otimizar(List<Stmt> programa) {
+        List<Stmt> dobrado = new DobradorDeConstantes(semantica).otimizar(programa);
+        List<Stmt> simplificado = new Simplificador(semantica).reescrever(dobrado);
+        // A simplificação junta constantes (x*0 vira 0, (x+1)-1 vira x) que
+        // um novo dobramento ainda pode propagar.
+        antesDaEliminacao = new DobradorDeConstantes(semantica).otimizar(simplificado);
+        otimizado = new EliminadorDeCodigoMorto(semantica).reescrever(antesDaEliminacao);
+        return otimizado;
+    }
+
+    // O programa como estava antes da eliminação de código morto, para quem
+    // quiser medir quanto ela removeu da saída do seu backend.
+    public List<Stmt> getAntesDaEliminacao() {
+        return antesDaEliminacao;
+    }
+
+    // Nós da árvore removidos pela eliminação de código morto na última
+    // chamada de otimizar().
+    public int getNosRemovidos() {
+        return AstPlana.de(antesDaEliminacao).tamanho() - AstPlana.de(otimizado).tamanho();
+    }
+}
@@ -0,0 +1,212 @@
+package org.example.otimizacao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.example.sintatico.Expr;
+import org.example.sintatico.PilhaDeVisita;
+import org.example.sintatico.Stmt;
+
+// Base dos passes que reescrevem a árvore de baixo para cima: cada nó é
+// reconstruído com os filhos já reescritos (ou reaproveitado, se nenhum
+// mudou) e então entregue a expressao() ou comando(). Um comando reescrito
+// para null sai do programa ou do bloco. Usa a PilhaDeVisita, então a
+// profundidade do programa não é limitada pela pilha do Java.
+abstract class ReescritorDeArvore implements Stmt.Visitor<Void>, Expr.Visitor<Void> {
+
+    private final PilhaDeVisita pilha = new PilhaDeVisita();
+    private Object[] prontos = new Object[64];
+    private int topo = 0;
+
+    public List<Stmt> reescrever(List<Stmt> programa) {
+        pilha.empilharEmOrdem(programa);
+        pilha.percorrer(this, this);
+
+        Stmt[] reescrito = new Stmt[topo];
+        for (int i = reescrito.length - 1; i >= 0; i--) reescrito[i] = (Stmt) tirar();
+        return semNulos(Arrays.asList(reescrito));
+    }
+
+    protected Expr expressao(Expr no) {
+        return no;
+    }
+
+    protected Stmt comando(Stmt no) {
+        return no;
+    }
+
+    protected static Expr comTipo(Expr original, Expr copia) {
+        copia.tipo = original.tipo;
+        return copia;
+    }
+
+    private static List<Stmt> semNulos(List<Stmt> comandos) {
+        List<Stmt> resultado = new ArrayList<>(comandos.size());
+        for (Stmt stmt : comandos) {
+            if (stmt != null) resultado.add(stmt);
+        }
+        return resultado;
+    }
+
+    private void por(Object no) {
+        if (topo == prontos.length) prontos = Arrays.copyOf(prontos, topo * 2);
+        prontos[topo++] = no;
+    }
+
+    private Object tirar() {
+        Object no = prontos[--topo];
+        prontos[topo] = null;
+        return no;
+    }
+
+    private Expr tirarExpr() {
+        return (Expr) tirar();
+    }
+
+    private Stmt tirarStmt(Stmt original) {
+        return original != null ? (Stmt) tirar() : null;
+    }
+
+    // Etapa 0 agenda os filhos e o próprio nó na etapa 1, que reconstrói.
+    private boolean agendarFilhos(Object no, Object... filhos) {
+        if (pilha.etapa() == 1) return false;
+        for (Object filho : filhos) {
+            if (filho != null) pilha.agendar(filho);
+        }
+        pilha.agendar(no, 1);
+        return true;
+    }
+
+    @Override
+    public Void visitVar(Stmt.Var stmt) {
+        if (agendarFilhos(stmt, stmt.initializer)) return null;
+        Expr inicializacao = stmt.initializer != null ? tirarExpr() : null;
+        Stmt.Var reconstruido = stmt;
+        if (inicializacao != stmt.initializer) {
+            reconstruido = new Stmt.Var(stmt.typeKeyword, stmt.name, stmt.simbolo, inicializacao);
+            reconstruido.slot = stmt.slot;
+        }
+        por(comando(reconstruido));
+        return null;
+    }
+
+    @Override
+    public Void visitRead(Stmt.Read stmt) {
+        por(comando(stmt));
+        return null;
+    }
+
+    @Override
+    public Void visitExprStmt(Stmt.ExprStmt stmt) {
+        if (agendarFilhos(stmt, stmt.expression)) return null;
+        Expr expressao = tirarExpr();
+        por(comando(expressao == stmt.expression ? stmt : new Stmt.ExprStmt(expressao)));
+        return null;
+    }
+
+    @Override
+    public Void visitPrint(Stmt.Print stmt) {
+        if (agendarFilhos(stmt, stmt.expression)) return null;
+        Expr expressao = tirarExpr();
+        por(comando(expressao == stmt.expression ? stmt : new Stmt.Print(expressao)));
+        return null;
+    }
+
+    @Override
+    public Void visitBlock(Stmt.Block stmt) {
+        if (agendarFilhos(stmt, stmt.statements.toArray())) return null;
+        Stmt[] corpo = new Stmt[stmt.statements.size()];
+        boolean mudou = false;
+        for (int i = corpo.length - 1; i >= 0; i--) {
+            corpo[i] = (Stmt) tirar();
+            mudou |= corpo[i] != stmt.statements.get(i);
+        }
+        por(comando(mudou ? new Stmt.Block(semNulos(Arrays.asList(corpo))) : stmt));
+        return null;
+    }
+
+    @Override
+    public Void visitIf(Stmt.If stmt) {
+        if (agendarFilhos(stmt, stmt.condition, stmt.thenBranch, stmt.elseBranch)) return null;
+        Stmt senao = tirarStmt(stmt.elseBranch);
+        Stmt entao = tirarStmt(stmt.thenBranch);
+        Expr condicao = tirarExpr();
+        boolean mudou = condicao != stmt.condition || entao != stmt.thenBranch || senao != stmt.elseBranch;
+        por(comando(mudou ? new Stmt.If(condicao, entao, senao) : stmt));
+        return null;
+    }
+
+    @Override
+    public Void visitWhile(Stmt.While stmt) {
+        if (agendarFilhos(stmt, stmt.condition, stmt.body)) return null;
+        Stmt corpo = tirarStmt(stmt.body);
+        Expr condicao = tirarExpr();
+        boolean mudou = condicao != stmt.condition || corpo != stmt.body;
+        por(comando(mudou ? new Stmt.While(condicao, corpo) : stmt));
+        return null;
+    }
+
+    @Override
+    public Void visitLiteral(Expr.Literal expr) {
+        por(expressao(expr));
+        return null;
+    }
+
+    @Override
+    public Void visitVariable(Expr.Variable expr) {
+        por(expressao(expr));
+        return null;
+    }
+
+    @Override
+    public Void visitGrouping(Expr.Grouping expr) {
+        if (agendarFilhos(expr, expr.expression)) return null;
+        Expr interna = tirarExpr();
+        por(expressao(interna == expr.expression ? expr : comTipo(expr, new Expr.Grouping(interna))));
+        return null;
+    }
+
+    @Override
+    public Void visitConversion(Expr.Conversion expr) {
+        if (agendarFilhos(expr, expr.expression)) return null;
+        Expr interna = tirarExpr();
+        por(expressao(interna == expr.expression ? expr : new Expr.Conversion(interna, expr.tipo)));
+        return null;
+    }
+
+    @Override
+    public Void visitUnary(Expr.Unary expr) {
+        if (agendarFilhos(expr, expr.right)) return null;
+        Expr direita = tirarExpr();
+        por(expressao(direita == expr.right ? expr : comTipo(expr, new Expr.Unary(expr.operator, direita))));
+        return null;
+    }
+
+    @Override
+    public Void visitBinary(Expr.Binary expr) {
+        if (agendarFilhos(expr, expr.left, expr.right)) return null;
+        Expr direita = tirarExpr();
+        Expr esquerda = tirarExpr();
+        boolean mudou = esquerda != expr.left || direita != expr.right;
+        por(expressao(mudou ? comTipo(expr, new Expr.Binary(esquerda, expr.operator, direita)) : expr));
+        return null;
+    }
+
+    @Override
+    public Void visitLogical(Expr.Logical expr) {
+        if (agendarFilhos(expr, expr.left, expr.right)) return null;
+        Expr direita = tirarExpr();
+        Expr esquerda = tirarExpr();
+        boolean mudou = esquerda != expr.left || direita != expr.right;
+        por(expressao(mudou ? comTipo(expr, new Expr.Logical(esquerda, expr.operator, direita)) : expr));
+        return null;
+    }
+
+    @Override
+    public Void visitAssign(Expr.Assign expr) {
+        if (agendarFilhos(expr, expr.value)) return null;
+        Expr valor = tirarExpr();
+        por(expressao(valor == expr.value ? expr : comTipo(expr, new Expr.Assign(expr.target, valor))));
+        return null;
+    }
+}
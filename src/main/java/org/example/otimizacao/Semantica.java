@@ -0,0 +1,314 @@
+package org.example.otimizacao;
+
+import org.example.sintatico.Expr;
+import org.example.sintatico.Expr.Tipo;
+
+// Como um backend calcula cada operação, para que o otimizador só troque uma
+// expressão por um valor que o próprio backend produziria em tempo de
+// execução. Cada método devolve o valor já calculado ou null quando não dá
+// para decidir em tempo de compilação (operando desconhecido, ou operação que
+// no backend lança erro, como a divisão inteira por zero no Java).
+//
+// Os interpretadores fazem toda conta em double, comparam igualdade com
+// equals (Integer 0 é diferente de Double 0.0) e aceitam qualquer valor como
+// condição. O Java segue os tipos estáticos da árvore tipada.
+public abstract class Semantica {
+
+    public static final Semantica INTERPRETADOR = new Interpretada(false);
+    public static final Semantica CODIGO_INTERMEDIARIO = new Interpretada(true);
+    public static final Semantica JAVA = new Java();
+
+    // Valor de um literal, ou null se o backend não garante esse valor.
+    abstract Object literal(Expr.Literal expr);
+
+    // Valor de uma variável declarada sem inicialização.
+    abstract Object valorInicial();
+
+    abstract Object unario(Expr.Unary expr, Object direita);
+
+    abstract Object binario(Expr.Binary expr, Object esquerda, Object direita);
+
+    abstract Object conversao(Expr.Conversion expr, Object valor);
+
+    // Se o lado esquerdo sozinho decide o resultado, devolve esse resultado;
+    // o lado direito então nunca é avaliado.
+    abstract Object curtoCircuito(Expr.Logical expr, Object esquerda);
+
+    abstract Object logico(Expr.Logical expr, Object esquerda, Object direita);
+
+    // Como o backend lê um valor usado como condição de if ou while.
+    abstract Boolean verdadeiro(Object valor);
+
+    // Se a conta é feita em aritmética inteira (com estouro circular), onde
+    // x+0, x-x e a reassociação de constantes valem; em double (IEEE) elas
+    // não valem por causa de -0.0, NaN, infinitos e arredondamento.
+    abstract boolean aritmeticaInteira(Expr.Binary expr);
+
+    // Expressão equivalente a uma operação aritmética cujo resultado é o
+    // próprio operando (x*1, x/1, -(-x)).
+    abstract Expr comoNumero(Expr operando);
+
+    // Resultado de comparar uma variável com ela mesma, ou null se depende do
+    // valor (NaN não é igual a si mesmo no Java).
+    abstract Boolean comparacaoConsigoMesmo(Expr.Binary expr);
+
+    // Se a expressão sempre produz um booleano neste backend.
+    abstract boolean sempreBooleano(Expr expr);
+
+    static boolean comparacao(Expr expr) {
+        if (!(expr instanceof Expr.Binary)) return false;
+        switch (((Expr.Binary) expr).operator) {
+            case GREATER: case LESS: case GREATER_EQUAL: case LESS_EQUAL: case EQUAL: case NOT_EQUAL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static final class Interpretada extends Semantica {
+        // O InterpretadorIC lança erro na divisão por zero, guarda 0 em variáveis
+        // sem inicialização, calcula '!' e faz '&&'/'||' devolverem o próprio
+        // operando que decidiu; o Interpretador da árvore devolve Infinity ou
+        // NaN, guarda null, não calcula '!' e devolve sempre um booleano.
+        private final boolean codigoIntermediario;
+
+        Interpretada(boolean codigoIntermediario) {
+            this.codigoIntermediario = codigoIntermediario;
+        }
+
+        @Override
+        Object literal(Expr.Literal expr) {
+            return expr.value;
+        }
+
+        @Override
+        Object valorInicial() {
+            return codigoIntermediario ? (Object) 0 : null;
+        }
+
+        @Override
+        Object unario(Expr.Unary expr, Object direita) {
+            if (expr.operator == Expr.UnaryOp.NEGATE) {
+                return direita instanceof Number ? (Object) (-((Number) direita).doubleValue()) : null;
+            }
+            if (!codigoIntermediario) return null;
+            Boolean valor = verdadeiro(direita);
+            return valor == null ? null : !valor;
+        }
+
+        @Override
+        Object binario(Expr.Binary expr, Object esquerda, Object direita) {
+            if (expr.operator == Expr.BinaryOp.EQUAL) return esquerda.equals(direita);
+            if (expr.operator == Expr.BinaryOp.NOT_EQUAL) return !esquerda.equals(direita);
+            if (!(esquerda instanceof Number) || !(direita instanceof Number)) return null;
+
+            double a = ((Number) esquerda).doubleValue();
+            double b = ((Number) direita).doubleValue();
+            switch (expr.operator) {
+                case ADD: return a + b;
+                case SUBTRACT: return a - b;
+                case MULTIPLY: return a * b;
+                case DIVIDE: return b == 0 && codigoIntermediario ? null : (Object) (a / b);
+                case MODULO: return b == 0 && codigoIntermediario ? null : (Object) (a % b);
+                case GREATER: return a > b;
+                case LESS: return a < b;
+                case GREATER_EQUAL: return a >= b;
+                case LESS_EQUAL: return a <= b;
+                default: return null;
+            }
+        }
+
+        @Override
+        Object conversao(Expr.Conversion expr, Object valor) {
+            return valor instanceof Number ? (Object) ((Number) valor).doubleValue() : null;
+        }
+
+        @Override
+        Object curtoCircuito(Expr.Logical expr, Object esquerda) {
+            Boolean valor = verdadeiro(esquerda);
+            if (valor == null || valor != (expr.operator == Expr.LogicalOp.OR)) return null;
+            return codigoIntermediario ? esquerda : valor;
+        }
+
+        @Override
+        Object logico(Expr.Logical expr, Object esquerda, Object direita) {
+            Object decidido = curtoCircuito(expr, esquerda);
+            if (decidido != null) return decidido;
+            return codigoIntermediario ? direita : verdadeiro(direita);
+        }
+
+        @Override
+        Boolean verdadeiro(Object valor) {
+            if (valor instanceof Boolean) return (Boolean) valor;
+            if (valor instanceof Number) return ((Number) valor).doubleValue() != 0.0;
+            if (valor instanceof String) return !((String) valor).isEmpty();
+            return null;
+        }
+
+        @Override
+        boolean aritmeticaInteira(Expr.Binary expr) {
+            return false;
+        }
+
+        // Toda conta devolve Double, então x*1 vira a conversão para real
+        // (Integer 5 impresso como 5.0), a menos que x já seja um Double.
+        @Override
+        Expr comoNumero(Expr operando) {
+            Expr interno = Simplificador.semParenteses(operando);
+            boolean jaEhDouble = interno instanceof Expr.Conversion
+                    || interno instanceof Expr.Literal && ((Expr.Literal) interno).value instanceof Double
+                    || interno instanceof Expr.Unary && ((Expr.Unary) interno).operator == Expr.UnaryOp.NEGATE
+                    || interno instanceof Expr.Binary && !comparacao(interno);
+            return jaEhDouble ? operando : new Expr.Conversion(operando, Tipo.REAL);
+        }
+
+        // Igualdade usa equals, em que até NaN é igual a si mesmo; as outras
+        // comparações convertem para número e podem lançar erro.
+        @Override
+        Boolean comparacaoConsigoMesmo(Expr.Binary expr) {
+            if (expr.operator == Expr.BinaryOp.EQUAL) return true;
+            if (expr.operator == Expr.BinaryOp.NOT_EQUAL) return false;
+            return null;
+        }
+
+        @Override
+        boolean sempreBooleano(Expr expr) {
+            Expr interno = Simplificador.semParenteses(expr);
+            if (comparacao(interno)) return true;
+            if (interno instanceof Expr.Literal) return ((Expr.Literal) interno).value instanceof Boolean;
+            if (interno instanceof Expr.Logical) return !codigoIntermediario;
+            return interno instanceof Expr.Unary && ((Expr.Unary) interno).operator == Expr.UnaryOp.NOT;
+        }
+    }
+
+    // Sem tipo estático não há como saber a aritmética do Java, então só a
+    // árvore tipada é otimizada. Resultados não finitos ficam para o tempo de
+    // execução porque o transpilador não tem como escrevê-los como literal.
+    private static final class Java extends Semantica {
+
+        @Override
+        Object literal(Expr.Literal expr) {
+            return expr.tipo != null ? expr.value : null;
+        }
+
+        @Override
+        Object valorInicial() {
+            return null;
+        }
+
+        @Override
+        Object unario(Expr.Unary expr, Object direita) {
+            if (expr.operator == Expr.UnaryOp.NOT) {
+                return direita instanceof Boolean ? (Object) !(Boolean) direita : null;
+            }
+            if (direita instanceof Integer && expr.tipo == Tipo.INT) return -(Integer) direita;
+            if (direita instanceof Double && expr.tipo == Tipo.REAL) return -(Double) direita;
+            return null;
+        }
+
+        @Override
+        Object binario(Expr.Binary expr, Object esquerda, Object direita) {
+            if (esquerda instanceof Integer && direita instanceof Integer) {
+                int a = (Integer) esquerda;
+                int b = (Integer) direita;
+                switch (expr.operator) {
+                    case ADD: return a + b;
+                    case SUBTRACT: return a - b;
+                    case MULTIPLY: return a * b;
+                    case DIVIDE: return b == 0 ? null : (Object) (a / b);
+                    case MODULO: return b == 0 ? null : (Object) (a % b);
+                    case GREATER: return a > b;
+                    case LESS: return a < b;
+                    case GREATER_EQUAL: return a >= b;
+                    case LESS_EQUAL: return a <= b;
+                    case EQUAL: return a == b;
+                    case NOT_EQUAL: return a != b;
+                    default: return null;
+                }
+            }
+            if (esquerda instanceof Double && direita instanceof Double) {
+                double a = (Double) esquerda;
+                double b = (Double) direita;
+                switch (expr.operator) {
+                    case ADD: return finito(a + b);
+                    case SUBTRACT: return finito(a - b);
+                    case MULTIPLY: return finito(a * b);
+                    case DIVIDE: return finito(a / b);
+                    case MODULO: return finito(a % b);
+                    case GREATER: return a > b;
+                    case LESS: return a < b;
+                    case GREATER_EQUAL: return a >= b;
+                    case LESS_EQUAL: return a <= b;
+                    case EQUAL: return a == b;
+                    case NOT_EQUAL: return a != b;
+                    default: return null;
+                }
+            }
+            if (esquerda instanceof Boolean && direita instanceof Boolean) {
+                if (expr.operator == Expr.BinaryOp.EQUAL) return esquerda.equals(direita);
+                if (expr.operator == Expr.BinaryOp.NOT_EQUAL) return !esquerda.equals(direita);
+            }
+            // Strings comparadas com == no Java dependem de identidade.
+            return null;
+        }
+
+        private static Object finito(double valor) {
+            return Double.isFinite(valor) ? (Object) valor : null;
+        }
+
+        @Override
+        Object conversao(Expr.Conversion expr, Object valor) {
+            return valor instanceof Integer && expr.tipo == Tipo.REAL ? (Object) ((Integer) valor).doubleValue() : null;
+        }
+
+        @Override
+        Object curtoCircuito(Expr.Logical expr, Object esquerda) {
+            if (!(esquerda instanceof Boolean) || (Boolean) esquerda != (expr.operator == Expr.LogicalOp.OR)) return null;
+            return esquerda;
+        }
+
+        @Override
+        Object logico(Expr.Logical expr, Object esquerda, Object direita) {
+            if (!(esquerda instanceof Boolean) || !(direita instanceof Boolean)) return null;
+            return expr.operator == Expr.LogicalOp.OR
+                    ? (Boolean) esquerda || (Boolean) direita
+                    : (Boolean) esquerda && (Boolean) direita;
+        }
+
+        // Condição int é transpilada como (cond) != 0.
+        @Override
+        Boolean verdadeiro(Object valor) {
+            if (valor instanceof Integer) return (Integer) valor != 0;
+            return valor instanceof Boolean ? (Boolean) valor : null;
+        }
+
+        @Override
+        boolean aritmeticaInteira(Expr.Binary expr) {
+            return expr.tipo == Tipo.INT && expr.left.tipo == Tipo.INT && expr.right.tipo == Tipo.INT;
+        }
+
+        @Override
+        Expr comoNumero(Expr operando) {
+            return operando;
+        }
+
+        @Override
+        Boolean comparacaoConsigoMesmo(Expr.Binary expr) {
+            Tipo tipo = expr.left.tipo;
+            if (tipo == Tipo.INT) {
+                switch (expr.operator) {
+                    case EQUAL: case GREATER_EQUAL: case LESS_EQUAL: return true;
+                    default: return false;
+                }
+            }
+            if (tipo == Tipo.BOOLEAN && expr.operator == Expr.BinaryOp.EQUAL) return true;
+            if (tipo == Tipo.BOOLEAN && expr.operator == Expr.BinaryOp.NOT_EQUAL) return false;
+            return null;
+        }
+
+        @Override
+        boolean sempreBooleano(Expr expr) {
+            return expr.tipo == Tipo.BOOLEAN;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package org.example.otimizacao;
+
+import org.example.sintatico.Expr;
+import org.example.sintatico.Expr.BinaryOp;
+import org.example.sintatico.Expr.LogicalOp;
+import org.example.sintatico.Expr.UnaryOp;
+
+// Identidades algébricas e reassociação de constantes, aplicadas de baixo
+// para cima depois do dobramento (as constantes já viraram literais e ficam
+// à direita). Cada regra só vale onde a Semantica do backend garante o
+// mesmo resultado: em aritmética inteira x+0, x-x, x*0 e (x+1)+2 = x+3;
+// em double (IEEE) só x-0, x*1, x/1 e a reassociação de multiplicações por
+// potências de dois, que são exatas.
+//
+// Regras que descartam um operando (x*0, x-x, x==x) só se aplicam a
+// variáveis e literais, que não têm efeito nem lançam erro.
+public class Simplificador extends ReescritorDeArvore {
+
+    private final Semantica semantica;
+
+    public Simplificador(Semantica semantica) {
+        this.semantica = semantica;
+    }
+
+    static Expr semParenteses(Expr expr) {
+        while (expr instanceof Expr.Grouping) expr = ((Expr.Grouping) expr).expression;
+        return expr;
+    }
+
+    @Override
+    protected Expr expressao(Expr no) {
+        if (no instanceof Expr.Binary) {
+            Expr.Binary binario = (Expr.Binary) no;
+            return Semantica.comparacao(binario) ? comparacao(binario) : aritmetica(binario);
+        }
+        if (no instanceof Expr.Unary) return unario((Expr.Unary) no);
+        if (no instanceof Expr.Logical) return logico((Expr.Logical) no);
+        return no;
+    }
+
+    private Object constante(Expr expr) {
+        Expr interno = semParenteses(expr);
+        return interno instanceof Expr.Literal ? semantica.literal((Expr.Literal) interno) : null;
+    }
+
+    private static boolean puro(Expr expr) {
+        Expr interno = semParenteses(expr);
+        return interno instanceof Expr.Variable || interno instanceof Expr.Literal;
+    }
+
+    private static boolean mesmaVariavel(Expr a, Expr b) {
+        a = semParenteses(a);
+        b = semParenteses(b);
+        if (!(a instanceof Expr.Variable) || !(b instanceof Expr.Variable)) return false;
+        Expr.Variable x = (Expr.Variable) a;
+        Expr.Variable y = (Expr.Variable) b;
+        return x.simbolo == y.simbolo && x.slot == y.slot;
+    }
+
+    private static Expr literal(Expr original, Object valor) {
+        return comTipo(original, new Expr.Literal(valor));
+    }
+
+    private Expr comparacao(Expr.Binary expr) {
+        if (!mesmaVariavel(expr.left, expr.right)) return expr;
+        Boolean valor = semantica.comparacaoConsigoMesmo(expr);
+        return valor != null ? literal(expr, valor) : expr;
+    }
+
+    private Expr aritmetica(Expr.Binary expr) {
+        if (expr.tipo != null && !expr.tipo.numerico()) return expr;
+        boolean inteira = semantica.aritmeticaInteira(expr);
+        if (inteira && expr.operator == BinaryOp.SUBTRACT && mesmaVariavel(expr.left, expr.right)) {
+            return literal(expr, 0);
+        }
+
+        // Constante à esquerda de + ou * passa para a direita.
+        boolean comutativa = expr.operator == BinaryOp.ADD || expr.operator == BinaryOp.MULTIPLY;
+        if (comutativa && constante(expr.left) != null && constante(expr.right) == null) {
+            expr = (Expr.Binary) comTipo(expr, new Expr.Binary(expr.right, expr.operator, expr.left));
+        }
+        Object c = constante(expr.right);
+        if (!(c instanceof Number)) return expr;
+
+        Expr x = expr.left;
+        switch (expr.operator) {
+            case ADD:
+                if (inteira && zero(c)) return x;
+                break;
+            case SUBTRACT:
+                if (zero(c)) return semantica.comoNumero(x);
+                break;
+            case MULTIPLY:
+                if (um(c)) return semantica.comoNumero(x);
+                if (inteira && zero(c) && puro(x)) return literal(expr, 0);
+                break;
+            case DIVIDE:
+                if (um(c)) return semantica.comoNumero(x);
+                break;
+            case MODULO:
+                if (inteira && um(c) && puro(x)) return literal(expr, 0);
+                break;
+            default:
+                break;
+        }
+        return reassociar(expr, (Number) c, inteira);
+    }
+
+    // (x ± c1) ± c2 e (x * c1) * c2 juntam as constantes numa só operação.
+    private Expr reassociar(Expr.Binary expr, Number c2, boolean inteira) {
+        Expr interno = semParenteses(expr.left);
+        if (!(interno instanceof Expr.Binary)) return expr;
+        Expr.Binary esquerda = (Expr.Binary) interno;
+        Object c1 = constante(esquerda.right);
+        if (!(c1 instanceof Number)) return expr;
+
+        boolean multiplicacoes = expr.operator == BinaryOp.MULTIPLY && esquerda.operator == BinaryOp.MULTIPLY;
+        if (inteira && semantica.aritmeticaInteira(esquerda)) {
+            int a = ((Number) c1).intValue();
+            int b = c2.intValue();
+            if (aditiva(expr.operator) && aditiva(esquerda.operator)) {
+                int soma = (esquerda.operator == BinaryOp.ADD ? a : -a) + (expr.operator == BinaryOp.ADD ? b : -b);
+                if (soma == 0) return esquerda.left;
+                if (soma < 0 && soma != Integer.MIN_VALUE) {
+                    return comTipo(expr, new Expr.Binary(esquerda.left, BinaryOp.SUBTRACT, literal(expr.right, -soma)));
+                }
+                return comTipo(expr, new Expr.Binary(esquerda.left, BinaryOp.ADD, literal(expr.right, soma)));
+            }
+            if (multiplicacoes) {
+                return comTipo(expr, new Expr.Binary(esquerda.left, BinaryOp.MULTIPLY, literal(expr.right, a * b)));
+            }
+        }
+        // Multiplicar por ±2^k (k >= 0) é exato em IEEE, inclusive no estouro.
+        if (!inteira && multiplicacoes && potenciaDeDois((Number) c1) && potenciaDeDois(c2)) {
+            double produto = ((Number) c1).doubleValue() * c2.doubleValue();
+            return comTipo(expr, new Expr.Binary(esquerda.left, BinaryOp.MULTIPLY, literal(expr.right, produto)));
+        }
+        return expr;
+    }
+
+    private static boolean aditiva(BinaryOp op) {
+        return op == BinaryOp.ADD || op == BinaryOp.SUBTRACT;
+    }
+
+    // Só o zero positivo: x - (-0.0) é x + 0.0, que troca o sinal de -0.0.
+    private static boolean zero(Object valor) {
+        if (valor instanceof Double) return Double.doubleToRawLongBits((Double) valor) == 0L;
+        return valor instanceof Integer && (Integer) valor == 0;
+    }
+
+    private static boolean um(Object valor) {
+        return ((Number) valor).doubleValue() == 1.0;
+    }
+
+    private static boolean potenciaDeDois(Number valor) {
+        double absoluto = Math.abs(valor.doubleValue());
+        return absoluto >= 1 && Double.isFinite(absoluto) && absoluto == Math.scalb(1.0, Math.getExponent(absoluto));
+    }
+
+    private Expr unario(Expr.Unary expr) {
+        Expr interno = semParenteses(expr.right);
+        if (!(interno instanceof Expr.Unary) || ((Expr.Unary) interno).operator != expr.operator) return expr;
+        Expr x = ((Expr.Unary) interno).right;
+        if (expr.operator == UnaryOp.NEGATE) return semantica.comoNumero(x);
+        // O Interpretador da árvore não calcula '!': o erro tem de continuar lá.
+        boolean calculaNegacao = semantica.unario(expr, Boolean.TRUE) != null;
+        return calculaNegacao && semantica.sempreBooleano(x) ? x : expr;
+    }
+
+    // true && x, x && true, false || x e x || false valem x quando x já é um
+    // booleano; com outro valor o backend converteria o resultado.
+    private Expr logico(Expr.Logical expr) {
+        Boolean neutro = expr.operator == LogicalOp.AND;
+        if (neutro.equals(constante(expr.right)) && semantica.sempreBooleano(expr.left)) return expr.left;
+        if (neutro.equals(constante(expr.left)) && semantica.sempreBooleano(expr.right)) return expr.right;
+        return expr;
+    }
+}
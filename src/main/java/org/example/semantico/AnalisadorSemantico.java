@@ -1,144 +1,82 @@
 package org.example.semantico;
 
+import java.util.Arrays;
 import java.util.List;
+import org.example.sintatico.AstPlana;
 import org.example.sintatico.Stmt;
-import org.example.sintatico.Expr;
 
-public class AnalisadorSemantico implements Stmt.Visitor<Void>, Expr.Visitor<Void> {
-
-    private TabelaDeSimbolos tabela = new TabelaDeSimbolos();
-
-    public void analisar(List<Stmt> statements) {
-        for (Stmt statement : statements) {
-            executar(statement);
-        }
-    }
-
-    private void executar(Stmt stmt) {
-        if (stmt != null) stmt.accept(this);
-    }
-
-    private void avaliar(Expr expr) {
-        if (expr != null) expr.accept(this);
-    }
-
-    
-    @Override
-    public Void visitVar(Stmt.Var stmt) {
-        String nomeVariavel = stmt.name;       
-        String tipoVariavel = stmt.typeKeyword; 
-
-        if (!tabela.adicionar(nomeVariavel, tipoVariavel)) {
-            throw new RuntimeException("Erro Semântico: A variável '" + nomeVariavel + "' já foi declarada.");
-        }
-
-        if (stmt.initializer != null) {
-            avaliar(stmt.initializer);
-            
-        }
-
-        System.out.println("LOG: Variável declarada: " + nomeVariavel + " (" + tipoVariavel + ")");
-        return null;
-    }
-
-    @Override
-    public Void visitRead(Stmt.Read stmt) {
-        if (!tabela.existe(stmt.name)) {
-            throw new RuntimeException("Erro Semântico: A variável '" + stmt.name + "' não foi declarada antes de read.");
-        }
-        return null;
-    }
-
-    
-    @Override
-    public Void visitVariable(Expr.Variable expr) {
-        // No arquivo Expr.java, 'name' já é uma String.
-        if (!tabela.existe(expr.name)) {
-            throw new RuntimeException("Erro Semântico: A variável '" + expr.name + "' não foi declarada.");
-        }
-        return null;
-    }
-
-    
-    @Override
-    public Void visitBinary(Expr.Binary expr) {
-        if (expr.operator.equals("=")) {
-            
-            if (expr.left instanceof Expr.Variable) {
-                String nomeVar = ((Expr.Variable) expr.left).name;
-                if (!tabela.existe(nomeVar)) {
-                     throw new RuntimeException("Erro Semântico: Tentativa de atribuir valor a variável não declarada '" + nomeVar + "'.");
-                }
-            } else {
-                throw new RuntimeException("Erro Semântico: Atribuição inválida. O lado esquerdo deve ser uma variável.");
+public class AnalisadorSemantico {
+
+    private final TabelaDeSimbolos tabela = new TabelaDeSimbolos();
+    private final Resolvedor resolvedor = new Resolvedor(tabela, var ->
+            System.out.println("LOG: Variável declarada: " + var.name + " (" + var.typeKeyword + ")"));
+
+    private final VerificadorDeTipos verificador = new VerificadorDeTipos();
+
+    // Na árvore de objetos os nomes são verificados pelo Resolvedor, que além
+    // disso anota os slots usados pelos backends, e os tipos pelo
+    // VerificadorDeTipos. Devolve a árvore tipada; a recebida não muda além
+    // dos slots.
+    public List<Stmt> analisar(List<Stmt> statements) {
+        resolvedor.resolver(statements);
+        return verificador.verificar(statements);
+    }
+
+    // Na árvore plana a ordem dos nós já é a ordem da visita, então as
+    // verificações são feitas numa só passada pelos índices. O log de uma
+    // declaração sai depois do inicializador, como na árvore de objetos.
+    // Os escopos fecham quando a passada sai do intervalo de um bloco.
+    public void analisar(AstPlana ast) {
+        int declaracaoAberta = -1;
+        int[] fimDosBlocos = new int[8];
+        int blocosAbertos = 0;
+        for (int no = 0; no < ast.tamanho(); no++) {
+            if (declaracaoAberta >= 0 && no >= ast.fim(declaracaoAberta)) {
+                registrarDeclaracao(ast, declaracaoAberta);
+                declaracaoAberta = -1;
+            }
+            while (blocosAbertos > 0 && no >= fimDosBlocos[blocosAbertos - 1]) {
+                tabela.fecharEscopo();
+                blocosAbertos--;
+            }
+            switch (ast.tipo(no)) {
+                case BLOCO:
+                    if (blocosAbertos == fimDosBlocos.length) {
+                        fimDosBlocos = Arrays.copyOf(fimDosBlocos, blocosAbertos * 2);
+                    }
+                    fimDosBlocos[blocosAbertos++] = ast.fim(no);
+                    tabela.abrirEscopo();
+                    break;
+                case DECLARACAO:
+                    if (!tabela.adicionar(ast.simbolo(no), ast.tipoDeclarado(no))) {
+                        throw new RuntimeException("Erro Semântico: A variável '" + ast.nome(no) + "' já foi declarada.");
+                    }
+                    declaracaoAberta = no;
+                    break;
+                case READ:
+                    if (!tabela.existe(ast.simbolo(no))) {
+                        throw new RuntimeException("Erro Semântico: A variável '" + ast.nome(no) + "' não foi declarada antes de read.");
+                    }
+                    break;
+                case VARIAVEL:
+                    if (!tabela.existe(ast.simbolo(no))) {
+                        throw new RuntimeException("Erro Semântico: A variável '" + ast.nome(no) + "' não foi declarada.");
+                    }
+                    break;
+                case ATRIBUICAO:
+                    if (!tabela.existe(ast.simbolo(no))) {
+                        throw new RuntimeException("Erro Semântico: Tentativa de atribuir valor a variável não declarada '" + ast.nome(no) + "'.");
+                    }
+                    break;
+                default:
+                    break;
             }
-
-            avaliar(expr.right);
-            
-        } else {
-            avaliar(expr.left);
-            avaliar(expr.right);
-        }
-        return null;
-    }
-
-    @Override
-    public Void visitExprStmt(Stmt.ExprStmt stmt) {
-        avaliar(stmt.expression);
-        return null;
-    }
-
-    @Override
-    public Void visitPrint(Stmt.Print stmt) {
-        avaliar(stmt.expression);
-        return null;
-    }
-
-    @Override
-    public Void visitBlock(Stmt.Block stmt) {
-
-        for (Stmt s : stmt.statements) {
-            executar(s);
         }
-        return null;
-    }
-
-    @Override
-    public Void visitIf(Stmt.If stmt) {
-        avaliar(stmt.condition);
-        executar(stmt.thenBranch);
-        if (stmt.elseBranch != null) executar(stmt.elseBranch);
-        return null;
-    }
-
-    @Override
-    public Void visitWhile(Stmt.While stmt) {
-        avaliar(stmt.condition);
-        executar(stmt.body);
-        return null;
-    }
-
-    @Override
-    public Void visitLiteral(Expr.Literal expr) {
-        return null;
-    }
-
-    @Override
-    public Void visitGrouping(Expr.Grouping expr) {
-        avaliar(expr.expression);
-        return null;
-    }
-
-    @Override
-    public Void visitUnary(Expr.Unary expr) {
-        avaliar(expr.right);
-        return null;
+        if (declaracaoAberta >= 0) registrarDeclaracao(ast, declaracaoAberta);
+        while (blocosAbertos-- > 0) tabela.fecharEscopo();
     }
 
-    @Override
-    public Void visitLogical(Expr.Logical expr) {
-        avaliar(expr.left);
-        avaliar(expr.right);
-        return null;
+    private void registrarDeclaracao(AstPlana ast, int no) {
+        System.out.println("LOG: Variável declarada: " + ast.nome(no) + " (" + ast.tipoDeclarado(no) + ")");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,178 @@
+package org.example.semantico;
+
+import java.util.List;
+import java.util.function.Consumer;
+import org.example.sintatico.Expr;
+import org.example.sintatico.PilhaDeVisita;
+import org.example.sintatico.Stmt;
+
+// Liga cada uso de variável à declaração visível e anota nos nós (Stmt.Var,
+// Stmt.Read, Expr.Variable, inclusive o alvo de atribuições) o slot dela no
+// quadro. Os interpretadores e o gerador de código usam o slot como índice
+// num vetor, sem procurar o nome.
+//
+// Chamadas seguidas de resolver() continuam no mesmo escopo do topo, o que
+// permite resolver um programa comando a comando.
+public class Resolvedor implements Stmt.Visitor<Void>, Expr.Visitor<Void> {
+
+    private final TabelaDeSimbolos tabela;
+    private final Consumer<Stmt.Var> aoDeclarar;
+    private PilhaDeVisita pilha = new PilhaDeVisita();
+
+    public Resolvedor() {
+        this(new TabelaDeSimbolos(), var -> { });
+    }
+
+    // aoDeclarar é chamado depois que o inicializador da declaração foi
+    // resolvido.
+    public Resolvedor(TabelaDeSimbolos tabela, Consumer<Stmt.Var> aoDeclarar) {
+        this.tabela = tabela;
+        this.aoDeclarar = aoDeclarar;
+    }
+
+    public void resolver(List<Stmt> statements) {
+        pilha = new PilhaDeVisita();
+        pilha.empilharEmOrdem(statements);
+        pilha.percorrer(this, this);
+    }
+
+    // Tamanho do quadro que comporta todas as variáveis já declaradas.
+    public int getQuantidadeDeSlots() {
+        return tabela.getQuantidadeDeSlots();
+    }
+
+    private void executar(Stmt stmt) {
+        if (stmt != null) pilha.agendar(stmt);
+    }
+
+    private void avaliar(Expr expr) {
+        if (expr != null) pilha.agendar(expr);
+    }
+
+    @Override
+    public Void visitVar(Stmt.Var stmt) {
+        // Etapa 1: o inicializador já foi resolvido.
+        if (pilha.etapa() == 0) {
+            if (!tabela.adicionar(stmt.simbolo, stmt.typeKeyword)) {
+                throw new RuntimeException("Erro Semântico: A variável '" + stmt.name + "' já foi declarada.");
+            }
+            stmt.slot = tabela.getSlot(stmt.simbolo);
+
+            if (stmt.initializer != null) {
+                avaliar(stmt.initializer);
+                pilha.agendar(stmt, 1);
+                return null;
+            }
+        }
+
+        aoDeclarar.accept(stmt);
+        return null;
+    }
+
+    @Override
+    public Void visitRead(Stmt.Read stmt) {
+        if (!tabela.existe(stmt.simbolo)) {
+            throw new RuntimeException("Erro Semântico: A variável '" + stmt.name + "' não foi declarada antes de read.");
+        }
+        stmt.slot = tabela.getSlot(stmt.simbolo);
+        return null;
+    }
+
+    @Override
+    public Void visitVariable(Expr.Variable expr) {
+        if (!tabela.existe(expr.simbolo)) {
+            throw new RuntimeException("Erro Semântico: A variável '" + expr.name + "' não foi declarada.");
+        }
+        expr.slot = tabela.getSlot(expr.simbolo);
+        return null;
+    }
+
+    @Override
+    public Void visitAssign(Expr.Assign expr) {
+        if (!tabela.existe(expr.target.simbolo)) {
+            throw new RuntimeException("Erro Semântico: Tentativa de atribuir valor a variável não declarada '" + expr.target.name + "'.");
+        }
+        expr.target.slot = tabela.getSlot(expr.target.simbolo);
+        avaliar(expr.value);
+        return null;
+    }
+
+    @Override
+    public Void visitBlock(Stmt.Block stmt) {
+        // Etapa 1: todos os comandos do bloco já foram resolvidos.
+        if (pilha.etapa() == 1) {
+            tabela.fecharEscopo();
+            return null;
+        }
+        tabela.abrirEscopo();
+        for (Stmt s : stmt.statements) {
+            executar(s);
+        }
+        pilha.agendar(stmt, 1);
+        return null;
+    }
+
+    @Override
+    public Void visitExprStmt(Stmt.ExprStmt stmt) {
+        avaliar(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitPrint(Stmt.Print stmt) {
+        avaliar(stmt.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitIf(Stmt.If stmt) {
+        avaliar(stmt.condition);
+        executar(stmt.thenBranch);
+        executar(stmt.elseBranch);
+        return null;
+    }
+
+    @Override
+    public Void visitWhile(Stmt.While stmt) {
+        avaliar(stmt.condition);
+        executar(stmt.body);
+        return null;
+    }
+
+    @Override
+    public Void visitLiteral(Expr.Literal expr) {
+        return null;
+    }
+
+    @Override
+    public Void visitGrouping(Expr.Grouping expr) {
+        avaliar(expr.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitUnary(Expr.Unary expr) {
+        avaliar(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitConversion(Expr.Conversion expr) {
+        avaliar(expr.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitBinary(Expr.Binary expr) {
+        avaliar(expr.left);
+        avaliar(expr.right);
+        return null;
+    }
+
+    @Override
+    public Void visitLogical(Expr.Logical expr) {
+        avaliar(expr.left);
+        avaliar(expr.right);
+        return null;
+    }
+}
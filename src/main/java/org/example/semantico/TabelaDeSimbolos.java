@@ -1,25 +1,82 @@
 package org.example.semantico;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
+// Indexada pelo id que o analisador léxico deu a cada identificador. Cada
+// bloco abre um escopo; ao fechar, as declarações dele deixam de ser
+// visíveis. Um nome não pode ser redeclarado enquanto estiver visível, então
+// em cada ponto ele tem no máximo uma declaração viva.
+//
+// O slot de um nome é a sua posição no quadro de variáveis, dada na primeira
+// declaração e densa (0, 1, 2...). Declarações do mesmo nome em blocos
+// disjuntos usam o mesmo slot, o que é seguro porque suas vidas não se
+// sobrepõem.
 public class TabelaDeSimbolos {
 
-    private final Map<String, String> simbolos = new HashMap<>();
+    private String[] tipos = new String[16];
+    private int[] slots = vazios(16);
+    private int quantidadeDeSlots = 0;
 
-    public boolean adicionar(String nome, String tipo) {
-        if (simbolos.containsKey(nome)) {
+    // Símbolos declarados, em ordem, e onde começa cada escopo aberto.
+    private int[] declarados = new int[16];
+    private int quantidadeDeDeclarados = 0;
+    private int[] escopos = new int[8];
+    private int quantidadeDeEscopos = 0;
+
+    public boolean adicionar(int simbolo, String tipo) {
+        if (simbolo >= tipos.length) {
+            int novoTamanho = Math.max(simbolo + 1, tipos.length * 2);
+            int tamanhoAnterior = slots.length;
+            tipos = Arrays.copyOf(tipos, novoTamanho);
+            slots = Arrays.copyOf(slots, novoTamanho);
+            Arrays.fill(slots, tamanhoAnterior, novoTamanho, -1);
+        }
+        if (tipos[simbolo] != null) {
             return false;
         }
-        simbolos.put(nome, tipo);
+        tipos[simbolo] = tipo;
+        if (slots[simbolo] < 0) slots[simbolo] = quantidadeDeSlots++;
+        if (quantidadeDeDeclarados == declarados.length) {
+            declarados = Arrays.copyOf(declarados, quantidadeDeDeclarados * 2);
+        }
+        declarados[quantidadeDeDeclarados++] = simbolo;
         return true;
     }
 
-    public boolean existe(String nome) {
-        return simbolos.containsKey(nome);
+    public void abrirEscopo() {
+        if (quantidadeDeEscopos == escopos.length) {
+            escopos = Arrays.copyOf(escopos, quantidadeDeEscopos * 2);
+        }
+        escopos[quantidadeDeEscopos++] = quantidadeDeDeclarados;
+    }
+
+    public void fecharEscopo() {
+        int inicio = escopos[--quantidadeDeEscopos];
+        while (quantidadeDeDeclarados > inicio) {
+            tipos[declarados[--quantidadeDeDeclarados]] = null;
+        }
+    }
+
+    public boolean existe(int simbolo) {
+        return getTipo(simbolo) != null;
+    }
+
+    public String getTipo(int simbolo) {
+        return simbolo < tipos.length ? tipos[simbolo] : null;
+    }
+
+    // Slot do nome, ou -1 se ele nunca foi declarado.
+    public int getSlot(int simbolo) {
+        return simbolo < slots.length ? slots[simbolo] : -1;
+    }
+
+    public int getQuantidadeDeSlots() {
+        return quantidadeDeSlots;
     }
 
-    public String getTipo(String nome) {
-        return simbolos.get(nome);
+    private static int[] vazios(int tamanho) {
+        int[] vetor = new int[tamanho];
+        Arrays.fill(vetor, -1);
+        return vetor;
     }
 }
@@ -0,0 +1,336 @@
+package org.example.semantico;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.example.sintatico.Expr;
+import org.example.sintatico.Expr.Tipo;
+import org.example.sintatico.PilhaDeVisita;
+import org.example.sintatico.Stmt;
+
+// Produz a árvore tipada: uma cópia do programa em que toda expressão tem
+// tipo estático e toda promoção de int para real é um Expr.Conversion
+// explícito. Misturas inválidas (texto em conta, real guardado em int,
+// texto como condição) são rejeitadas aqui, antes de qualquer backend. Fora
+// o int que guarda resultados lógicos, as regras são as do Java para esses
+// tipos.
+//
+// Roda depois do Resolvedor: o tipo de uma variável vem da última declaração
+// vista no seu slot. Isso basta porque um nome não pode ser redeclarado
+// enquanto a declaração anterior estiver visível. A árvore é copiada em vez
+// de anotada porque a FabricaDeExpr pode compartilhar o mesmo nó entre
+// blocos em que a variável tem tipos diferentes.
+public class VerificadorDeTipos implements Stmt.Visitor<Void>, Expr.Visitor<Void> {
+
+    private Tipo[] tipoDoSlot = new Tipo[16];
+    private PilhaDeVisita pilha = new PilhaDeVisita();
+
+    // Nós já tipados, em pós-ordem: cada nó tira os dos filhos e põe o seu.
+    private Object[] prontos = new Object[64];
+    private int topo = 0;
+
+    // Chamadas seguidas continuam com os tipos das declarações anteriores,
+    // para verificar um programa comando a comando.
+    public List<Stmt> verificar(List<Stmt> statements) {
+        pilha = new PilhaDeVisita();
+        topo = 0;
+        pilha.empilharEmOrdem(statements);
+        pilha.percorrer(this, this);
+
+        Stmt[] tipado = new Stmt[topo];
+        for (int i = tipado.length - 1; i >= 0; i--) tipado[i] = tirarStmt();
+        return new ArrayList<>(Arrays.asList(tipado));
+    }
+
+    private void por(Object no) {
+        if (topo == prontos.length) prontos = Arrays.copyOf(prontos, topo * 2);
+        prontos[topo++] = no;
+    }
+
+    private Object tirar() {
+        Object no = prontos[--topo];
+        prontos[topo] = null;
+        return no;
+    }
+
+    private Expr tirarExpr() {
+        return (Expr) tirar();
+    }
+
+    private Stmt tirarStmt() {
+        return (Stmt) tirar();
+    }
+
+    private void agendar(Object no) {
+        if (no != null) pilha.agendar(no);
+    }
+
+    private static <T extends Expr> T tipar(T expr, Tipo tipo) {
+        expr.tipo = tipo;
+        return expr;
+    }
+
+    // Devolve a expressão pronta para ser usada como 'destino', inserindo a
+    // conversão quando é uma promoção, ou null se os tipos não combinam.
+    private static Expr converter(Expr expr, Tipo destino) {
+        if (expr.tipo == destino) return expr;
+        if (expr.tipo == Tipo.INT && destino == Tipo.REAL) return new Expr.Conversion(expr, Tipo.REAL);
+        return null;
+    }
+
+    private Tipo tipoDe(int slot) {
+        return slot < tipoDoSlot.length ? tipoDoSlot[slot] : null;
+    }
+
+    // A linguagem não tem variável lógica: um int guarda também o resultado de
+    // uma comparação (int f = a > b && b < 5;) e vale como condição.
+    private static boolean logico(Tipo tipo) {
+        return tipo == Tipo.BOOLEAN || tipo == Tipo.INT;
+    }
+
+    private Expr atribuir(Expr valor, Tipo tipo, String nome) {
+        if (valor.tipo == Tipo.BOOLEAN && tipo == Tipo.INT) return valor;
+        Expr convertido = converter(valor, tipo);
+        if (convertido == null) {
+            throw new RuntimeException("Erro Semântico: Não é possível atribuir um valor do tipo '" + valor.tipo.nome
+                    + "' à variável '" + nome + "' do tipo '" + tipo.nome + "'.");
+        }
+        return convertido;
+    }
+
+    private Expr condicao(String comando) {
+        Expr condicao = tirarExpr();
+        if (!logico(condicao.tipo)) {
+            throw new RuntimeException("Erro Semântico: A condição do " + comando + " deve ser lógica, mas é do tipo '"
+                    + condicao.tipo.nome + "'.");
+        }
+        return condicao;
+    }
+
+    private static RuntimeException operadorInvalido(String simbolo, Tipo esquerda, Tipo direita) {
+        return new RuntimeException("Erro Semântico: O operador '" + simbolo + "' não se aplica aos tipos '"
+                + esquerda.nome + "' e '" + direita.nome + "'.");
+    }
+
+    @Override
+    public Void visitVar(Stmt.Var stmt) {
+        if (pilha.etapa() == 0) {
+            if (stmt.slot >= tipoDoSlot.length) {
+                tipoDoSlot = Arrays.copyOf(tipoDoSlot, Math.max(stmt.slot + 1, tipoDoSlot.length * 2));
+            }
+            tipoDoSlot[stmt.slot] = Tipo.daPalavraChave(stmt.typeKeyword);
+            if (stmt.initializer != null) {
+                agendar(stmt.initializer);
+                pilha.agendar(stmt, 1);
+                return null;
+            }
+        }
+        Expr inicializacao = null;
+        if (stmt.initializer != null) {
+            inicializacao = atribuir(tirarExpr(), tipoDoSlot[stmt.slot], stmt.name);
+        }
+        Stmt.Var tipado = new Stmt.Var(stmt.typeKeyword, stmt.name, stmt.simbolo, inicializacao);
+        tipado.slot = stmt.slot;
+        por(tipado);
+        return null;
+    }
+
+    @Override
+    public Void visitRead(Stmt.Read stmt) {
+        Stmt.Read tipado = new Stmt.Read(stmt.name, stmt.simbolo);
+        tipado.slot = stmt.slot;
+        por(tipado);
+        return null;
+    }
+
+    @Override
+    public Void visitExprStmt(Stmt.ExprStmt stmt) {
+        if (pilha.etapa() == 0) {
+            agendar(stmt.expression);
+            pilha.agendar(stmt, 1);
+        } else {
+            por(new Stmt.ExprStmt(tirarExpr()));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitPrint(Stmt.Print stmt) {
+        if (pilha.etapa() == 0) {
+            agendar(stmt.expression);
+            pilha.agendar(stmt, 1);
+        } else {
+            por(new Stmt.Print(tirarExpr()));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitBlock(Stmt.Block stmt) {
+        if (pilha.etapa() == 0) {
+            for (Stmt s : stmt.statements) agendar(s);
+            pilha.agendar(stmt, 1);
+            return null;
+        }
+        Stmt[] corpo = new Stmt[stmt.statements.size()];
+        for (int i = corpo.length - 1; i >= 0; i--) corpo[i] = tirarStmt();
+        por(new Stmt.Block(new ArrayList<>(Arrays.asList(corpo))));
+        return null;
+    }
+
+    @Override
+    public Void visitIf(Stmt.If stmt) {
+        if (pilha.etapa() == 0) {
+            agendar(stmt.condition);
+            agendar(stmt.thenBranch);
+            agendar(stmt.elseBranch);
+            pilha.agendar(stmt, 1);
+            return null;
+        }
+        Stmt senao = stmt.elseBranch != null ? tirarStmt() : null;
+        Stmt entao = stmt.thenBranch != null ? tirarStmt() : null;
+        por(new Stmt.If(condicao("if"), entao, senao));
+        return null;
+    }
+
+    @Override
+    public Void visitWhile(Stmt.While stmt) {
+        if (pilha.etapa() == 0) {
+            agendar(stmt.condition);
+            agendar(stmt.body);
+            pilha.agendar(stmt, 1);
+            return null;
+        }
+        Stmt corpo = stmt.body != null ? tirarStmt() : null;
+        por(new Stmt.While(condicao("while"), corpo));
+        return null;
+    }
+
+    @Override
+    public Void visitLiteral(Expr.Literal expr) {
+        Tipo tipo;
+        if (expr.value instanceof Integer) tipo = Tipo.INT;
+        else if (expr.value instanceof Double) tipo = Tipo.REAL;
+        else if (expr.value instanceof String) tipo = Tipo.STRING;
+        else throw new RuntimeException("Erro Semântico: Literal sem tipo: " + expr.value);
+        por(tipar(new Expr.Literal(expr.value), tipo));
+        return null;
+    }
+
+    @Override
+    public Void visitVariable(Expr.Variable expr) {
+        por(variavel(expr));
+        return null;
+    }
+
+    private Expr.Variable variavel(Expr.Variable expr) {
+        Expr.Variable tipada = tipar(new Expr.Variable(expr.name, expr.simbolo), tipoDe(expr.slot));
+        tipada.slot = expr.slot;
+        return tipada;
+    }
+
+    @Override
+    public Void visitGrouping(Expr.Grouping expr) {
+        if (pilha.etapa() == 0) {
+            agendar(expr.expression);
+            pilha.agendar(expr, 1);
+        } else {
+            Expr interna = tirarExpr();
+            por(tipar(new Expr.Grouping(interna), interna.tipo));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitUnary(Expr.Unary expr) {
+        if (pilha.etapa() == 0) {
+            agendar(expr.right);
+            pilha.agendar(expr, 1);
+            return null;
+        }
+        Expr direita = tirarExpr();
+        boolean valido = expr.operator == Expr.UnaryOp.NEGATE ? direita.tipo.numerico() : logico(direita.tipo);
+        if (!valido) {
+            throw new RuntimeException("Erro Semântico: O operador '" + expr.operator.symbol + "' não se aplica ao tipo '"
+                    + direita.tipo.nome + "'.");
+        }
+        Tipo tipo = expr.operator == Expr.UnaryOp.NEGATE ? direita.tipo : Tipo.BOOLEAN;
+        por(tipar(new Expr.Unary(expr.operator, direita), tipo));
+        return null;
+    }
+
+    // Aritmética e comparações de ordem pedem números; se um lado é real o
+    // outro é promovido. Igualdade aceita também dois operandos do mesmo tipo.
+    @Override
+    public Void visitBinary(Expr.Binary expr) {
+        if (pilha.etapa() == 0) {
+            agendar(expr.left);
+            agendar(expr.right);
+            pilha.agendar(expr, 1);
+            return null;
+        }
+        Expr direita = tirarExpr();
+        Expr esquerda = tirarExpr();
+        boolean igualdade = expr.operator == Expr.BinaryOp.EQUAL || expr.operator == Expr.BinaryOp.NOT_EQUAL;
+        Tipo operandos;
+        if (esquerda.tipo.numerico() && direita.tipo.numerico()) {
+            operandos = esquerda.tipo == Tipo.REAL || direita.tipo == Tipo.REAL ? Tipo.REAL : Tipo.INT;
+        } else if (igualdade && esquerda.tipo == direita.tipo) {
+            operandos = esquerda.tipo;
+        } else {
+            throw operadorInvalido(expr.operator.symbol, esquerda.tipo, direita.tipo);
+        }
+
+        Tipo resultado;
+        switch (expr.operator) {
+            case ADD: case SUBTRACT: case MULTIPLY: case DIVIDE: case MODULO:
+                resultado = operandos;
+                break;
+            default:
+                resultado = Tipo.BOOLEAN;
+        }
+        por(tipar(new Expr.Binary(converter(esquerda, operandos), expr.operator, converter(direita, operandos)), resultado));
+        return null;
+    }
+
+    @Override
+    public Void visitLogical(Expr.Logical expr) {
+        if (pilha.etapa() == 0) {
+            agendar(expr.left);
+            agendar(expr.right);
+            pilha.agendar(expr, 1);
+            return null;
+        }
+        Expr direita = tirarExpr();
+        Expr esquerda = tirarExpr();
+        if (!logico(esquerda.tipo) || !logico(direita.tipo)) {
+            throw operadorInvalido(expr.operator.symbol, esquerda.tipo, direita.tipo);
+        }
+        por(tipar(new Expr.Logical(esquerda, expr.operator, direita), Tipo.BOOLEAN));
+        return null;
+    }
+
+    @Override
+    public Void visitAssign(Expr.Assign expr) {
+        if (pilha.etapa() == 0) {
+            agendar(expr.value);
+            pilha.agendar(expr, 1);
+            return null;
+        }
+        Expr.Variable alvo = variavel(expr.target);
+        Expr valor = atribuir(tirarExpr(), alvo.tipo, alvo.name);
+        por(tipar(new Expr.Assign(alvo, valor), alvo.tipo));
+        return null;
+    }
+
+    @Override
+    public Void visitConversion(Expr.Conversion expr) {
+        if (pilha.etapa() == 0) {
+            agendar(expr.expression);
+            pilha.agendar(expr, 1);
+        } else {
+            por(new Expr.Conversion(tirarExpr(), expr.tipo));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,255 @@
+package org.example.sintatico;
+
+import java.util.Arrays;
+import java.util.List;
+
+// O programa em vetores paralelos, em pré-ordem: os filhos de um nó vêm logo
+// depois dele e fim(no) é o índice seguinte à sua subárvore, que também é o
+// próximo irmão. Percorrer é andar por índices:
+//
+//     for (int filho = no + 1; filho < ast.fim(no); filho = ast.fim(filho))
+//
+// O valor de cada nó é o id do símbolo ou o ordinal do operador (ou do tipo,
+// numa conversão); literais e nomes ficam no pool de constantes. Uma
+// declaração guarda o nome e, na entrada seguinte do pool, a palavra do tipo.
+public final class AstPlana {
+
+    public enum TipoNo {
+        LITERAL, VARIAVEL, AGRUPAMENTO, UNARIO, BINARIO, LOGICO, ATRIBUICAO,
+        DECLARACAO, EXPRESSAO, PRINT, READ, BLOCO, IF, WHILE, CONVERSAO
+    }
+
+    private static final TipoNo[] TIPOS = TipoNo.values();
+    private static final Expr.BinaryOp[] BINARIOS = Expr.BinaryOp.values();
+    private static final Expr.UnaryOp[] UNARIOS = Expr.UnaryOp.values();
+    private static final Expr.LogicalOp[] LOGICOS = Expr.LogicalOp.values();
+    private static final Expr.Tipo[] TIPOS_ESTATICOS = Expr.Tipo.values();
+
+    private int[] tipos = new int[64];
+    private int[] fins = new int[64];
+    private int[] valores = new int[64];
+    private int[] referencias = new int[64];
+    private int tamanho = 0;
+    private Object[] constantes = new Object[16];
+    private int quantidadeDeConstantes = 0;
+
+    private AstPlana() {
+    }
+
+    public static AstPlana de(List<Stmt> programa) {
+        Construtor construtor = new Construtor();
+        construtor.pilha.empilharEmOrdem(programa);
+        construtor.pilha.percorrer(construtor, construtor);
+        return construtor.ast;
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    public TipoNo tipo(int no) {
+        return TIPOS[tipos[no]];
+    }
+
+    public int fim(int no) {
+        return fins[no];
+    }
+
+    public boolean temFilhos(int no) {
+        return fins[no] > no + 1;
+    }
+
+    public int simbolo(int no) {
+        return valores[no];
+    }
+
+    public Expr.BinaryOp operadorBinario(int no) {
+        return BINARIOS[valores[no]];
+    }
+
+    public Expr.UnaryOp operadorUnario(int no) {
+        return UNARIOS[valores[no]];
+    }
+
+    public Expr.LogicalOp operadorLogico(int no) {
+        return LOGICOS[valores[no]];
+    }
+
+    public Expr.Tipo tipoConvertido(int no) {
+        return TIPOS_ESTATICOS[valores[no]];
+    }
+
+    public Object constante(int no) {
+        return constantes[referencias[no]];
+    }
+
+    public String nome(int no) {
+        return (String) constantes[referencias[no]];
+    }
+
+    public String tipoDeclarado(int no) {
+        return (String) constantes[referencias[no] + 1];
+    }
+
+    private int abrir(TipoNo tipo, int valor, int referencia) {
+        if (tamanho == tipos.length) {
+            int novaCapacidade = tamanho * 2;
+            tipos = Arrays.copyOf(tipos, novaCapacidade);
+            fins = Arrays.copyOf(fins, novaCapacidade);
+            valores = Arrays.copyOf(valores, novaCapacidade);
+            referencias = Arrays.copyOf(referencias, novaCapacidade);
+        }
+        int no = tamanho++;
+        tipos[no] = tipo.ordinal();
+        valores[no] = valor;
+        referencias[no] = referencia;
+        fins[no] = tamanho;
+        return no;
+    }
+
+    private void fechar(int no) {
+        fins[no] = tamanho;
+    }
+
+    private int constante(Object valor) {
+        if (quantidadeDeConstantes == constantes.length) {
+            constantes = Arrays.copyOf(constantes, quantidadeDeConstantes * 2);
+        }
+        constantes[quantidadeDeConstantes] = valor;
+        return quantidadeDeConstantes++;
+    }
+
+    // Cada nó composto é aberto, agenda os filhos e por último a si mesmo na
+    // etapa 1, que fecha a subárvore no índice guardado no dado do quadro.
+    //
+    // O Parser também monta a AST plana por aqui, sem a árvore do programa:
+    // abre e fecha ele mesmo os if, while e blocos, e acrescenta só os
+    // comandos simples e as condições, que são as únicas partes que chegam a
+    // existir como objetos, uma de cada vez.
+    static final class Construtor implements Stmt.Visitor<Void>, Expr.Visitor<Void> {
+        final AstPlana ast = new AstPlana();
+        private final PilhaDeVisita pilha = new PilhaDeVisita();
+
+        int abrir(TipoNo tipo) {
+            return ast.abrir(tipo, 0, -1);
+        }
+
+        void fechar(int no) {
+            ast.fechar(no);
+        }
+
+        void acrescentar(Object no) {
+            pilha.empilhar(no);
+            pilha.percorrer(this, this);
+        }
+
+        private boolean fechou() {
+            if (pilha.etapa() == 0) return false;
+            ast.fechar(pilha.dado());
+            return true;
+        }
+
+        private void abrirComFilhos(Object origem, TipoNo tipo, int valor, int referencia, Object... filhos) {
+            int no = ast.abrir(tipo, valor, referencia);
+            for (Object filho : filhos) {
+                if (filho != null) pilha.agendar(filho);
+            }
+            pilha.agendar(origem, 1, no);
+        }
+
+        @Override
+        public Void visitVar(Stmt.Var stmt) {
+            if (fechou()) return null;
+            int referencia = ast.constante(stmt.name);
+            ast.constante(stmt.typeKeyword);
+            abrirComFilhos(stmt, TipoNo.DECLARACAO, stmt.simbolo, referencia, stmt.initializer);
+            return null;
+        }
+
+        @Override
+        public Void visitExprStmt(Stmt.ExprStmt stmt) {
+            if (!fechou()) abrirComFilhos(stmt, TipoNo.EXPRESSAO, 0, -1, stmt.expression);
+            return null;
+        }
+
+        @Override
+        public Void visitPrint(Stmt.Print stmt) {
+            if (!fechou()) abrirComFilhos(stmt, TipoNo.PRINT, 0, -1, stmt.expression);
+            return null;
+        }
+
+        @Override
+        public Void visitRead(Stmt.Read stmt) {
+            ast.abrir(TipoNo.READ, stmt.simbolo, ast.constante(stmt.name));
+            return null;
+        }
+
+        @Override
+        public Void visitBlock(Stmt.Block stmt) {
+            if (!fechou()) abrirComFilhos(stmt, TipoNo.BLOCO, 0, -1, stmt.statements.toArray());
+            return null;
+        }
+
+        @Override
+        public Void visitIf(Stmt.If stmt) {
+            if (!fechou()) abrirComFilhos(stmt, TipoNo.IF, 0, -1, stmt.condition, stmt.thenBranch, stmt.elseBranch);
+            return null;
+        }
+
+        @Override
+        public Void visitWhile(Stmt.While stmt) {
+            if (!fechou()) abrirComFilhos(stmt, TipoNo.WHILE, 0, -1, stmt.condition, stmt.body);
+            return null;
+        }
+
+        @Override
+        public Void visitLiteral(Expr.Literal expr) {
+            ast.abrir(TipoNo.LITERAL, 0, ast.constante(expr.value));
+            return null;
+        }
+
+        @Override
+        public Void visitVariable(Expr.Variable expr) {
+            ast.abrir(TipoNo.VARIAVEL, expr.simbolo, ast.constante(expr.name));
+            return null;
+        }
+
+        @Override
+        public Void visitGrouping(Expr.Grouping expr) {
+            if (!fechou()) abrirComFilhos(expr, TipoNo.AGRUPAMENTO, 0, -1, expr.expression);
+            return null;
+        }
+
+        @Override
+        public Void visitUnary(Expr.Unary expr) {
+            if (!fechou()) abrirComFilhos(expr, TipoNo.UNARIO, expr.operator.ordinal(), -1, expr.right);
+            return null;
+        }
+
+        @Override
+        public Void visitBinary(Expr.Binary expr) {
+            if (!fechou()) abrirComFilhos(expr, TipoNo.BINARIO, expr.operator.ordinal(), -1, expr.left, expr.right);
+            return null;
+        }
+
+        @Override
+        public Void visitLogical(Expr.Logical expr) {
+            if (!fechou()) abrirComFilhos(expr, TipoNo.LOGICO, expr.operator.ordinal(), -1, expr.left, expr.right);
+            return null;
+        }
+
+        @Override
+        public Void visitConversion(Expr.Conversion expr) {
+            if (!fechou()) abrirComFilhos(expr, TipoNo.CONVERSAO, expr.tipo.ordinal(), -1, expr.expression);
+            return null;
+        }
+
+        @Override
+        public Void visitAssign(Expr.Assign expr) {
+            if (fechou()) return null;
+            int referencia = ast.constante(expr.target.name);
+            abrirComFilhos(expr, TipoNo.ATRIBUICAO, expr.target.simbolo, referencia, expr.value);
+            return null;
+        }
+    }
+}
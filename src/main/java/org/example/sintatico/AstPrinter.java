@@ -73,16 +73,26 @@ public class AstPrinter implements Expr.Visitor<String>, Stmt.Visitor<String> {
 
     @Override
     public String visitUnary(Expr.Unary expr) {
-        return "(" + expr.operator + " " + print(expr.right) + ")";
+        return "(" + expr.operator.symbol + " " + print(expr.right) + ")";
     }
 
     @Override
     public String visitBinary(Expr.Binary expr) {
-        return "(" + print(expr.left) + " " + expr.operator + " " + print(expr.right) + ")";
+        return "(" + print(expr.left) + " " + expr.operator.symbol + " " + print(expr.right) + ")";
     }
 
     @Override
     public String visitLogical(Expr.Logical expr) {
-        return "(" + print(expr.left) + " " + expr.operator + " " + print(expr.right) + ")";
+        return "(" + print(expr.left) + " " + expr.operator.symbol + " " + print(expr.right) + ")";
+    }
+
+    @Override
+    public String visitAssign(Expr.Assign expr) {
+        return "(" + expr.target.name + " = " + print(expr.value) + ")";
+    }
+
+    @Override
+    public String visitConversion(Expr.Conversion expr) {
+        return expr.tipo.nome + "(" + print(expr.expression) + ")";
     }
 }
@@ -0,0 +1,468 @@
+package org.example.sintatico;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Cache em disco da AST, endereçado pelo SHA-256 da versão do compilador e do
+// conteúdo da fonte. O arquivo tem a tabela de nomes e depois os nós em
+// pós-ordem (etiqueta = ordinal de AstPlana.TipoNo), então a leitura é uma
+// pilha de operandos, sem recursão. Cada gravação vai para um temporário e é
+// movida atomicamente, de modo que leitores e gravadores concorrentes nunca
+// veem um arquivo pela metade. Leituras atualizam a data do arquivo e, quando
+// o diretório passa do tamanho máximo, os menos usados são apagados.
+public final class CacheDeAst {
+
+    // Mudanças na AST ou neste formato devem trocar a versão.
+    public static final String VERSAO_DO_COMPILADOR = "1";
+
+    private static final int ASSINATURA = 0x41535431; // "AST1"
+    private static final String EXTENSAO = ".ast";
+    private static final String EXTENSAO_TEMPORARIA = ".tmp";
+    // Um temporário mais velho que isto foi deixado por um gravador que morreu
+    // antes do move; gravações vivas terminam muito antes.
+    static final long IDADE_DE_TEMPORARIO_ABANDONADO = 10 * 60 * 1000L;
+    private static final AstPlana.TipoNo[] TIPOS = AstPlana.TipoNo.values();
+    private static final Expr.BinaryOp[] BINARIOS = Expr.BinaryOp.values();
+    private static final Expr.UnaryOp[] UNARIOS = Expr.UnaryOp.values();
+    private static final Expr.Tipo[] TIPOS_ESTATICOS = Expr.Tipo.values();
+    private static final Expr.LogicalOp[] LOGICOS = Expr.LogicalOp.values();
+    private static final int LITERAL_INTEIRO = 0;
+    private static final int LITERAL_REAL = 1;
+    private static final int LITERAL_TEXTO = 2;
+
+    private final Path diretorio;
+    private final long tamanhoMaximo;
+
+    public CacheDeAst(Path diretorio, long tamanhoMaximo) {
+        this.diretorio = diretorio;
+        this.tamanhoMaximo = tamanhoMaximo;
+    }
+
+    public static String chave(byte[] conteudo) {
+        return chave(ByteBuffer.wrap(conteudo));
+    }
+
+    // Lê o buffer por uma cópia da visão, então um arquivo mapeado pode ser
+    // passado ao analisador léxico depois sem reposicionar nada.
+    public static String chave(ByteBuffer conteudo) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(VERSAO_DO_COMPILADOR.getBytes(StandardCharsets.UTF_8));
+            sha.update((byte) 0);
+            sha.update(conteudo.duplicate());
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : sha.digest()) hex.append(String.format("%02x", b));
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    public static String chave(String codigo) {
+        return chave(codigo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Devolve a AST guardada ou null se não houver entrada válida.
+    public List<Stmt> ler(String chave) {
+        Path arquivo = diretorio.resolve(chave + EXTENSAO);
+        byte[] conteudo;
+        try {
+            conteudo = Files.readAllBytes(arquivo);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            List<Stmt> programa = decodificar(conteudo);
+            Files.setLastModifiedTime(arquivo, FileTime.fromMillis(System.currentTimeMillis()));
+            return programa;
+        } catch (IOException | RuntimeException e) {
+            // Entrada corrompida ou apagada por outro processo: vale como ausente.
+            return null;
+        }
+    }
+
+    public void gravar(String chave, List<Stmt> programa) {
+        try {
+            Files.createDirectories(diretorio);
+            Path temporario = Files.createTempFile(diretorio, chave, EXTENSAO_TEMPORARIA);
+            try {
+                try (OutputStream saida = Files.newOutputStream(temporario)) {
+                    saida.write(codificar(programa));
+                }
+                Path destino = diretorio.resolve(chave + EXTENSAO);
+                try {
+                    Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temporario);
+            }
+            despejar();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Apaga as entradas usadas há mais tempo até caber no tamanho máximo.
+    // Temporários abandonados são apagados sempre; os recentes, de gravações
+    // em andamento, contam no total mas não são tocados.
+    private void despejar() throws IOException {
+        List<Path> entradas = new ArrayList<>();
+        long total = 0;
+        long limiteDosTemporarios = System.currentTimeMillis() - IDADE_DE_TEMPORARIO_ABANDONADO;
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(
+                diretorio, "*{" + EXTENSAO + "," + EXTENSAO_TEMPORARIA + "}")) {
+            for (Path arquivo : arquivos) {
+                if (arquivo.getFileName().toString().endsWith(EXTENSAO)) {
+                    entradas.add(arquivo);
+                    continue;
+                }
+                try {
+                    if (Files.getLastModifiedTime(arquivo).toMillis() < limiteDosTemporarios) {
+                        Files.deleteIfExists(arquivo);
+                    } else {
+                        total += Files.size(arquivo);
+                    }
+                } catch (NoSuchFileException e) {
+                    // O gravador terminou e moveu o arquivo.
+                }
+            }
+        }
+        long[] tamanhos = new long[entradas.size()];
+        long[] datas = new long[entradas.size()];
+        for (int i = 0; i < entradas.size(); i++) {
+            try {
+                tamanhos[i] = Files.size(entradas.get(i));
+                datas[i] = Files.getLastModifiedTime(entradas.get(i)).toMillis();
+            } catch (NoSuchFileException e) {
+                datas[i] = Long.MIN_VALUE;
+            }
+            total += tamanhos[i];
+        }
+        if (total <= tamanhoMaximo) return;
+
+        Integer[] ordem = new Integer[entradas.size()];
+        for (int i = 0; i < ordem.length; i++) ordem[i] = i;
+        Arrays.sort(ordem, (a, b) -> Long.compare(datas[a], datas[b]));
+        for (int i = 0; i < ordem.length && total > tamanhoMaximo; i++) {
+            Files.deleteIfExists(entradas.get(ordem[i]));
+            total -= tamanhos[ordem[i]];
+        }
+    }
+
+    static byte[] codificar(List<Stmt> programa) throws IOException {
+        Codificador codificador = new Codificador();
+        codificador.pilha.empilharEmOrdem(programa);
+        codificador.pilha.percorrer(codificador, codificador);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(bytes);
+        saida.writeInt(ASSINATURA);
+        saida.writeInt(codificador.nomes.size());
+        for (String nome : codificador.nomes) {
+            byte[] utf8 = nome.getBytes(StandardCharsets.UTF_8);
+            saida.writeInt(utf8.length);
+            saida.write(utf8);
+        }
+        saida.writeInt(programa.size());
+        codificador.nos.writeTo(saida);
+        saida.flush();
+        return bytes.toByteArray();
+    }
+
+    static List<Stmt> decodificar(byte[] conteudo) throws IOException {
+        DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(conteudo));
+        if (entrada.readInt() != ASSINATURA) throw new IOException("Assinatura inválida no cache de AST");
+        String[] nomes = new String[entrada.readInt()];
+        for (int i = 0; i < nomes.length; i++) {
+            byte[] utf8 = new byte[entrada.readInt()];
+            entrada.readFully(utf8);
+            nomes[i] = new String(utf8, StandardCharsets.UTF_8);
+        }
+        int comandos = entrada.readInt();
+
+        List<Object> pilha = new ArrayList<>();
+        while (entrada.available() > 0) {
+            switch (TIPOS[entrada.readUnsignedByte()]) {
+                case LITERAL: {
+                    int tipo = entrada.readUnsignedByte();
+                    Object valor = tipo == LITERAL_INTEIRO ? (Object) entrada.readInt()
+                            : tipo == LITERAL_REAL ? (Object) entrada.readDouble()
+                            : nomes[entrada.readInt()];
+                    pilha.add(new Expr.Literal(valor));
+                    break;
+                }
+                case VARIAVEL:
+                    pilha.add(new Expr.Variable(nomes[entrada.readInt()], entrada.readInt()));
+                    break;
+                case AGRUPAMENTO:
+                    pilha.add(new Expr.Grouping(desempilhar(pilha)));
+                    break;
+                case UNARIO:
+                    pilha.add(new Expr.Unary(UNARIOS[entrada.readUnsignedByte()], desempilhar(pilha)));
+                    break;
+                case CONVERSAO: {
+                    Expr.Tipo tipo = TIPOS_ESTATICOS[entrada.readUnsignedByte()];
+                    pilha.add(new Expr.Conversion(desempilhar(pilha), tipo));
+                    break;
+                }
+                case BINARIO: {
+                    Expr.BinaryOp operador = BINARIOS[entrada.readUnsignedByte()];
+                    Expr direita = desempilhar(pilha);
+                    pilha.add(new Expr.Binary(desempilhar(pilha), operador, direita));
+                    break;
+                }
+                case LOGICO: {
+                    Expr.LogicalOp operador = LOGICOS[entrada.readUnsignedByte()];
+                    Expr direita = desempilhar(pilha);
+                    pilha.add(new Expr.Logical(desempilhar(pilha), operador, direita));
+                    break;
+                }
+                case ATRIBUICAO: {
+                    Expr valor = desempilhar(pilha);
+                    pilha.add(new Expr.Assign((Expr.Variable) desempilhar(pilha), valor));
+                    break;
+                }
+                case DECLARACAO: {
+                    String tipo = nomes[entrada.readInt()];
+                    String nome = nomes[entrada.readInt()];
+                    int simbolo = entrada.readInt();
+                    Expr inicializacao = entrada.readBoolean() ? desempilhar(pilha) : null;
+                    pilha.add(new Stmt.Var(tipo, nome, simbolo, inicializacao));
+                    break;
+                }
+                case EXPRESSAO:
+                    pilha.add(new Stmt.ExprStmt(desempilhar(pilha)));
+                    break;
+                case PRINT:
+                    pilha.add(new Stmt.Print(desempilhar(pilha)));
+                    break;
+                case READ:
+                    pilha.add(new Stmt.Read(nomes[entrada.readInt()], entrada.readInt()));
+                    break;
+                case BLOCO: {
+                    int quantidade = entrada.readInt();
+                    List<Object> filhos = pilha.subList(pilha.size() - quantidade, pilha.size());
+                    List<Stmt> corpo = new ArrayList<>(quantidade);
+                    for (Object filho : filhos) corpo.add((Stmt) filho);
+                    filhos.clear();
+                    pilha.add(new Stmt.Block(corpo));
+                    break;
+                }
+                case IF: {
+                    Stmt senao = entrada.readBoolean() ? desempilhar(pilha) : null;
+                    Stmt entao = desempilhar(pilha);
+                    pilha.add(new Stmt.If(desempilhar(pilha), entao, senao));
+                    break;
+                }
+                case WHILE: {
+                    Stmt corpo = desempilhar(pilha);
+                    pilha.add(new Stmt.While(desempilhar(pilha), corpo));
+                    break;
+                }
+            }
+        }
+        if (pilha.size() != comandos) throw new IOException("Cache de AST incompleto");
+        List<Stmt> programa = new ArrayList<>(comandos);
+        for (Object comando : pilha) programa.add((Stmt) comando);
+        return programa;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T desempilhar(List<Object> pilha) {
+        return (T) pilha.remove(pilha.size() - 1);
+    }
+
+    // Escreve os nós em pós-ordem: os filhos são agendados antes do próprio
+    // nó na etapa 1.
+    private static class Codificador implements Stmt.Visitor<Void>, Expr.Visitor<Void> {
+        private final PilhaDeVisita pilha = new PilhaDeVisita();
+        private final ByteArrayOutputStream nos = new ByteArrayOutputStream();
+        private final DataOutputStream saida = new DataOutputStream(nos);
+        private final List<String> nomes = new ArrayList<>();
+        private final Map<String, Integer> indices = new HashMap<>();
+
+        private boolean escrevendo(Object no, Object... filhos) {
+            if (pilha.etapa() == 1) return true;
+            for (Object filho : filhos) {
+                if (filho != null) pilha.agendar(filho);
+            }
+            pilha.agendar(no, 1);
+            return false;
+        }
+
+        private void etiqueta(AstPlana.TipoNo tipo) {
+            escrever(tipo.ordinal(), 1);
+        }
+
+        private void nome(String nome) {
+            Integer indice = indices.get(nome);
+            if (indice == null) {
+                indice = nomes.size();
+                nomes.add(nome);
+                indices.put(nome, indice);
+            }
+            escrever(indice, 4);
+        }
+
+        private void escrever(int valor, int bytes) {
+            try {
+                if (bytes == 1) saida.writeByte(valor);
+                else saida.writeInt(valor);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Void visitVar(Stmt.Var stmt) {
+            if (!escrevendo(stmt, stmt.initializer)) return null;
+            etiqueta(AstPlana.TipoNo.DECLARACAO);
+            nome(stmt.typeKeyword);
+            nome(stmt.name);
+            escrever(stmt.simbolo, 4);
+            escrever(stmt.initializer != null ? 1 : 0, 1);
+            return null;
+        }
+
+        @Override
+        public Void visitExprStmt(Stmt.ExprStmt stmt) {
+            if (escrevendo(stmt, stmt.expression)) etiqueta(AstPlana.TipoNo.EXPRESSAO);
+            return null;
+        }
+
+        @Override
+        public Void visitPrint(Stmt.Print stmt) {
+            if (escrevendo(stmt, stmt.expression)) etiqueta(AstPlana.TipoNo.PRINT);
+            return null;
+        }
+
+        @Override
+        public Void visitRead(Stmt.Read stmt) {
+            etiqueta(AstPlana.TipoNo.READ);
+            nome(stmt.name);
+            escrever(stmt.simbolo, 4);
+            return null;
+        }
+
+        @Override
+        public Void visitBlock(Stmt.Block stmt) {
+            if (!escrevendo(stmt, stmt.statements.toArray())) return null;
+            etiqueta(AstPlana.TipoNo.BLOCO);
+            escrever(stmt.statements.size(), 4);
+            return null;
+        }
+
+        @Override
+        public Void visitIf(Stmt.If stmt) {
+            if (!escrevendo(stmt, stmt.condition, stmt.thenBranch, stmt.elseBranch)) return null;
+            etiqueta(AstPlana.TipoNo.IF);
+            escrever(stmt.elseBranch != null ? 1 : 0, 1);
+            return null;
+        }
+
+        @Override
+        public Void visitWhile(Stmt.While stmt) {
+            if (escrevendo(stmt, stmt.condition, stmt.body)) etiqueta(AstPlana.TipoNo.WHILE);
+            return null;
+        }
+
+        @Override
+        public Void visitLiteral(Expr.Literal expr) {
+            etiqueta(AstPlana.TipoNo.LITERAL);
+            try {
+                if (expr.value instanceof Integer) {
+                    saida.writeByte(LITERAL_INTEIRO);
+                    saida.writeInt((Integer) expr.value);
+                } else if (expr.value instanceof Double) {
+                    saida.writeByte(LITERAL_REAL);
+                    saida.writeDouble((Double) expr.value);
+                } else if (expr.value instanceof String) {
+                    saida.writeByte(LITERAL_TEXTO);
+                    nome((String) expr.value);
+                } else {
+                    throw new IllegalArgumentException("Literal sem representação no cache: " + expr.value);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitVariable(Expr.Variable expr) {
+            etiqueta(AstPlana.TipoNo.VARIAVEL);
+            nome(expr.name);
+            escrever(expr.simbolo, 4);
+            return null;
+        }
+
+        @Override
+        public Void visitGrouping(Expr.Grouping expr) {
+            if (escrevendo(expr, expr.expression)) etiqueta(AstPlana.TipoNo.AGRUPAMENTO);
+            return null;
+        }
+
+        @Override
+        public Void visitUnary(Expr.Unary expr) {
+            if (!escrevendo(expr, expr.right)) return null;
+            etiqueta(AstPlana.TipoNo.UNARIO);
+            escrever(expr.operator.ordinal(), 1);
+            return null;
+        }
+
+        @Override
+        public Void visitConversion(Expr.Conversion expr) {
+            if (!escrevendo(expr, expr.expression)) return null;
+            etiqueta(AstPlana.TipoNo.CONVERSAO);
+            escrever(expr.tipo.ordinal(), 1);
+            return null;
+        }
+
+        @Override
+        public Void visitBinary(Expr.Binary expr) {
+            if (!escrevendo(expr, expr.left, expr.right)) return null;
+            etiqueta(AstPlana.TipoNo.BINARIO);
+            escrever(expr.operator.ordinal(), 1);
+            return null;
+        }
+
+        @Override
+        public Void visitLogical(Expr.Logical expr) {
+            if (!escrevendo(expr, expr.left, expr.right)) return null;
+            etiqueta(AstPlana.TipoNo.LOGICO);
+            escrever(expr.operator.ordinal(), 1);
+            return null;
+        }
+
+        @Override
+        public Void visitAssign(Expr.Assign expr) {
+            if (escrevendo(expr, expr.target, expr.value)) etiqueta(AstPlana.TipoNo.ATRIBUICAO);
+            return null;
+        }
+    }
+}
@@ -8,6 +8,67 @@ public abstract class Expr {
         R visitUnary(Unary expr);
         R visitBinary(Binary expr);
         R visitLogical(Logical expr);
+        R visitAssign(Assign expr);
+        R visitConversion(Conversion expr);
+    }
+
+    public enum BinaryOp {
+        ADD("+"), SUBTRACT("-"), MULTIPLY("*"), DIVIDE("/"), MODULO("%"),
+        GREATER(">"), LESS("<"), GREATER_EQUAL(">="), LESS_EQUAL("<="),
+        EQUAL("=="), NOT_EQUAL("!=");
+
+        public final String symbol;
+        BinaryOp(String symbol) { this.symbol = symbol; }
+    }
+
+    public enum UnaryOp {
+        NEGATE("-"), NOT("!");
+
+        public final String symbol;
+        UnaryOp(String symbol) { this.symbol = symbol; }
+    }
+
+    public enum LogicalOp {
+        OR("||"), AND("&&");
+
+        public final String symbol;
+        LogicalOp(String symbol) { this.symbol = symbol; }
+    }
+
+    // BOOLEAN não tem palavra-chave: é o tipo das comparações e dos operadores
+    // lógicos.
+    public enum Tipo {
+        INT("int"), REAL("real"), STRING("string"), BOOLEAN("lógico");
+
+        public final String nome;
+        Tipo(String nome) { this.nome = nome; }
+
+        public static Tipo daPalavraChave(String palavraChave) {
+            switch (palavraChave) {
+                case "int": return INT;
+                case "real": return REAL;
+                case "string": return STRING;
+                default: throw new IllegalArgumentException("Tipo desconhecido: " + palavraChave);
+            }
+        }
+
+        public boolean numerico() {
+            return this == INT || this == REAL;
+        }
+    }
+
+    // Tipo estático, preenchido pelo VerificadorDeTipos nos nós da árvore
+    // tipada; null na árvore que sai do Parser.
+    public Tipo tipo;
+
+    // Hash estrutural guardado pela FabricaDeExpr que compartilha nós; 0 se o
+    // nó não é compartilhado.
+    int hashEstrutural;
+
+    // Nós compartilhados são canônicos: duas subexpressões sem efeitos
+    // colaterais com a mesma estrutura são o mesmo objeto.
+    public boolean compartilhado() {
+        return hashEstrutural != 0;
     }
 
     public abstract <R> R accept(Visitor<R> visitor);
@@ -20,7 +81,10 @@ public abstract class Expr {
 
     public static class Variable extends Expr {
         public final String name;
-        public Variable(String name) { this.name = name; }
+        public final int simbolo;
+        // Posição no quadro de variáveis, preenchida pelo Resolvedor.
+        public int slot = -1;
+        public Variable(String name, int simbolo) { this.name = name; this.simbolo = simbolo; }
         public <R> R accept(Visitor<R> visitor) { return visitor.visitVariable(this); }
     }
 
@@ -31,25 +95,40 @@ public abstract class Expr {
     }
 
     public static class Unary extends Expr {
-        public final String operator;
+        public final UnaryOp operator;
         public final Expr right;
-        public Unary(String operator, Expr right) { this.operator = operator; this.right = right; }
+        public Unary(UnaryOp operator, Expr right) { this.operator = operator; this.right = right; }
         public <R> R accept(Visitor<R> visitor) { return visitor.visitUnary(this); }
     }
 
     public static class Binary extends Expr {
         public final Expr left;
-        public final String operator;
+        public final BinaryOp operator;
         public final Expr right;
-        public Binary(Expr left, String operator, Expr right) { this.left = left; this.operator = operator; this.right = right; }
+        public Binary(Expr left, BinaryOp operator, Expr right) { this.left = left; this.operator = operator; this.right = right; }
         public <R> R accept(Visitor<R> visitor) { return visitor.visitBinary(this); }
     }
 
     public static class Logical extends Expr {
         public final Expr left;
-        public final String operator;
+        public final LogicalOp operator;
         public final Expr right;
-        public Logical(Expr left, String operator, Expr right) { this.left = left; this.operator = operator; this.right = right; }
+        public Logical(Expr left, LogicalOp operator, Expr right) { this.left = left; this.operator = operator; this.right = right; }
         public <R> R accept(Visitor<R> visitor) { return visitor.visitLogical(this); }
     }
-}
\ No newline at end of file
+
+    public static class Assign extends Expr {
+        public final Variable target;
+        public final Expr value;
+        public Assign(Variable target, Expr value) { this.target = target; this.value = value; }
+        public <R> R accept(Visitor<R> visitor) { return visitor.visitAssign(this); }
+    }
+
+    // Conversão explícita inserida pelo VerificadorDeTipos (hoje só int para
+    // real).
+    public static class Conversion extends Expr {
+        public final Expr expression;
+        public Conversion(Expr expression, Tipo tipo) { this.expression = expression; this.tipo = tipo; }
+        public <R> R accept(Visitor<R> visitor) { return visitor.visitConversion(this); }
+    }
+}
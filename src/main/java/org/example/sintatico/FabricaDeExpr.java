@@ -0,0 +1,146 @@
+package org.example.sintatico;
+
+// Onde o Parser cria os nós de expressão. A fábrica padrão só instancia; a
+// de compartilhamento (hash-consing) devolve um único nó para subexpressões
+// estruturalmente iguais e sem efeitos colaterais, como os vários
+// 'altura * altura' de um programa. Não é segura para uso entre threads.
+public class FabricaDeExpr {
+
+    public static final FabricaDeExpr PADRAO = new FabricaDeExpr();
+
+    public static FabricaDeExpr comCompartilhamento() {
+        return new Compartilhada();
+    }
+
+    public Expr literal(Object valor) {
+        return new Expr.Literal(valor);
+    }
+
+    public Expr variavel(String nome, int simbolo) {
+        return new Expr.Variable(nome, simbolo);
+    }
+
+    public Expr agrupamento(Expr expressao) {
+        return new Expr.Grouping(expressao);
+    }
+
+    public Expr unario(Expr.UnaryOp operador, Expr direita) {
+        return new Expr.Unary(operador, direita);
+    }
+
+    public Expr binario(Expr esquerda, Expr.BinaryOp operador, Expr direita) {
+        return new Expr.Binary(esquerda, operador, direita);
+    }
+
+    public Expr logico(Expr esquerda, Expr.LogicalOp operador, Expr direita) {
+        return new Expr.Logical(esquerda, operador, direita);
+    }
+
+    public Expr atribuicao(Expr.Variable alvo, Expr valor) {
+        return new Expr.Assign(alvo, valor);
+    }
+
+    // Como os filhos chegam já canônicos, igualdade estrutural é comparar o
+    // operador e a identidade dos filhos, e o hash sai dos hashes guardados
+    // neles. Um nó com filho não compartilhado (uma atribuição por baixo) não
+    // é compartilhado. A tabela é de endereçamento aberto com sondagem linear.
+    private static final class Compartilhada extends FabricaDeExpr {
+        private Expr[] tabela = new Expr[256];
+        private int quantidade = 0;
+
+        @Override
+        public Expr literal(Object valor) {
+            return canonico(super.literal(valor), 1, valor.getClass().hashCode() * 31 + valor.hashCode());
+        }
+
+        @Override
+        public Expr variavel(String nome, int simbolo) {
+            return canonico(super.variavel(nome, simbolo), 2, nome.hashCode() * 31 + simbolo);
+        }
+
+        @Override
+        public Expr agrupamento(Expr expressao) {
+            Expr no = super.agrupamento(expressao);
+            return expressao.compartilhado() ? canonico(no, 3, expressao.hashEstrutural) : no;
+        }
+
+        @Override
+        public Expr unario(Expr.UnaryOp operador, Expr direita) {
+            Expr no = super.unario(operador, direita);
+            return direita.compartilhado() ? canonico(no, 4 + operador.ordinal(), direita.hashEstrutural) : no;
+        }
+
+        @Override
+        public Expr binario(Expr esquerda, Expr.BinaryOp operador, Expr direita) {
+            Expr no = super.binario(esquerda, operador, direita);
+            if (!esquerda.compartilhado() || !direita.compartilhado()) return no;
+            return canonico(no, 8 + operador.ordinal(), esquerda.hashEstrutural * 31 + direita.hashEstrutural);
+        }
+
+        @Override
+        public Expr logico(Expr esquerda, Expr.LogicalOp operador, Expr direita) {
+            Expr no = super.logico(esquerda, operador, direita);
+            if (!esquerda.compartilhado() || !direita.compartilhado()) return no;
+            return canonico(no, 32 + operador.ordinal(), esquerda.hashEstrutural * 31 + direita.hashEstrutural);
+        }
+
+        private Expr canonico(Expr novo, int tipo, int conteudo) {
+            int hash = (tipo * 0x9E3779B9) ^ conteudo;
+            hash ^= hash >>> 16;
+            if (hash == 0) hash = 1;
+
+            int mascara = tabela.length - 1;
+            for (int i = hash & mascara; tabela[i] != null; i = (i + 1) & mascara) {
+                Expr existente = tabela[i];
+                if (existente.hashEstrutural == hash && igual(existente, novo)) return existente;
+            }
+            novo.hashEstrutural = hash;
+            if (++quantidade * 2 > tabela.length) crescer();
+            inserir(tabela, novo);
+            return novo;
+        }
+
+        private void crescer() {
+            Expr[] nova = new Expr[tabela.length * 2];
+            for (Expr no : tabela) {
+                if (no != null) inserir(nova, no);
+            }
+            tabela = nova;
+        }
+
+        private static void inserir(Expr[] tabela, Expr no) {
+            int mascara = tabela.length - 1;
+            int i = no.hashEstrutural & mascara;
+            while (tabela[i] != null) i = (i + 1) & mascara;
+            tabela[i] = no;
+        }
+
+        private static boolean igual(Expr a, Expr b) {
+            if (a.getClass() != b.getClass()) return false;
+            if (a instanceof Expr.Literal) {
+                return ((Expr.Literal) a).value.equals(((Expr.Literal) b).value);
+            }
+            if (a instanceof Expr.Variable) {
+                Expr.Variable x = (Expr.Variable) a;
+                Expr.Variable y = (Expr.Variable) b;
+                return x.simbolo == y.simbolo && x.name.equals(y.name);
+            }
+            if (a instanceof Expr.Grouping) {
+                return ((Expr.Grouping) a).expression == ((Expr.Grouping) b).expression;
+            }
+            if (a instanceof Expr.Unary) {
+                Expr.Unary x = (Expr.Unary) a;
+                Expr.Unary y = (Expr.Unary) b;
+                return x.operator == y.operator && x.right == y.right;
+            }
+            if (a instanceof Expr.Binary) {
+                Expr.Binary x = (Expr.Binary) a;
+                Expr.Binary y = (Expr.Binary) b;
+                return x.operator == y.operator && x.left == y.left && x.right == y.right;
+            }
+            Expr.Logical x = (Expr.Logical) a;
+            Expr.Logical y = (Expr.Logical) b;
+            return x.operator == y.operator && x.left == y.left && x.right == y.right;
+        }
+    }
+}
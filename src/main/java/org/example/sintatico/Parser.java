@@ -2,36 +2,316 @@ package org.example.sintatico;
 
 import org.example.lexico.AnalisadorLexico.Token;
 import org.example.lexico.AnalisadorLexico.TipoToken;
+import org.example.lexico.BufferDeTokens;
+import org.example.lexico.CursorDeTokens;
+import org.example.lexico.Operador;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class Parser {
-    private final List<Token> tokens;
-    private int posicaoAtual = 0;
+    // Força de ligação de cada operador binário, indexada pelo ordinal.
+    private static final Operador[] OPERADORES = Operador.values();
+    private static final int[] FORCA = new int[OPERADORES.length];
+    private static final int FORCA_UNARIO = 8;
+    private static final Expr.BinaryOp[] BINARIO = new Expr.BinaryOp[OPERADORES.length];
+
+    static {
+        FORCA[Operador.ATRIBUICAO.ordinal()] = 1;
+        FORCA[Operador.OU.ordinal()] = 2;
+        FORCA[Operador.E.ordinal()] = 3;
+        FORCA[Operador.IGUAL.ordinal()] = 4;
+        FORCA[Operador.DIFERENTE.ordinal()] = 4;
+        FORCA[Operador.MAIOR.ordinal()] = 5;
+        FORCA[Operador.MENOR.ordinal()] = 5;
+        FORCA[Operador.MAIOR_IGUAL.ordinal()] = 5;
+        FORCA[Operador.MENOR_IGUAL.ordinal()] = 5;
+        FORCA[Operador.SOMA.ordinal()] = 6;
+        FORCA[Operador.SUBTRACAO.ordinal()] = 6;
+        FORCA[Operador.MULTIPLICACAO.ordinal()] = 7;
+        FORCA[Operador.DIVISAO.ordinal()] = 7;
+        FORCA[Operador.RESTO.ordinal()] = 7;
+
+        BINARIO[Operador.IGUAL.ordinal()] = Expr.BinaryOp.EQUAL;
+        BINARIO[Operador.DIFERENTE.ordinal()] = Expr.BinaryOp.NOT_EQUAL;
+        BINARIO[Operador.MAIOR.ordinal()] = Expr.BinaryOp.GREATER;
+        BINARIO[Operador.MENOR.ordinal()] = Expr.BinaryOp.LESS;
+        BINARIO[Operador.MAIOR_IGUAL.ordinal()] = Expr.BinaryOp.GREATER_EQUAL;
+        BINARIO[Operador.MENOR_IGUAL.ordinal()] = Expr.BinaryOp.LESS_EQUAL;
+        BINARIO[Operador.SOMA.ordinal()] = Expr.BinaryOp.ADD;
+        BINARIO[Operador.SUBTRACAO.ordinal()] = Expr.BinaryOp.SUBTRACT;
+        BINARIO[Operador.MULTIPLICACAO.ordinal()] = Expr.BinaryOp.MULTIPLY;
+        BINARIO[Operador.DIVISAO.ordinal()] = Expr.BinaryOp.DIVIDE;
+        BINARIO[Operador.RESTO.ordinal()] = Expr.BinaryOp.MODULO;
+    }
+
+    private final CursorDeTokens tokens;
+    private final FabricaDeExpr fabrica;
 
     public Parser(List<Token> tokens) {
+        this(CursorDeTokens.de(tokens));
+    }
+
+    public Parser(CursorDeTokens tokens) {
+        this(tokens, FabricaDeExpr.PADRAO);
+    }
+
+    public Parser(CursorDeTokens tokens, FabricaDeExpr fabrica) {
         this.tokens = tokens;
+        this.fabrica = fabrica;
     }
 
     public List<Stmt> analisar() {
         List<Stmt> declaracoes = new ArrayList<>();
-        while (!fimDoArquivo()) {
-            declaracoes.add(declaracao());
+        for (Stmt stmt = proximoComando(); stmt != null; stmt = proximoComando()) {
+            declaracoes.add(stmt);
         }
         return declaracoes;
     }
 
-    private Stmt declaracao() {
-        if (verificar(TipoToken.PC_INT) || verificar(TipoToken.PC_REAL) || 
-            verificar(TipoToken.PC_STRING)) {
+    // Analisa só o próximo comando do topo, ou devolve null no fim do arquivo;
+    // com um cursor sob demanda, o resto da fonte ainda nem foi lido.
+    //
+    // Comandos compostos ficam numa pilha de quadros em vez de na pilha de
+    // chamadas: 'iniciar' abre um if, while ou bloco empilhando um quadro, e
+    // cada comando pronto é entregue ao quadro do topo, que pode se fechar e
+    // repassar o comando montado ao de baixo.
+    //
+    // Num erro o cursor é fechado: quem só chamou analisar() não tem como
+    // saber que o resto da fonte não será mais lido.
+    public Stmt proximoComando() {
+        try {
+            return analisarProximoComando();
+        } catch (RuntimeException e) {
+            tokens.close();
+            throw e;
+        }
+    }
+
+    private Stmt analisarProximoComando() {
+        List<Quadro> abertos = new ArrayList<>();
+        while (true) {
+            Quadro topo = abertos.isEmpty() ? null : abertos.get(abertos.size() - 1);
+            Stmt pronto;
+            if (topo == null) {
+                if (fimDoArquivo()) return null;
+                pronto = iniciar(abertos, true);
+            } else if (topo instanceof QuadroBloco) {
+                if (verificarDelimitador("}") || fimDoArquivo()) {
+                    consumirDelimitador("}");
+                    abertos.remove(abertos.size() - 1);
+                    pronto = new Stmt.Block(((QuadroBloco) topo).comandos);
+                } else {
+                    pronto = iniciar(abertos, true);
+                }
+            } else {
+                pronto = iniciar(abertos, false);
+            }
+
+            while (pronto != null) {
+                topo = abertos.isEmpty() ? null : abertos.get(abertos.size() - 1);
+                if (topo == null) {
+                    return pronto;
+                } else if (topo instanceof QuadroBloco) {
+                    ((QuadroBloco) topo).comandos.add(pronto);
+                    pronto = null;
+                } else if (topo instanceof QuadroWhile) {
+                    abertos.remove(abertos.size() - 1);
+                    pronto = new Stmt.While(((QuadroWhile) topo).condicao, pronto);
+                } else {
+                    QuadroIf quadroIf = (QuadroIf) topo;
+                    if (quadroIf.entao == null && verificar(TipoToken.PC_ELSE)) {
+                        consumir();
+                        quadroIf.entao = pronto;
+                        pronto = null;
+                    } else {
+                        abertos.remove(abertos.size() - 1);
+                        pronto = quadroIf.entao == null
+                                ? new Stmt.If(quadroIf.condicao, pronto, null)
+                                : new Stmt.If(quadroIf.condicao, quadroIf.entao, pronto);
+                    }
+                }
+            }
+        }
+    }
+
+    // Monta a AST plana direto, sem a árvore do programa: o mesmo laço de
+    // quadros, mas cada if, while ou bloco é aberto na AST assim que começa,
+    // e a pilha guarda só o índice do nó, cujo fim é ajustado quando ele
+    // fecha. Comandos simples e condições são lidos como objetos e logo
+    // acrescentados, então no pico só um deles existe além dos vetores.
+    public AstPlana analisarPlano() {
+        try {
+            return construirPlano();
+        } catch (RuntimeException e) {
+            tokens.close();
+            throw e;
+        }
+    }
+
+    private AstPlana construirPlano() {
+        AstPlana.Construtor construtor = new AstPlana.Construtor();
+        AstPlana ast = construtor.ast;
+        int[] abertos = new int[16];
+        int quantidade = 0;
+        while (true) {
+            int topo = quantidade == 0 ? -1 : abertos[quantidade - 1];
+            if (topo < 0 && fimDoArquivo()) return ast;
+            if (topo >= 0 && ast.tipo(topo) == AstPlana.TipoNo.BLOCO
+                    && (verificarDelimitador("}") || fimDoArquivo())) {
+                consumirDelimitador("}");
+                construtor.fechar(topo);
+                quantidade--;
+            } else {
+                boolean permiteDeclaracao = topo < 0 || ast.tipo(topo) == AstPlana.TipoNo.BLOCO;
+                int aberto = iniciarPlano(construtor, permiteDeclaracao);
+                if (aberto >= 0) {
+                    if (quantidade == abertos.length) abertos = Arrays.copyOf(abertos, quantidade * 2);
+                    abertos[quantidade++] = aberto;
+                    continue;
+                }
+            }
+
+            // Um comando acabou de terminar no fim da AST: fecha os while e if
+            // que ele completa. O then de um if é o segundo filho; se ele
+            // termina aqui, o comando era o then e ainda pode vir um else.
+            while (quantidade > 0) {
+                topo = abertos[quantidade - 1];
+                AstPlana.TipoNo tipo = ast.tipo(topo);
+                if (tipo == AstPlana.TipoNo.BLOCO) break;
+                if (tipo == AstPlana.TipoNo.IF && ast.fim(ast.fim(topo + 1)) == ast.tamanho()
+                        && verificar(TipoToken.PC_ELSE)) {
+                    consumir();
+                    break;
+                }
+                construtor.fechar(topo);
+                quantidade--;
+            }
+        }
+    }
+
+    // Como iniciar, mas abre o composto na AST e devolve o índice dele, ou
+    // acrescenta o comando simples e devolve -1.
+    private int iniciarPlano(AstPlana.Construtor construtor, boolean permiteDeclaracao) {
+        AstPlana.TipoNo composto = verificar(TipoToken.PC_IF) ? AstPlana.TipoNo.IF
+                : verificar(TipoToken.PC_WHILE) ? AstPlana.TipoNo.WHILE
+                : verificarDelimitador("{") ? AstPlana.TipoNo.BLOCO
+                : null;
+        if (composto == null) {
+            construtor.acrescentar(comandoSimples(permiteDeclaracao));
+            return -1;
+        }
+        consumir();
+        int no = construtor.abrir(composto);
+        if (composto != AstPlana.TipoNo.BLOCO) construtor.acrescentar(condicao());
+        return no;
+    }
+
+    // Índices dos tokens onde começa cada comando do topo, terminando no
+    // índice do EOF. Um comando do topo acaba num ';' ou '}' fora de chaves,
+    // a não ser que o próximo token seja um else do mesmo if. Expressões não
+    // contêm ';' nem chaves, então num programa válido cada trecho é
+    // exatamente um comando.
+    static int[] fronteiras(BufferDeTokens tokens) {
+        int fim = tokens.tamanho() - 1;
+        int[] inicios = new int[16];
+        int quantidade = 1;
+        int profundidade = 0;
+        for (int i = 0; i < fim; i++) {
+            if (tokens.tipo(i) != TipoToken.DELIM) continue;
+            if (tokens.lexemaIgual(i, "{")) {
+                profundidade++;
+                continue;
+            }
+            boolean fecha = tokens.lexemaIgual(i, "}");
+            if (fecha) profundidade--;
+            if (profundidade != 0 || !(fecha || tokens.lexemaIgual(i, ";"))) continue;
+            if (tokens.tipo(i + 1) == TipoToken.PC_ELSE) continue;
+            if (quantidade == inicios.length) inicios = Arrays.copyOf(inicios, quantidade * 2);
+            inicios[quantidade++] = i + 1;
+        }
+        if (inicios[quantidade - 1] != fim) {
+            if (quantidade == inicios.length) inicios = Arrays.copyOf(inicios, quantidade + 1);
+            inicios[quantidade++] = fim;
+        }
+        return Arrays.copyOf(inicios, quantidade);
+    }
+
+    // Analisa os tokens [de, ate) como um único comando do topo.
+    static Stmt analisarComando(BufferDeTokens tokens, int de, int ate) {
+        List<Stmt> comandos = new Parser(tokens.cursor(de, ate)).analisar();
+        if (comandos.size() != 1) {
+            throw new RuntimeException("Esperado um único comando entre os tokens " + de + " e " + ate);
+        }
+        return comandos.get(0);
+    }
+
+    // Lê um comando simples e o devolve, ou abre um composto e devolve null.
+    // Declarações só valem no topo do programa e dentro de blocos.
+    private Stmt iniciar(List<Quadro> abertos, boolean permiteDeclaracao) {
+        if (verificar(TipoToken.PC_IF)) {
+            consumir(TipoToken.PC_IF, "Esperado 'if'");
+            abertos.add(new QuadroIf(condicao()));
+            return null;
+        }
+        if (verificar(TipoToken.PC_WHILE)) {
+            consumir(TipoToken.PC_WHILE, "Esperado 'while'");
+            abertos.add(new QuadroWhile(condicao()));
+            return null;
+        }
+        if (verificarDelimitador("{")) {
+            consumirDelimitador("{");
+            abertos.add(new QuadroBloco());
+            return null;
+        }
+        return comandoSimples(permiteDeclaracao);
+    }
+
+    private Stmt comandoSimples(boolean permiteDeclaracao) {
+        if (permiteDeclaracao && (verificar(TipoToken.PC_INT) || verificar(TipoToken.PC_REAL) ||
+            verificar(TipoToken.PC_STRING))) {
             return declaracaoVariavel();
         }
-        return comando();
+        if (verificar(TipoToken.PC_PRINT)) return comandoPrint();
+        if (verificar(TipoToken.PC_READ)) return comandoRead();
+        return comandoExpressao();
+    }
+
+    private abstract static class Quadro {
+    }
+
+    private static final class QuadroIf extends Quadro {
+        final Expr condicao;
+        Stmt entao;
+
+        QuadroIf(Expr condicao) {
+            this.condicao = condicao;
+        }
+    }
+
+    private static final class QuadroWhile extends Quadro {
+        final Expr condicao;
+
+        QuadroWhile(Expr condicao) {
+            this.condicao = condicao;
+        }
+    }
+
+    private static final class QuadroBloco extends Quadro {
+        final List<Stmt> comandos = new ArrayList<>();
+    }
+
+    private Expr condicao() {
+        consumirDelimitador("(");
+        Expr condicao = expressao();
+        consumirDelimitador(")");
+        return condicao;
     }
 
     private Stmt declaracaoVariavel() {
-        String tipo = consumir().lexema;
-        Token nome = consumir(TipoToken.ID, "Esperado nome de variável");
+        String tipo = consumirLexema();
+        int simbolo = tokens.simbolo();
+        String nome = consumir(TipoToken.ID, "Esperado nome de variável");
         
         Expr inicializacao = null;
         if (verificar(TipoToken.OP_ATRIB)) {
@@ -40,16 +320,7 @@ public class Parser {
         }
         
         consumirDelimitador(";");
-        return new Stmt.Var(tipo, nome.lexema, inicializacao);
-    }
-
-    private Stmt comando() {
-        if (verificar(TipoToken.PC_PRINT)) return comandoPrint();
-        if (verificar(TipoToken.PC_READ)) return comandoRead();
-        if (verificar(TipoToken.PC_IF)) return comandoIf();
-        if (verificar(TipoToken.PC_WHILE)) return comandoWhile();
-        if (verificarDelimitador("{")) return bloco();
-        return comandoExpressao();
+        return new Stmt.Var(tipo, nome, simbolo, inicializacao);
     }
 
     private Stmt comandoPrint() {
@@ -64,46 +335,11 @@ public class Parser {
     private Stmt comandoRead() {
         consumir(TipoToken.PC_READ, "Esperado 'read'");
         consumirDelimitador("(");
-        Token nome = consumir(TipoToken.ID, "Esperado nome de variável em read");
+        int simbolo = tokens.simbolo();
+        String nome = consumir(TipoToken.ID, "Esperado nome de variável em read");
         consumirDelimitador(")");
         consumirDelimitador(";");
-        return new Stmt.Read(nome.lexema);
-    }
-
-    private Stmt comandoIf() {
-        consumir(TipoToken.PC_IF, "Esperado 'if'");
-        consumirDelimitador("(");
-        Expr condicao = expressao();
-        consumirDelimitador(")");
-        
-        Stmt ramoEntao = comando();
-        Stmt ramoSenao = null;
-        
-        if (verificar(TipoToken.PC_ELSE)) {
-            consumir();
-            ramoSenao = comando();
-        }
-        
-        return new Stmt.If(condicao, ramoEntao, ramoSenao);
-    }
-
-    private Stmt comandoWhile() {
-        consumir(TipoToken.PC_WHILE, "Esperado 'while'");
-        consumirDelimitador("(");
-        Expr condicao = expressao();
-        consumirDelimitador(")");
-        Stmt corpo = comando();
-        return new Stmt.While(condicao, corpo);
-    }
-
-    private Stmt.Block bloco() {
-        consumirDelimitador("{");
-        List<Stmt> comandos = new ArrayList<>();
-        while (!verificarDelimitador("}") && !fimDoArquivo()) {
-            comandos.add(declaracao());
-        }
-        consumirDelimitador("}");
-        return new Stmt.Block(comandos);
+        return new Stmt.Read(nome, simbolo);
     }
 
     private Stmt comandoExpressao() {
@@ -112,144 +348,125 @@ public class Parser {
         return new Stmt.ExprStmt(expr);
     }
 
-    private Expr expressao() {
-        return atribuicao();
-    }
+    private static final int UNARIO = -1;
+    private static final int PARENTESE = -2;
 
-    private Expr atribuicao() {
-        Expr expr = ouLogico();
-        
-        if (verificar(TipoToken.OP_ATRIB)) {
-            Token igual = consumir();
-            Expr valor = atribuicao();
-            
-            if (expr instanceof Expr.Variable) {
-                return new Expr.Binary(expr, igual.lexema, valor);
+    // Precedência por pilha de operadores (shunting-yard) sobre a mesma tabela
+    // de forças. Um operador que chega reduz os do topo com força maior, ou
+    // igual se ele for associativo à esquerda; a atribuição, à direita, só
+    // reduz os mais fortes. '(' e o menos unário também vão para a pilha, então
+    // o aninhamento não consome a pilha de chamadas.
+    private Expr expressao() {
+        List<Expr> operandos = new ArrayList<>();
+        int[] operadores = new int[16];
+        int topo = 0;
+        int parentesesAbertos = 0;
+        boolean esperaOperando = true;
+
+        while (true) {
+            if (topo == operadores.length) operadores = Arrays.copyOf(operadores, topo * 2);
+
+            if (esperaOperando) {
+                if (tokens.operador() == Operador.SUBTRACAO) {
+                    consumir();
+                    operadores[topo++] = UNARIO;
+                } else if (verificarDelimitador("(")) {
+                    consumir();
+                    operadores[topo++] = PARENTESE;
+                    parentesesAbertos++;
+                } else {
+                    operandos.add(primario());
+                    esperaOperando = false;
+                }
+                continue;
             }
-            throw new RuntimeException("Alvo de atribuição inválido");
-        }
-        
-        return expr;
-    }
 
-    private Expr ouLogico() {
-        Expr expr = eLogico();
-        
-        while (verificar(TipoToken.OP_LOGICO) && verificarLexemaAtual("||")) {
-            Token operador = consumir();
-            Expr direita = eLogico();
-            expr = new Expr.Logical(expr, operador.lexema, direita);
-        }
-        
-        return expr;
-    }
-
-    private Expr eLogico() {
-        Expr expr = igualdade();
-        
-        while (verificar(TipoToken.OP_LOGICO) && verificarLexemaAtual("&&")) {
-            Token operador = consumir();
-            Expr direita = igualdade();
-            expr = new Expr.Logical(expr, operador.lexema, direita);
-        }
-        
-        return expr;
-    }
-
-    private Expr igualdade() {
-        Expr expr = comparacao();
-        
-        while (verificar(TipoToken.OP_REL) && 
-               (verificarLexemaAtual("==") || verificarLexemaAtual("!="))) {
-            Token operador = consumir();
-            Expr direita = comparacao();
-            expr = new Expr.Binary(expr, operador.lexema, direita);
+            Operador operador = tokens.operador();
+            if (operador != null) {
+                int forca = FORCA[operador.ordinal()];
+                while (topo > 0 && operadores[topo - 1] != PARENTESE) {
+                    int forcaDoTopo = forca(operadores[topo - 1]);
+                    if (forcaDoTopo < forca || (forcaDoTopo == forca && operador == Operador.ATRIBUICAO)) break;
+                    reduzir(operandos, operadores[--topo]);
+                }
+                if (operador == Operador.ATRIBUICAO && !(operandos.get(operandos.size() - 1) instanceof Expr.Variable)) {
+                    throw new RuntimeException("Alvo de atribuição inválido");
+                }
+                consumir();
+                operadores[topo++] = operador.ordinal();
+                esperaOperando = true;
+            } else if (parentesesAbertos > 0 && verificarDelimitador(")")) {
+                while (operadores[topo - 1] != PARENTESE) reduzir(operandos, operadores[--topo]);
+                topo--;
+                parentesesAbertos--;
+                consumir();
+                operandos.add(fabrica.agrupamento(operandos.remove(operandos.size() - 1)));
+            } else {
+                break;
+            }
         }
-        
-        return expr;
-    }
 
-    private Expr comparacao() {
-        Expr expr = termo();
-        
-        while (verificar(TipoToken.OP_REL) && 
-               (verificarLexemaAtual(">") || verificarLexemaAtual("<") || 
-                verificarLexemaAtual(">=") || verificarLexemaAtual("<="))) {
-            Token operador = consumir();
-            Expr direita = termo();
-            expr = new Expr.Binary(expr, operador.lexema, direita);
-        }
-        
-        return expr;
+        if (parentesesAbertos > 0) throw new RuntimeException("Esperado delimitador: )");
+        while (topo > 0) reduzir(operandos, operadores[--topo]);
+        return operandos.get(0);
     }
 
-    private Expr termo() {
-        Expr expr = fator();
-        
-        while (verificar(TipoToken.OP_ARIT) && 
-               (verificarLexemaAtual("+") || verificarLexemaAtual("-"))) {
-            Token operador = consumir();
-            Expr direita = fator();
-            expr = new Expr.Binary(expr, operador.lexema, direita);
-        }
-        
-        return expr;
+    private static int forca(int operador) {
+        return operador == UNARIO ? FORCA_UNARIO : FORCA[operador];
     }
 
-    private Expr fator() {
-        Expr expr = unario();
-        
-        while (verificar(TipoToken.OP_ARIT) && 
-               (verificarLexemaAtual("*") || verificarLexemaAtual("/") || 
-                verificarLexemaAtual("%"))) {
-            Token operador = consumir();
-            Expr direita = unario();
-            expr = new Expr.Binary(expr, operador.lexema, direita);
+    private void reduzir(List<Expr> operandos, int operador) {
+        Expr direita = operandos.remove(operandos.size() - 1);
+        if (operador == UNARIO) {
+            operandos.add(fabrica.unario(Expr.UnaryOp.NEGATE, direita));
+            return;
         }
-        
-        return expr;
-    }
-
-    private Expr unario() {
-        if (verificar(TipoToken.OP_ARIT) && verificarLexemaAtual("-")) {
-            Token operador = consumir();
-            Expr direita = unario();
-            return new Expr.Unary(operador.lexema, direita);
+        Expr esquerda = operandos.remove(operandos.size() - 1);
+        switch (OPERADORES[operador]) {
+            case ATRIBUICAO:
+                operandos.add(fabrica.atribuicao((Expr.Variable) esquerda, direita));
+                break;
+            case OU:
+                operandos.add(fabrica.logico(esquerda, Expr.LogicalOp.OR, direita));
+                break;
+            case E:
+                operandos.add(fabrica.logico(esquerda, Expr.LogicalOp.AND, direita));
+                break;
+            default:
+                operandos.add(fabrica.binario(esquerda, BINARIO[operador], direita));
         }
-        return primario();
     }
 
-private Expr primario() {
+    private Expr primario() {
         if (verificar(TipoToken.NUM_INT)) {
-            String texto = consumir().lexema;
-            return new Expr.Literal(Integer.parseInt(texto));
+            long valor = tokens.valorInteiro();
+            if (valor > Integer.MAX_VALUE) {
+                throw new RuntimeException("Literal inteiro fora do intervalo de int: " + tokens.lexema());
+            }
+            consumir();
+            return fabrica.literal((int) valor);
         }
 
         if (verificar(TipoToken.NUM_REAL)) {
-            String texto = consumir().lexema;
-            return new Expr.Literal(Double.parseDouble(texto));
+            double valor = tokens.valorReal();
+            consumir();
+            return fabrica.literal(valor);
         }
 
         if (verificar(TipoToken.TEXTO_STRING)) {
-            return new Expr.Literal(consumir().lexema);
+            return fabrica.literal(consumirLexema());
         }
         
         if (verificar(TipoToken.ID)) {
-            return new Expr.Variable(consumir().lexema);
+            int simbolo = tokens.simbolo();
+            return fabrica.variavel(consumirLexema(), simbolo);
         }
         
-        if (verificarDelimitador("(")) {
-            consumirDelimitador("(");
-            Expr expr = expressao();
-            consumirDelimitador(")");
-            return new Expr.Grouping(expr);
-        }
-        
-        throw new RuntimeException("Expressão inesperada: " + atual().tipo);
+        throw new RuntimeException("Expressão inesperada: " + tokens.tipo());
     }
 
-    private Token consumir(TipoToken tipo, String mensagemErro) {
-        if (verificar(tipo)) return consumir();
+    private String consumir(TipoToken tipo, String mensagemErro) {
+        if (verificar(tipo)) return consumirLexema();
         throw new RuntimeException(mensagemErro);
     }
 
@@ -263,33 +480,25 @@ private Expr primario() {
 
     private boolean verificar(TipoToken tipo) {
         if (fimDoArquivo()) return false;
-        return atual().tipo == tipo;
+        return tokens.tipo() == tipo;
     }
 
     private boolean verificarDelimitador(String valor) {
         if (fimDoArquivo()) return false;
-        return atual().tipo == TipoToken.DELIM && atual().lexema.equals(valor);
+        return tokens.tipo() == TipoToken.DELIM && tokens.lexemaIgual(valor);
     }
 
-    private boolean verificarLexemaAtual(String valor) {
-        if (fimDoArquivo()) return false;
-        return atual().lexema.equals(valor);
+    private void consumir() {
+        tokens.avancar();
     }
 
-    private Token consumir() {
-        if (!fimDoArquivo()) posicaoAtual++;
-        return anterior();
+    private String consumirLexema() {
+        String lexema = tokens.lexema();
+        tokens.avancar();
+        return lexema;
     }
 
     private boolean fimDoArquivo() {
-        return atual().tipo == TipoToken.EOF;
-    }
-
-    private Token atual() {
-        return tokens.get(posicaoAtual);
-    }
-
-    private Token anterior() {
-        return tokens.get(posicaoAtual - 1);
+        return tokens.tipo() == TipoToken.EOF;
     }
-}
\ No newline at end of file
+}
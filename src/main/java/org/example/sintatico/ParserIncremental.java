@@ -0,0 +1,104 @@
+package org.example.sintatico;
+
+import org.example.lexico.AnalisadorLexicoIncremental;
+import org.example.lexico.BufferDeTokens;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Programa já analisado que aceita edições. Cada comando do topo guarda o
+// trecho da fonte que ocupa; depois de reanalisar os tokens, só os comandos
+// cujo trecho novo encosta na edição são analisados de novo e os demais são
+// os mesmos objetos Stmt de antes, o que deixa as fases seguintes pularem o
+// que não mudou.
+public final class ParserIncremental {
+
+    private final BufferDeTokens tokens;
+    private final List<Stmt> comandos;
+    private final int[] inicios;
+    private final int[] fins;
+    private final int reaproveitados;
+
+    private ParserIncremental(BufferDeTokens tokens, List<Stmt> comandos, int[] inicios, int[] fins, int reaproveitados) {
+        this.tokens = tokens;
+        this.comandos = Collections.unmodifiableList(comandos);
+        this.inicios = inicios;
+        this.fins = fins;
+        this.reaproveitados = reaproveitados;
+    }
+
+    public static ParserIncremental analisar(BufferDeTokens tokens) {
+        List<Stmt> comandos = new Parser(tokens.cursor()).analisar();
+        int[] fronteiras = Parser.fronteiras(tokens);
+        if (fronteiras.length - 1 != comandos.size()) {
+            // Não deveria acontecer num programa válido; sem trechos, a
+            // próxima edição só reanalisa tudo.
+            return new ParserIncremental(tokens, comandos, new int[0], new int[0], 0);
+        }
+        int[] inicios = new int[comandos.size()];
+        int[] fins = new int[comandos.size()];
+        for (int i = 0; i < comandos.size(); i++) {
+            inicios[i] = tokens.inicio(fronteiras[i]);
+            fins[i] = tokens.fim(fronteiras[i + 1] - 1);
+        }
+        return new ParserIncremental(tokens, comandos, inicios, fins, 0);
+    }
+
+    // Substitui 'removidos' caracteres a partir de 'inicio' por 'inserido'.
+    public ParserIncremental editar(int inicio, int removidos, String inserido) {
+        BufferDeTokens novos = AnalisadorLexicoIncremental.relexar(tokens, inicio, removidos, inserido);
+        int deslocamento = inserido.length() - removidos;
+        int fimDaEdicao = inicio + inserido.length();
+
+        int[] fronteiras = Parser.fronteiras(novos);
+        int quantidade = fronteiras.length - 1;
+        List<Stmt> novosComandos = new ArrayList<>(quantidade);
+        int[] novosInicios = new int[quantidade];
+        int[] novosFins = new int[quantidade];
+        int reaproveitados = 0;
+        int antigo = 0;
+        try {
+            for (int i = 0; i < quantidade; i++) {
+                int de = fronteiras[i];
+                int ate = fronteiras[i + 1];
+                int comeco = novos.inicio(de);
+                int termino = novos.fim(ate - 1);
+                novosInicios[i] = comeco;
+                novosFins[i] = termino;
+
+                // Só trechos inteiramente antes ou depois da edição podem ser
+                // os mesmos; os de depois estão deslocados.
+                Stmt stmt = null;
+                boolean antes = termino < inicio;
+                if (antes || comeco > fimDaEdicao) {
+                    int ajuste = antes ? 0 : deslocamento;
+                    while (antigo < inicios.length && inicios[antigo] < comeco - ajuste) antigo++;
+                    if (antigo < inicios.length && inicios[antigo] == comeco - ajuste && fins[antigo] == termino - ajuste) {
+                        stmt = comandos.get(antigo);
+                    }
+                }
+                if (stmt == null) stmt = Parser.analisarComando(novos, de, ate);
+                else reaproveitados++;
+                novosComandos.add(stmt);
+            }
+        } catch (RuntimeException e) {
+            // A análise completa reporta o erro como o Parser sequencial.
+            return analisar(novos);
+        }
+        return new ParserIncremental(novos, novosComandos, novosInicios, novosFins, reaproveitados);
+    }
+
+    public BufferDeTokens getTokens() {
+        return tokens;
+    }
+
+    public List<Stmt> getComandos() {
+        return comandos;
+    }
+
+    // Quantos comandos a última edição aproveitou sem reanalisar.
+    public int getReaproveitados() {
+        return reaproveitados;
+    }
+}
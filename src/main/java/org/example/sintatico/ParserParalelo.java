@@ -0,0 +1,61 @@
+package org.example.sintatico;
+
+import org.example.lexico.BufferDeTokens;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// Análise sintática em lotes de comandos do topo. As fronteiras saem de uma
+// varredura linear dos tokens (Parser.fronteiras), cada lote é analisado no
+// ForkJoinPool com seu próprio cursor e as listas são concatenadas em ordem.
+// Se algum lote falhar, o programa inteiro é analisado de novo em sequência,
+// que reporta o erro exatamente como o Parser comum.
+public final class ParserParalelo {
+
+    static final int TOKENS_MINIMOS_POR_LOTE = 16 * 1024;
+
+    private ParserParalelo() {
+    }
+
+    public static List<Stmt> analisar(BufferDeTokens tokens) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int tokensPorLote = Math.max(TOKENS_MINIMOS_POR_LOTE, tokens.tamanho() / (pool.getParallelism() * 4));
+        return analisar(tokens, pool, tokensPorLote);
+    }
+
+    public static List<Stmt> analisar(BufferDeTokens tokens, ForkJoinPool pool, int tokensPorLote) {
+        if (tokens.tamanho() <= tokensPorLote) {
+            return new Parser(tokens.cursor()).analisar();
+        }
+
+        int[] fronteiras = Parser.fronteiras(tokens);
+        List<Callable<List<Stmt>>> tarefas = new ArrayList<>();
+        int inicio = 0;
+        for (int i = 1; i < fronteiras.length; i++) {
+            boolean ultimo = i == fronteiras.length - 1;
+            if (ultimo || fronteiras[i] - fronteiras[inicio] >= tokensPorLote) {
+                int de = fronteiras[inicio];
+                int ate = fronteiras[i];
+                tarefas.add(() -> new Parser(tokens.cursor(de, ate)).analisar());
+                inicio = i;
+            }
+        }
+
+        List<Stmt> programa = new ArrayList<>(fronteiras.length - 1);
+        try {
+            for (Future<List<Stmt>> futuro : pool.invokeAll(tarefas)) {
+                programa.addAll(futuro.get());
+            }
+        } catch (ExecutionException e) {
+            return new Parser(tokens.cursor()).analisar();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Análise sintática interrompida", e);
+        }
+        return programa;
+    }
+}
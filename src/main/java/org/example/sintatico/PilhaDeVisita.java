@@ -0,0 +1,111 @@
+package org.example.sintatico;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Pilha explícita para percorrer a AST sem usar a pilha de chamadas do Java,
+// então a profundidade dos programas fica limitada só pelo heap. Cada quadro
+// guarda o nó, a etapa em que a visita dele parou e um inteiro livre (por
+// exemplo, o número dos labels já reservados).
+public final class PilhaDeVisita {
+
+    private Object[] nos = new Object[64];
+    private int[] etapas = new int[64];
+    private int[] dados = new int[64];
+    private int topo = 0;
+    private final PilhaDeVisita agendados;
+    private int etapaAtual;
+    private int dadoAtual;
+
+    public PilhaDeVisita() {
+        this(true);
+    }
+
+    private PilhaDeVisita(boolean comAgenda) {
+        this.agendados = comAgenda ? new PilhaDeVisita(false) : null;
+    }
+
+    public void empilhar(Object no) {
+        empilhar(no, 0, 0);
+    }
+
+    public void empilhar(Object no, int etapa) {
+        empilhar(no, etapa, 0);
+    }
+
+    public void empilhar(Object no, int etapa, int dado) {
+        if (topo == nos.length) {
+            nos = Arrays.copyOf(nos, topo * 2);
+            etapas = Arrays.copyOf(etapas, topo * 2);
+            dados = Arrays.copyOf(dados, topo * 2);
+        }
+        nos[topo] = no;
+        etapas[topo] = etapa;
+        dados[topo] = dado;
+        topo++;
+    }
+
+    public boolean vazia() {
+        return topo == 0;
+    }
+
+    // Tira o quadro do topo; etapa() e dado() passam a ser os dele.
+    public Object desempilhar() {
+        topo--;
+        Object no = nos[topo];
+        nos[topo] = null;
+        etapaAtual = etapas[topo];
+        dadoAtual = dados[topo];
+        return no;
+    }
+
+    public int etapa() {
+        return etapaAtual;
+    }
+
+    public int dado() {
+        return dadoAtual;
+    }
+
+    // Agenda quadros para logo depois do nó atual, na ordem em que foram
+    // agendados. Mais simples que empilhar quando a ordem importa.
+    public void agendar(Object no) {
+        agendar(no, 0, 0);
+    }
+
+    public void agendar(Object no, int etapa) {
+        agendar(no, etapa, 0);
+    }
+
+    public void agendar(Object no, int etapa, int dado) {
+        agendados.empilhar(no, etapa, dado);
+    }
+
+    // Passa os agendados para a pilha, invertidos para que o primeiro
+    // agendado fique no topo.
+    public void descarregarAgenda() {
+        for (int i = agendados.topo - 1; i >= 0; i--) {
+            empilhar(agendados.nos[i], agendados.etapas[i], agendados.dados[i]);
+        }
+        for (int i = 0; i < agendados.topo; i++) agendados.nos[i] = null;
+        agendados.topo = 0;
+    }
+
+    // Empilha os comandos para que o primeiro seja visitado primeiro.
+    public void empilharEmOrdem(List<? extends Stmt> comandos) {
+        for (int i = comandos.size() - 1; i >= 0; i--) {
+            empilhar(comandos.get(i));
+        }
+    }
+
+    // Visita quadros até esvaziar a pilha; os visitantes empilham os filhos
+    // em vez de chamar accept recursivamente.
+    public void percorrer(Stmt.Visitor<?> comandos, Expr.Visitor<?> expressoes) {
+        while (topo > 0) {
+            Object no = desempilhar();
+            if (no instanceof Stmt) ((Stmt) no).accept(comandos);
+            else ((Expr) no).accept(expressoes);
+            descarregarAgenda();
+        }
+    }
+}
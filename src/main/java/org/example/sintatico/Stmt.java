@@ -18,9 +18,12 @@ public abstract class Stmt {
     public static class Var extends Stmt {
         public final String typeKeyword;
         public final String name;
+        public final int simbolo;
         public final Expr initializer;
-        public Var(String typeKeyword, String name, Expr initializer) {
-            this.typeKeyword = typeKeyword; this.name = name; this.initializer = initializer;
+        // Posição no quadro de variáveis, preenchida pelo Resolvedor.
+        public int slot = -1;
+        public Var(String typeKeyword, String name, int simbolo, Expr initializer) {
+            this.typeKeyword = typeKeyword; this.name = name; this.simbolo = simbolo; this.initializer = initializer;
         }
         public <R> R accept(Visitor<R> visitor) { return visitor.visitVar(this); }
     }
@@ -39,7 +42,10 @@ public abstract class Stmt {
 
     public static class Read extends Stmt {
         public final String name;
-        public Read(String name) { this.name = name; }
+        public final int simbolo;
+        // Posição no quadro de variáveis, preenchida pelo Resolvedor.
+        public int slot = -1;
+        public Read(String name, int simbolo) { this.name = name; this.simbolo = simbolo; }
         public <R> R accept(Visitor<R> visitor) { return visitor.visitRead(this); }
     }
 
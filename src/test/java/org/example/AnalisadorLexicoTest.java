@@ -1,9 +1,22 @@
 package org.example;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import static org.junit.jupiter.api.Assertions.*;
 import org.example.lexico.AnalisadorLexico;
+import org.example.lexico.AnalisadorLexicoIncremental;
+import org.example.lexico.AnalisadorLexicoParalelo;
+import org.example.lexico.BufferDeTokens;
+import org.example.lexico.CursorDeTokens;
+import org.example.lexico.Fonte;
 
 public class AnalisadorLexicoTest {
     
@@ -56,4 +69,249 @@ public class AnalisadorLexicoTest {
             fail("Falha ao analisar o arquivo: " + e.getMessage());
         }
     }
+
+    @Test
+    public void testCursorSobDemandaIgualAListaCompleta() {
+        String codigo = "real y = 2.5; while (y >= 1) { print(\"fim\"); y = y - 0.5; }";
+
+        List<AnalisadorLexico.Token> esperados = new AnalisadorLexico(codigo).analisar();
+
+        CursorDeTokens cursor = new AnalisadorLexico(new StringReader(codigo)).cursor();
+        List<String> lidos = new ArrayList<>();
+        while (true) {
+            lidos.add(new AnalisadorLexico.Token(cursor.tipo(), cursor.lexema()).toString());
+            if (cursor.tipo() == AnalisadorLexico.TipoToken.EOF) break;
+            cursor.avancar();
+        }
+
+        assertEquals(esperados.stream().map(Object::toString).toList(), lidos);
+    }
+
+    @Test
+    public void testCursorSobDemandaEmFonteMaiorQueAJanela() {
+        String nomeLongo = "v".repeat(20_000);
+        String codigo = ("int " + nomeLongo + " = 1;\n").repeat(3) + "x = 2;\n".repeat(5_000);
+
+        CursorDeTokens cursor = new AnalisadorLexico(new StringReader(codigo)).cursor();
+        int total = 0;
+        int ids = 0;
+        while (cursor.tipo() != AnalisadorLexico.TipoToken.EOF) {
+            if (cursor.tipo() == AnalisadorLexico.TipoToken.ID && cursor.lexemaIgual(nomeLongo)) ids++;
+            total++;
+            cursor.avancar();
+        }
+
+        assertEquals(new AnalisadorLexico(codigo).analisar().size() - 1, total);
+        assertEquals(3, ids);
+    }
+
+    @Test
+    public void testBufferDeTokensEquivaleALista() {
+        String codigo = "string s = \"a b\"; if (x != 3.25 && y <= 2 || z == 1) { s = s; }";
+
+        List<AnalisadorLexico.Token> lista = new AnalisadorLexico(codigo).analisar();
+        BufferDeTokens buffer = new AnalisadorLexico(codigo).analisarParaBuffer();
+
+        assertEquals(lista.size(), buffer.tamanho());
+        for (int i = 0; i < lista.size(); i++) {
+            assertEquals(lista.get(i).tipo, buffer.tipo(i));
+            assertEquals(lista.get(i).lexema, buffer.lexema(i));
+            assertTrue(buffer.lexemaIgual(i, lista.get(i).lexema));
+        }
+    }
+
+    @Test
+    public void testArquivoMapeadoComUtf8(@TempDir Path diretorio) throws Exception {
+        String codigo = "real ação = 1.5;\nprint(\"olá, coração\");\nação = ação * 2;\n";
+        Path arquivo = diretorio.resolve("utf8.kl");
+        Files.writeString(arquivo, codigo, StandardCharsets.UTF_8);
+
+        List<AnalisadorLexico.Token> esperados = new AnalisadorLexico(codigo).analisar();
+        BufferDeTokens mapeado = new AnalisadorLexico(Fonte.mapear(arquivo)).analisarParaBuffer();
+
+        assertEquals(esperados.size(), mapeado.tamanho());
+        for (int i = 0; i < esperados.size(); i++) {
+            assertEquals(esperados.get(i).tipo, mapeado.tipo(i));
+            assertEquals(esperados.get(i).lexema, mapeado.lexema(i));
+        }
+        assertTrue(mapeado.lexemaIgual(1, "ação"));
+    }
+
+    @Test
+    public void testAutomatoReconheceTodosOsOperadores() {
+        String codigo = "a_1>=b<=c==d!=e&&f||g>h<i=j+k-l*m/n%o 12 3.5 1. \"x y\" (){};";
+
+        List<String> obtidos = new AnalisadorLexico(codigo).analisar().stream()
+                .map(AnalisadorLexico.Token::toString)
+                .toList();
+
+        assertEquals(List.of(
+                "[ID, \"a_1\"]", "[OP_REL, \">=\"]", "[ID, \"b\"]", "[OP_REL, \"<=\"]",
+                "[ID, \"c\"]", "[OP_REL, \"==\"]", "[ID, \"d\"]", "[OP_REL, \"!=\"]",
+                "[ID, \"e\"]", "[OP_LOGICO, \"&&\"]", "[ID, \"f\"]", "[OP_LOGICO, \"||\"]",
+                "[ID, \"g\"]", "[OP_REL, \">\"]", "[ID, \"h\"]", "[OP_REL, \"<\"]",
+                "[ID, \"i\"]", "[OP_ATRIB, \"=\"]", "[ID, \"j\"]", "[OP_ARIT, \"+\"]",
+                "[ID, \"k\"]", "[OP_ARIT, \"-\"]", "[ID, \"l\"]", "[OP_ARIT, \"*\"]",
+                "[ID, \"m\"]", "[OP_ARIT, \"/\"]", "[ID, \"n\"]", "[OP_ARIT, \"%\"]",
+                "[ID, \"o\"]", "[NUM_INT, \"12\"]", "[NUM_REAL, \"3.5\"]", "[NUM_REAL, \"1.\"]",
+                "[TEXTO_STRING, \"x y\"]", "[DELIM, \"(\"]", "[DELIM, \")\"]", "[DELIM, \"{\"]",
+                "[DELIM, \"}\"]", "[DELIM, \";\"]", "[EOF, \"\"]"), obtidos);
+
+        assertThrows(RuntimeException.class, () -> new AnalisadorLexico("x = !y;").analisar());
+        assertThrows(RuntimeException.class, () -> new AnalisadorLexico("x & y").analisar());
+        assertThrows(RuntimeException.class, () -> new AnalisadorLexico("_x").analisar());
+    }
+
+    @Test
+    public void testPalavrasReservadasSemConfundirIdentificadores() {
+        String codigo = "int real string if else while func main read print "
+                + "in iff inte reaL reads mainx Print strinG whilee el";
+
+        List<AnalisadorLexico.Token> tokens = new AnalisadorLexico(codigo).analisar();
+
+        List<AnalisadorLexico.TipoToken> esperados = List.of(
+                AnalisadorLexico.TipoToken.PC_INT, AnalisadorLexico.TipoToken.PC_REAL,
+                AnalisadorLexico.TipoToken.PC_STRING, AnalisadorLexico.TipoToken.PC_IF,
+                AnalisadorLexico.TipoToken.PC_ELSE, AnalisadorLexico.TipoToken.PC_WHILE,
+                AnalisadorLexico.TipoToken.PC_FUNC, AnalisadorLexico.TipoToken.PC_MAIN,
+                AnalisadorLexico.TipoToken.PC_READ, AnalisadorLexico.TipoToken.PC_PRINT);
+        for (int i = 0; i < tokens.size() - 1; i++) {
+            AnalisadorLexico.TipoToken esperado = i < esperados.size() ? esperados.get(i) : AnalisadorLexico.TipoToken.ID;
+            assertEquals(esperado, tokens.get(i).tipo, "token " + tokens.get(i));
+        }
+
+        List<AnalisadorLexico.Token> repetidos = new AnalisadorLexico("contador = contador;").analisar();
+        assertSame(repetidos.get(0).lexema, repetidos.get(2).lexema);
+    }
+
+    @Test
+    public void testLiteraisNumericosDecodificadosNoLexico() {
+        String codigo = "0 42 9223372036854775807 3.25 0.1 1. 123456789012345678901.5";
+
+        List<AnalisadorLexico.Token> tokens = new AnalisadorLexico(codigo).analisar();
+        assertEquals(0L, tokens.get(0).valorInteiro);
+        assertEquals(42L, tokens.get(1).valorInteiro);
+        assertEquals(Long.MAX_VALUE, tokens.get(2).valorInteiro);
+        assertEquals(3.25, tokens.get(3).valorReal);
+        assertEquals(0.1, tokens.get(4).valorReal);
+        assertEquals(1.0, tokens.get(5).valorReal);
+        assertEquals(Double.parseDouble("123456789012345678901.5"), tokens.get(6).valorReal);
+
+        BufferDeTokens buffer = new AnalisadorLexico(codigo).analisarParaBuffer();
+        for (int i = 0; i < 3; i++) assertEquals(tokens.get(i).valorInteiro, buffer.valorInteiro(i));
+        for (int i = 3; i < 7; i++) assertEquals(tokens.get(i).valorReal, buffer.valorReal(i));
+
+        assertThrows(RuntimeException.class, () -> new AnalisadorLexico("9223372036854775808").analisar());
+    }
+
+    @Test
+    public void testAnaliseParalelaIgualASequencial() {
+        StringBuilder codigo = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            codigo.append("int v").append(i % 17).append(" = ").append(i).append(";\n");
+            codigo.append("print(\"a;b\nc").append(i).append("\"); x = 2.5 * ação; ");
+            if (i % 7 == 0) codigo.append("while (x >= 1) { x = x - 1; }\n");
+        }
+        codigo.append("print(\"sem fechar; até o fim\n");
+        String fonte = codigo.toString();
+
+        BufferDeTokens sequencial = new AnalisadorLexico(fonte).analisarParaBuffer();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int pedaco : new int[] {7, 64, 1000}) {
+                BufferDeTokens paralelo = AnalisadorLexicoParalelo.analisar(Fonte.de(fonte), pool, pedaco);
+                assertEquals(sequencial.tamanho(), paralelo.tamanho());
+                for (int i = 0; i < sequencial.tamanho(); i++) {
+                    assertEquals(sequencial.tipo(i), paralelo.tipo(i));
+                    assertEquals(sequencial.inicio(i), paralelo.inicio(i));
+                    assertEquals(sequencial.fim(i), paralelo.fim(i));
+                    assertEquals(sequencial.simbolo(i), paralelo.simbolo(i));
+                    assertEquals(sequencial.lexema(i), paralelo.lexema(i));
+                }
+            }
+
+            String comErro = fonte.substring(0, 3000) + " # " + fonte.substring(3000) + " & ";
+            RuntimeException esperado = assertThrows(RuntimeException.class,
+                    () -> new AnalisadorLexico(comErro).analisarParaBuffer());
+            RuntimeException obtido = assertThrows(RuntimeException.class,
+                    () -> AnalisadorLexicoParalelo.analisar(Fonte.de(comErro), pool, 64));
+            assertEquals(esperado.getMessage(), obtido.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testReanaliseIncrementalIgualAAnaliseCompleta() {
+        String[] trechos = {"x", "1", "2.5", " ", "\n", ";", "\"", "=", "==", "while", "if (", ")", "{ }", "abc", "\"t;x\""};
+        Random aleatorio = new Random(42);
+        String codigo = "int x = 10;\nwhile (x > 0) { print(\"x = \"); x = x - 1; }\nreal y = 2.5;\n";
+        BufferDeTokens tokens = new AnalisadorLexico(codigo).analisarParaBuffer();
+
+        int aplicadas = 0;
+        for (int rodada = 0; rodada < 300; rodada++) {
+            final int inicio = aleatorio.nextInt(codigo.length() + 1);
+            final int removidos = aleatorio.nextInt(Math.min(4, codigo.length() - inicio) + 1);
+            final String inserido = aleatorio.nextBoolean() ? trechos[aleatorio.nextInt(trechos.length)] : "";
+            String editado = codigo.substring(0, inicio) + inserido + codigo.substring(inicio + removidos);
+
+            BufferDeTokens completo;
+            try {
+                completo = new AnalisadorLexico(editado).analisarParaBuffer();
+            } catch (RuntimeException e) {
+                BufferDeTokens anterior = tokens;
+                assertThrows(RuntimeException.class,
+                        () -> AnalisadorLexicoIncremental.relexar(anterior, inicio, removidos, inserido));
+                continue;
+            }
+            codigo = editado;
+            aplicadas++;
+            tokens = AnalisadorLexicoIncremental.relexar(tokens, inicio, removidos, inserido);
+            assertEquals(completo.tamanho(), tokens.tamanho(), codigo);
+            for (int i = 0; i < completo.tamanho(); i++) {
+                assertEquals(completo.tipo(i), tokens.tipo(i), codigo);
+                assertEquals(completo.inicio(i), tokens.inicio(i), codigo);
+                assertEquals(completo.fim(i), tokens.fim(i), codigo);
+                assertEquals(completo.lexema(i), tokens.lexema(i), codigo);
+                if (completo.tipo(i) != AnalisadorLexico.TipoToken.ID) {
+                    assertEquals(completo.valorInteiro(i), tokens.valorInteiro(i), codigo);
+                }
+            }
+        }
+        assertTrue(aplicadas > 150, "edições aplicadas: " + aplicadas);
+    }
+
+    @Test
+    public void testVarreduraEmBlocosIgualACaractereACaractere(@TempDir Path diretorio) throws Exception {
+        String codigo = "identificador_muito_longo_com_123_digitos = \"uma string bem comprida; com ç e \u00e9\";\n"
+                + "        print(identificador_muito_longo_com_123_digitos);   \t  x_ = 1;"
+                + " nomeComAcentuaçãoNoMeio = \"" + "z".repeat(40) + "\" ;\"aberta até o fim";
+        Path arquivo = diretorio.resolve("longo.kl");
+        Files.writeString(arquivo, codigo, StandardCharsets.UTF_8);
+        byte[] bytes = Files.readAllBytes(arquivo);
+        Fonte mapeada = Fonte.mapear(arquivo);
+
+        for (int pos = 0; pos <= bytes.length; pos++) {
+            int aspa = pos;
+            while (aspa < bytes.length && bytes[aspa] != '"') aspa++;
+            int espaco = pos;
+            while (espaco < bytes.length && bytes[espaco] == ' ') espaco++;
+            int palavra = pos;
+            while (palavra < bytes.length && (Character.isLetterOrDigit(bytes[palavra]) || bytes[palavra] == '_')) palavra++;
+
+            assertEquals(aspa, mapeada.procurar('"', pos), "procurar em " + pos);
+            assertEquals(espaco, mapeada.pularRepetidos(' ', pos), "pularRepetidos em " + pos);
+            assertEquals(palavra, mapeada.fimDePalavraAscii(pos), "fimDePalavraAscii em " + pos);
+        }
+
+        List<String> esperados = new ArrayList<>();
+        for (AnalisadorLexico.Token token : new AnalisadorLexico(codigo).analisar()) {
+            esperados.add(token.tipo + " " + token.lexema);
+        }
+        List<String> obtidos = new ArrayList<>();
+        for (AnalisadorLexico.Token token : new AnalisadorLexico(mapeada).analisar()) {
+            obtidos.add(token.tipo + " " + token.lexema);
+        }
+        assertEquals(esperados, obtidos);
+    }
 }
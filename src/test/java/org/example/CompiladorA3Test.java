@@ -505,4 +505,15 @@ class CompiladorA3Test {
         );
         assertDoesNotThrow(() -> compilarEExecutar(fonte));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Instrução de variável sem índice é recusada com erro claro")
+    void testInstrucaoDeVariavelSemIndice() {
+        List<Instrucao> codigo = List.of(
+                new Instrucao(Instrucao.OpCode.PUSH, 1),
+                new Instrucao(Instrucao.OpCode.STORE, "x"),
+                new Instrucao(Instrucao.OpCode.HALT));
+        RuntimeException erro = assertThrows(RuntimeException.class, () -> new InterpretadorIC(codigo).executar());
+        assertEquals("Erro em tempo de execução: Instrução STORE da variável 'x' sem índice no ambiente.", erro.getMessage());
+    }
+}
@@ -2,8 +2,14 @@ package org.example;
 
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
 import java.util.List;
 import org.example.lexico.AnalisadorLexico;
+import org.example.lexico.Fonte;
+import org.example.icg.GeradorDeCodigo;
+import org.example.sintatico.AstPlana;
 import org.example.sintatico.Parser;
 import org.example.sintatico.Stmt;
 import org.example.semantico.AnalisadorSemantico;
@@ -49,4 +55,107 @@ public class IntegracaoTest {
             semantico.analisar(ast);
         });
     }
+
+    @Test
+    public void testeAstPlanaGeraMesmoCodigoIntermediario() {
+        String codigo = """
+                int i = 0;
+                real total;
+                string nome = "a";
+                read(nome);
+                while (i < 10 && (i != 5) || total >= 2.5) {
+                    if (i % 2 == 0) { total = total + -i * 1.5; } else print((i));
+                    i = i + 1;
+                }
+                if (i != 3) print("fim");
+                """;
+
+        List<Stmt> arvore = new Parser(new AnalisadorLexico(codigo).analisar()).analisar();
+        AstPlana plana = AstPlana.de(arvore);
+
+        List<String> esperado = new GeradorDeCodigo().gerar(arvore).stream().map(Object::toString).toList();
+        List<String> obtido = new GeradorDeCodigo().gerar(plana).stream().map(Object::toString).toList();
+        assertEquals(esperado, obtido);
+
+        assertEquals(AstPlana.TipoNo.DECLARACAO, plana.tipo(0));
+        assertEquals("i", plana.nome(0));
+        assertEquals("int", plana.tipoDeclarado(0));
+        assertEquals(0, plana.constante(1));
+        assertEquals(2, plana.fim(0));
+        assertDoesNotThrow(() -> new AnalisadorSemantico().analisar(plana));
+    }
+
+    @Test
+    public void testeAninhamentoProfundoNaoEstouraAPilha() {
+        int profundidade = 100_000;
+        String codigo = "int x = 0;\n"
+                + "if (x < 1) {".repeat(profundidade) + "x = x + 1;" + "}".repeat(profundidade)
+                + "\nprint(" + "(".repeat(profundidade) + "x" + ")".repeat(profundidade) + ");";
+
+        List<Stmt> arvore = new Parser(new AnalisadorLexico(codigo).analisar()).analisar();
+        assertEquals(3, arvore.size());
+
+        assertDoesNotThrow(() -> new AnalisadorSemantico().analisar(arvore));
+        AstPlana plana = AstPlana.de(arvore);
+        assertDoesNotThrow(() -> new AnalisadorSemantico().analisar(plana));
+        assertEquals(new GeradorDeCodigo().gerar(arvore).size(), new GeradorDeCodigo().gerar(plana).size());
+
+        PrintStream saidaOriginal = System.out;
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(saida));
+        try {
+            new Interpretador().executar(arvore);
+        } finally {
+            System.setOut(saidaOriginal);
+        }
+        assertTrue(saida.toString().trim().startsWith("1"), saida.toString());
+    }
+
+    @Test
+    public void testeExecucaoEmFluxoComecaASaidaAntesDoFimDaFonte() {
+        int comandos = 20_000;
+        PrintStream saidaOriginal = System.out;
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        // Gera o script sob demanda e anota quanto da saída já existia quando
+        // a fonte ainda estava no começo.
+        String[] saidaNoComeco = {""};
+        Reader script = new Reader() {
+            private int gerados = 0;
+            private String pendente = "int total = 0;\n";
+
+            @Override
+            public int read(char[] destino, int inicio, int quantidade) {
+                if (pendente.isEmpty()) {
+                    if (gerados == comandos) return -1;
+                    if (gerados == comandos / 4) saidaNoComeco[0] = saida.toString();
+                    pendente = "total = total + 1; if (total % 1000 == 0.0) print(total);\n";
+                    gerados++;
+                }
+                int copiados = Math.min(quantidade, pendente.length());
+                pendente.getChars(0, copiados, destino, inicio);
+                pendente = pendente.substring(copiados);
+                return copiados;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        long executados;
+        System.setOut(new PrintStream(saida));
+        try {
+            executados = ExecucaoEmFluxo.executar(Fonte.de(script));
+        } finally {
+            System.setOut(saidaOriginal);
+        }
+
+        assertEquals(1 + 2L * comandos, executados);
+        assertTrue(saidaNoComeco[0].contains("1000"), "A saída deveria começar antes do fim da fonte");
+        assertTrue(saida.toString().contains("20000"), saida.toString());
+
+        RuntimeException erro = assertThrows(RuntimeException.class,
+                () -> ExecucaoEmFluxo.executar(Fonte.de("int a = 1; print(b);")));
+        assertTrue(erro.getMessage().contains("'b'"), erro.getMessage());
+    }
 }
\ No newline at end of file
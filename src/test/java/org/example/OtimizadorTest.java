@@ -0,0 +1,199 @@
+package org.example;
+
+import org.example.gerador.GeradorCodigo;
+import org.example.icg.GeradorDeCodigo;
+import org.example.icg.Instrucao;
+import org.example.icg.InterpretadorIC;
+import org.example.lexico.AnalisadorLexico;
+import org.example.otimizacao.Otimizador;
+import org.example.otimizacao.Semantica;
+import org.example.semantico.AnalisadorSemantico;
+import org.example.sintatico.Parser;
+import org.example.sintatico.Stmt;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OtimizadorTest {
+
+    private static final String[] PROGRAMAS = {
+            "real altura = 1.75; print(18.5 * (altura * altura));",
+            "int x = 10; x = x + 2; print(x); print(x / 4);",
+            "int a = 3; if (a > 2) { a = 7; } else { a = 9; } print(a);",
+            "int a = 3; read(a); if (a > 2) { a = 7; } print(a);",
+            "int i = 0; int k = 5; while (i < 3) { print(k + i); i = i + 1; } print(i); print(k * 2);",
+            "int z = 0; print(1 / z);",
+            "int z = 0; real r = 2; print(r % z);",
+            "int a = 1; int b = 0; print(a == 1.0); print(b == 0); print(a > 0 || (b = 3) > 0); print(b);",
+            "int a = 0; int b = 2; print(a > 0 && (b = 5) > 0); print(b);",
+            "int n; print(n + 1);",
+            "string s = \"abc\"; print(s == \"abc\");",
+            "real r = -2.5; print(-r); print(-(3 - 5));",
+            "int x = 3; read(x); print(x * 1); print(1 * x); print(x / 1 - 0); print(-(-x)); print(x - x);",
+            "int x = 3; read(x); print(x == x); print(x != x); print((x * 2) * 4); print((x + 1) + 2);",
+            "real r = 0.0; r = -r; print(r + 0); print(r - 0); print(r * 1);",
+            "int a = 2; read(a); print((1 == 1) && a > 1); print(a > 1 || 1 > 2); print(a > 1 && (2 > 1));",
+            "int a = 1; if (a > 0) { print(1); } else { print(2); } int n = 0; while (n > 0) { print(n); } { } print(3);",
+            "int x = 2; read(x); if (x) { } else { print(x); } if (x > 1) { } { { } } print(x);"
+    };
+
+    private List<Stmt> compilar(String codigo) {
+        List<Stmt> programa = new Parser(new AnalisadorLexico(codigo).analisar()).analisar();
+        return new AnalisadorSemantico().analisar(programa);
+    }
+
+    private String saida(Runnable execucao) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream original = System.out;
+        InputStream entradaOriginal = System.in;
+        System.setOut(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        System.setIn(new ByteArrayInputStream("5\n".getBytes()));
+        try {
+            execucao.run();
+        } catch (RuntimeException e) {
+            System.out.println("ERRO: " + e.getMessage());
+        } finally {
+            System.setOut(original);
+            System.setIn(entradaOriginal);
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private boolean contem(List<Instrucao> codigo, Instrucao.OpCode opCode, Object operando) {
+        return codigo.stream().anyMatch(i -> i.opCode == opCode && operando.equals(i.operando));
+    }
+
+    private String executarIC(List<Stmt> programa, boolean otimizar) {
+        List<Instrucao> codigo = new GeradorDeCodigo(otimizar).gerar(programa);
+        return saida(() -> new InterpretadorIC(codigo).executar());
+    }
+
+    @Test
+    void dobramentoNaoMudaASaidaDeNenhumBackend() {
+        for (String codigo : PROGRAMAS) {
+            List<Stmt> programa = compilar(codigo);
+            assertEquals(executarIC(programa, false), executarIC(programa, true), codigo);
+
+            List<Stmt> otimizado = Otimizador.otimizar(programa, Semantica.INTERPRETADOR);
+            String esperado = saida(() -> new Interpretador().executar(programa));
+            assertEquals(esperado, saida(() -> new Interpretador().executar(otimizado)), codigo);
+        }
+    }
+
+    @Test
+    void constantesSaoDobradasEPropagadas() {
+        List<Stmt> programa = compilar("real altura = 1.75; int n = 4; print(18.5 * (altura * altura)); print(n / 3);");
+
+        List<Instrucao> codigo = new GeradorDeCodigo(true).gerar(programa);
+        assertTrue(contem(codigo, Instrucao.OpCode.PUSH, 56.65625), codigo.toString());
+        assertTrue(contem(codigo, Instrucao.OpCode.PUSH, 4.0 / 3), codigo.toString());
+        assertTrue(codigo.stream().noneMatch(i -> i.opCode == Instrucao.OpCode.MUL), codigo.toString());
+
+        String java = new GeradorCodigo(true).gerarClasseJava(programa);
+        assertTrue(java.contains("System.out.println(56.65625);"), java);
+        assertTrue(java.contains("System.out.println(1);"), java);
+    }
+
+    @Test
+    void divisaoPorZeroFicaParaOTempoDeExecucao() {
+        List<Stmt> programa = compilar("int z = 0; print(7 / z); print(7.0 / 0.0);");
+
+        String saida = executarIC(programa, true);
+        assertTrue(saida.contains("ERRO: Divisão por zero"), saida);
+        String java = new GeradorCodigo(true).gerarClasseJava(programa);
+        assertTrue(java.contains("System.out.println(7 / 0);"), java);
+        assertTrue(java.contains("System.out.println(7.0 / 0.0);"), java);
+    }
+
+    @Test
+    void valoresAtribuidosNoLacoNaoSaoPropagados() {
+        List<Stmt> programa = compilar("int i = 0; while (i < 3) { i = i + 1; } print(i);");
+
+        List<Instrucao> codigo = new GeradorDeCodigo(true).gerar(programa);
+        Instrucao impresso = codigo.get(codigo.size() - 3);
+        assertEquals(Instrucao.OpCode.LOAD, impresso.opCode, codigo.toString());
+    }
+
+    @Test
+    void identidadesAlgebricasSaoSimplificadas() {
+        List<Stmt> programa = compilar("int x; read(x); print(x * 1); print((x + 1) + 2); print(x - x); print(x == x); print((x - 4) + 4); print((1 == 1) && x > 1);");
+
+        String java = new GeradorCodigo(true).gerarClasseJava(programa);
+        assertTrue(java.contains("System.out.println(x);"), java);
+        assertTrue(java.contains("System.out.println(x + 3);"), java);
+        assertTrue(java.contains("System.out.println(0);"), java);
+        assertTrue(java.contains("System.out.println(true);"), java);
+        assertFalse(java.contains("x - 4"), java);
+        assertTrue(java.contains("System.out.println(x > 1);"), java);
+
+        // Nos interpretadores toda conta é em double: x*1 só converte para real
+        // e (x+1)+2 fica como está.
+        List<Instrucao> codigo = new GeradorDeCodigo(true).gerar(programa);
+        assertTrue(contem(codigo, Instrucao.OpCode.CONV, "real"), codigo.toString());
+        assertTrue(contem(codigo, Instrucao.OpCode.PUSH, true), codigo.toString());
+        assertTrue(contem(codigo, Instrucao.OpCode.PUSH, 2), codigo.toString());
+    }
+
+    @Test
+    void identidadesQueNaoValemEmDoubleSaoMantidas() {
+        List<Stmt> programa = compilar("real r; read(r); print(r + 0); print(r - r); print(r == r); print((r + 1) + 2); print((r * 2) * 4); print((r * 3) * 2);");
+
+        String java = new GeradorCodigo(true).gerarClasseJava(programa);
+        assertTrue(java.contains("System.out.println(r + 0.0);"), java);
+        assertTrue(java.contains("System.out.println(r - r);"), java);
+        assertTrue(java.contains("System.out.println(r == r);"), java);
+        assertTrue(java.contains("System.out.println((r + 1.0) + 2.0);"), java);
+        assertTrue(java.contains("System.out.println(r * 8.0);"), java);
+        assertTrue(java.contains("System.out.println((r * 3.0) * 2.0);"), java);
+    }
+
+    @Test
+    void codigoMortoEhRemovido() {
+        List<Stmt> programa = compilar("int a = 1; if (a > 0) { print(1); } else { print(2); } int n = 0; while (n > 0) { print(n); } { } print(3);");
+
+        GeradorDeCodigo gerador = new GeradorDeCodigo(true);
+        List<Instrucao> codigo = gerador.gerar(programa);
+        assertTrue(codigo.stream().noneMatch(i -> i.opCode == Instrucao.OpCode.JMPF || i.opCode == Instrucao.OpCode.JMP), codigo.toString());
+        assertFalse(contem(codigo, Instrucao.OpCode.PUSH, 2), codigo.toString());
+        assertEquals(new GeradorDeCodigo().gerar(compilar("int a = 1; { print(1); } int n = 0; print(3);")).size(), codigo.size());
+        assertTrue(gerador.getInstrucoesRemovidas() > 0);
+        assertEquals(11, gerador.getNosRemovidos());
+
+        GeradorCodigo transpilador = new GeradorCodigo(true);
+        String java = transpilador.gerarClasseJava(programa);
+        assertFalse(java.contains("if ("), java);
+        assertFalse(java.contains("while ("), java);
+        assertEquals(11, transpilador.getNosRemovidos());
+    }
+
+    @Test
+    void nadaDepoisDeUmLacoInfinitoEhGerado() {
+        List<Stmt> programa = compilar("int i = 0; while (1) { print(i); i = i + 1; } print(99); { int j = 7; }");
+        List<Instrucao> codigo = new GeradorDeCodigo(true).gerar(programa);
+        assertFalse(contem(codigo, Instrucao.OpCode.PUSH, 99), codigo.toString());
+        assertFalse(contem(codigo, Instrucao.OpCode.PUSH, 7), codigo.toString());
+
+        // No Java código inalcançável não compila.
+        String java = new GeradorCodigo(true).gerarClasseJava(compilar("int i = 0; while (1 == 1) { i = i + 1; } print(99);"));
+        assertTrue(java.contains("while (true)"), java);
+        assertFalse(java.contains("99"), java);
+        java = new GeradorCodigo(true).gerarClasseJava(programa);
+        assertTrue(java.contains("while ((1) != 0)"), java);
+        assertFalse(java.contains("99"), java);
+    }
+
+    @Test
+    void condicaoInteiraConstanteEscolheORamoNoJava() {
+        String java = new GeradorCodigo(true).gerarClasseJava(compilar("int a = 0; if (a) { print(1); } else { print(2); }"));
+        assertFalse(java.contains("if ("), java);
+        assertFalse(java.contains("println(1)"), java);
+        assertTrue(java.contains("System.out.println(2);"), java);
+    }
+}
@@ -2,13 +2,30 @@ package org.example;
 
 import org.example.lexico.AnalisadorLexico;
 import org.example.lexico.AnalisadorLexico.Token;
+import org.example.lexico.AnalisadorLexicoEmPipeline;
+import org.example.lexico.CursorDeTokens;
+import org.example.lexico.Fonte;
+import org.example.semantico.AnalisadorSemantico;
+import org.example.sintatico.AstPlana;
 import org.example.sintatico.AstPrinter;
+import org.example.sintatico.CacheDeAst;
 import org.example.sintatico.Expr;
+import org.example.sintatico.FabricaDeExpr;
 import org.example.sintatico.Parser;
+import org.example.sintatico.ParserIncremental;
+import org.example.sintatico.ParserParalelo;
 import org.example.sintatico.Stmt;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -48,11 +65,10 @@ public class ParserTest {
         assertEquals(10, init.value);
 
         Stmt.ExprStmt assignStmt = assertInstanceOf(Stmt.ExprStmt.class, stmts.get(1));
-        Expr.Binary assignExpr = assertInstanceOf(Expr.Binary.class, assignStmt.expression);
-        assertEquals("=", assignExpr.operator);
-        assertInstanceOf(Expr.Variable.class, assignExpr.left);
-        Expr.Binary addExpr = assertInstanceOf(Expr.Binary.class, assignExpr.right);
-        assertEquals("+", addExpr.operator);
+        Expr.Assign assignExpr = assertInstanceOf(Expr.Assign.class, assignStmt.expression);
+        assertEquals("x", assignExpr.target.name);
+        Expr.Binary addExpr = assertInstanceOf(Expr.Binary.class, assignExpr.value);
+        assertEquals(Expr.BinaryOp.ADD, addExpr.operator);
         assertInstanceOf(Expr.Variable.class, addExpr.left);
         Expr.Literal addLiteral = assertInstanceOf(Expr.Literal.class, addExpr.right);
         assertEquals(1, addLiteral.value);
@@ -80,7 +96,7 @@ public class ParserTest {
 
         Stmt.While whileStmt = assertInstanceOf(Stmt.While.class, stmts.get(1));
         Expr.Binary cond = assertInstanceOf(Expr.Binary.class, whileStmt.condition);
-        assertEquals("<", cond.operator);
+        assertEquals(Expr.BinaryOp.LESS, cond.operator);
 
         Stmt.Block body = assertInstanceOf(Stmt.Block.class, whileStmt.body);
         assertEquals(2, body.statements.size());
@@ -95,8 +111,7 @@ public class ParserTest {
         assertInstanceOf(Stmt.Print.class, elseBlock.statements.get(0));
 
         Stmt.ExprStmt increment = assertInstanceOf(Stmt.ExprStmt.class, body.statements.get(1));
-        Expr.Binary incrementExpr = assertInstanceOf(Expr.Binary.class, increment.expression);
-        assertEquals("=", incrementExpr.operator);
+        assertInstanceOf(Expr.Assign.class, increment.expression);
     }
 
     @Test
@@ -106,21 +121,20 @@ public class ParserTest {
                 """);
 
         Stmt.ExprStmt stmt = assertInstanceOf(Stmt.ExprStmt.class, stmts.get(0));
-        Expr.Binary assign = assertInstanceOf(Expr.Binary.class, stmt.expression);
-        assertEquals("=", assign.operator);
+        Expr.Assign assign = assertInstanceOf(Expr.Assign.class, stmt.expression);
 
-        Expr.Binary minus = assertInstanceOf(Expr.Binary.class, assign.right);
-        assertEquals("-", minus.operator);
+        Expr.Binary minus = assertInstanceOf(Expr.Binary.class, assign.value);
+        assertEquals(Expr.BinaryOp.SUBTRACT, minus.operator);
 
         Expr.Binary plus = assertInstanceOf(Expr.Binary.class, minus.left);
-        assertEquals("+", plus.operator);
+        assertEquals(Expr.BinaryOp.ADD, plus.operator);
         Expr.Literal literalOne = assertInstanceOf(Expr.Literal.class, plus.left);
         assertEquals(1, literalOne.value);
         Expr.Binary mult = assertInstanceOf(Expr.Binary.class, plus.right);
-        assertEquals("*", mult.operator);
+        assertEquals(Expr.BinaryOp.MULTIPLY, mult.operator);
 
         Expr.Binary division = assertInstanceOf(Expr.Binary.class, minus.right);
-        assertEquals("/", division.operator);
+        assertEquals(Expr.BinaryOp.DIVIDE, division.operator);
     }
 
     @Test
@@ -146,4 +160,366 @@ public class ParserTest {
                 print(x)
                 """.strip(), resumo);
     }
+
+    @Test
+    void parseDiretoDoLeitorSemListaDeTokens() {
+        String codigo = """
+                int x = 10;
+                while (x > 0) { x = x - 1; }
+                print("fim");
+                """;
+
+        Parser parser = new Parser(new AnalisadorLexico(new StringReader(codigo)).cursor());
+        AstPrinter printer = new AstPrinter();
+        String resumo = parser.analisar().stream()
+                .map(printer::print)
+                .collect(Collectors.joining("\n"));
+
+        assertEquals(astSummary(codigo), resumo);
+    }
+
+    @Test
+    void identificadoresCarregamIdDoSimbolo() {
+        AnalisadorLexico lexer = new AnalisadorLexico("int x = 1; int y = x; read(y); y = x + y;");
+        List<Stmt> stmts = new Parser(lexer.analisarParaBuffer().cursor()).analisar();
+
+        int idX = lexer.getIdentificadores().internar("x");
+        int idY = lexer.getIdentificadores().internar("y");
+        assertNotEquals(idX, idY);
+        assertEquals(2, lexer.getIdentificadores().tamanho());
+
+        assertEquals(idX, ((Stmt.Var) stmts.get(0)).simbolo);
+        Stmt.Var declY = (Stmt.Var) stmts.get(1);
+        assertEquals(idY, declY.simbolo);
+        assertEquals(idX, ((Expr.Variable) declY.initializer).simbolo);
+        assertEquals(idY, ((Stmt.Read) stmts.get(2)).simbolo);
+
+        Expr.Assign atribuicao = (Expr.Assign) ((Stmt.ExprStmt) stmts.get(3)).expression;
+        assertEquals(idY, atribuicao.target.simbolo);
+    }
+
+    @Test
+    void literalInteiroForaDoIntervaloDeInt() {
+        List<Stmt> stmts = parse("int x = 2147483647; real y = 2.5;");
+        assertEquals(2147483647, ((Expr.Literal) ((Stmt.Var) stmts.get(0)).initializer).value);
+        assertEquals(2.5, ((Expr.Literal) ((Stmt.Var) stmts.get(1)).initializer).value);
+
+        assertThrows(RuntimeException.class, () -> parse("int x = 2147483648;"));
+    }
+
+    @Test
+    void precedenciaEAssociatividadeDaTabelaDeForcas() {
+        String resumo = astSummary("""
+                x = y = 1 - 2 - -3 * 4 % 5;
+                ok = a < b + 1 && c != d || -e >= 2;
+                """);
+
+        assertEquals("""
+                expr((x = (y = ((1 - 2) - (((- 3) * 4) % 5)))))
+                expr((ok = (((a < (b + 1)) && (c != d)) || ((- e) >= 2))))
+                """.strip(), resumo);
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> parse("a + b = 1;"));
+        assertEquals("Alvo de atribuição inválido", ex.getMessage());
+    }
+
+    @Test
+    void reanaliseIncrementalReaproveitaComandosForaDaEdicao() {
+        String codigo = "int x = 10;\nif (x > 5) { print(x); }\nwhile (x > 0) { x = x - 1; }\nprint(\"fim\");\n";
+        ParserIncremental programa = ParserIncremental.analisar(new AnalisadorLexico(codigo).analisarParaBuffer());
+        List<Stmt> antes = programa.getComandos();
+        AstPrinter printer = new AstPrinter();
+
+        int posicao = codigo.indexOf("10");
+        codigo = codigo.substring(0, posicao) + "200" + codigo.substring(posicao + 2);
+        programa = programa.editar(posicao, 2, "200");
+        assertEquals(3, programa.getReaproveitados());
+        assertNotSame(antes.get(0), programa.getComandos().get(0));
+        assertSame(antes.get(1), programa.getComandos().get(1));
+        assertSame(antes.get(3), programa.getComandos().get(3));
+        assertEquals(astSummary(codigo), programa.getComandos().stream().map(printer::print).collect(Collectors.joining("\n")));
+
+        // Um else logo depois do if muda o if, ainda que a edição fique fora dele.
+        antes = programa.getComandos();
+        posicao = codigo.indexOf("}") + 1;
+        codigo = codigo.substring(0, posicao) + " else print(0);" + codigo.substring(posicao);
+        programa = programa.editar(posicao, 0, " else print(0);");
+        assertEquals(3, programa.getReaproveitados());
+        assertNotSame(antes.get(1), programa.getComandos().get(1));
+        assertSame(antes.get(2), programa.getComandos().get(2));
+        assertEquals(astSummary(codigo), programa.getComandos().stream().map(printer::print).collect(Collectors.joining("\n")));
+
+        posicao = codigo.indexOf("x - 1");
+        String invalido = codigo.substring(0, posicao) + "+" + codigo.substring(posicao);
+        RuntimeException esperado = assertThrows(RuntimeException.class, () -> parse(invalido));
+        ParserIncremental ultimo = programa;
+        int p = posicao;
+        RuntimeException obtido = assertThrows(RuntimeException.class, () -> ultimo.editar(p, 0, "+"));
+        assertEquals(esperado.getMessage(), obtido.getMessage());
+    }
+
+    @Test
+    void analiseParalelaIgualASequencial() {
+        StringBuilder codigo = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            codigo.append("int v").append(i).append(" = ").append(i).append(" * (2 + v0);\n");
+            if (i % 5 == 0) codigo.append("if (v").append(i).append(" > 3) { print(\"a;b\"); } else { v0 = v0 - 1; }\n");
+            if (i % 7 == 0) codigo.append("while (v0 < 1) if (v0 == 0) v0 = 1; else print(v0);\n");
+        }
+        String fonte = codigo.toString();
+        String sequencial = astSummary(fonte);
+
+        AstPrinter printer = new AstPrinter();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int lote : new int[] {1, 50, 1000}) {
+                List<Stmt> paralelo = ParserParalelo.analisar(new AnalisadorLexico(fonte).analisarParaBuffer(), pool, lote);
+                assertEquals(sequencial, paralelo.stream().map(printer::print).collect(Collectors.joining("\n")));
+            }
+
+            String invalido = fonte.replace("int v250 = 250", "int v250 = (250");
+            RuntimeException esperado = assertThrows(RuntimeException.class, () -> parse(invalido));
+            RuntimeException obtido = assertThrows(RuntimeException.class,
+                    () -> ParserParalelo.analisar(new AnalisadorLexico(invalido).analisarParaBuffer(), pool, 50));
+            assertEquals(esperado.getMessage(), obtido.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void cacheDeAstDevolveArvoreIgualEDespejaAsMaisAntigas(@TempDir Path diretorio, @TempDir Path fontes) throws Exception {
+        String codigo = """
+                int i = 0; real r = 2.5; string s = "texto; com acento é";
+                read(s);
+                while (i < 10 && (i != 3) || r >= -1.5) { if (i % 2 == 0) i = i + 1; else { print((i)); } }
+                """;
+        CacheDeAst cache = new CacheDeAst(diretorio, 1024);
+        String chave = CacheDeAst.chave(codigo);
+        assertNull(cache.ler(chave));
+
+        ExecutorService gravadores = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tarefas = new java.util.ArrayList<>();
+            for (int i = 0; i < 8; i++) tarefas.add(gravadores.submit(() -> cache.gravar(chave, parse(codigo))));
+            for (Future<?> tarefa : tarefas) tarefa.get();
+        } finally {
+            gravadores.shutdown();
+        }
+
+        List<Stmt> lida = cache.ler(chave);
+        assertNotNull(lida);
+        AstPrinter printer = new AstPrinter();
+        assertEquals(astSummary(codigo), lida.stream().map(printer::print).collect(Collectors.joining("\n")));
+        assertEquals(parse(codigo).get(1).getClass(), lida.get(1).getClass());
+        assertEquals(((Stmt.Var) parse(codigo).get(0)).simbolo, ((Stmt.Var) lida.get(0)).simbolo);
+        assertNotEquals(chave, CacheDeAst.chave(codigo + " "));
+
+        Path programa = fontes.resolve("programa.txt");
+        Files.writeString(programa, codigo);
+        java.nio.ByteBuffer mapeado = Fonte.mapearBytes(programa);
+        assertEquals(chave, CacheDeAst.chave(mapeado));
+        List<Stmt> doMapeamento = new Parser(new AnalisadorLexico(Fonte.de(mapeado)).analisar()).analisar();
+        assertEquals(astSummary(codigo), doMapeamento.stream().map(printer::print).collect(Collectors.joining("\n")));
+
+        for (int i = 0; i < 20; i++) {
+            String outro = "int x" + i + " = " + i + ";";
+            cache.gravar(CacheDeAst.chave(outro), parse(outro));
+        }
+        long total = 0;
+        try (var arquivos = Files.list(diretorio)) {
+            for (Path arquivo : arquivos.toList()) total += Files.size(arquivo);
+        }
+        assertTrue(total <= 1024, "Tamanho do cache: " + total);
+    }
+
+    @Test
+    void cacheDeAstApagaTemporariosAbandonadosEContaOsRecentes(@TempDir Path diretorio) throws Exception {
+        Path abandonado = diretorio.resolve("abandonado.tmp");
+        Files.write(abandonado, new byte[4096]);
+        long antigo = System.currentTimeMillis() - 2 * 60 * 60 * 1000L;
+        Files.setLastModifiedTime(abandonado, java.nio.file.attribute.FileTime.fromMillis(antigo));
+        Path emAndamento = diretorio.resolve("em-andamento.tmp");
+        Files.write(emAndamento, new byte[1024]);
+
+        CacheDeAst cache = new CacheDeAst(diretorio, 1024);
+        String codigo = "int x = 1; print(x);";
+        cache.gravar(CacheDeAst.chave(codigo), parse(codigo));
+
+        assertFalse(Files.exists(abandonado));
+        assertTrue(Files.exists(emAndamento));
+        // O temporário recente ocupa todo o limite: a entrada nova sai.
+        assertNull(cache.ler(CacheDeAst.chave(codigo)));
+    }
+
+    @Test
+    void fabricaComCompartilhamentoReusaSubexpressoesIguais() throws Exception {
+        String codigo = Files.readString(Path.of("src/test/resources/exemplo.txt"));
+        List<Stmt> comum = parse(codigo);
+        List<Stmt> compartilhada = new Parser(new AnalisadorLexico(codigo).analisarParaBuffer().cursor(),
+                FabricaDeExpr.comCompartilhamento()).analisar();
+
+        AstPrinter printer = new AstPrinter();
+        assertEquals(astSummary(codigo), compartilhada.stream().map(printer::print).collect(Collectors.joining("\n")));
+
+        List<Expr> quadrados = new java.util.ArrayList<>();
+        for (Stmt stmt : compartilhada) {
+            if (stmt instanceof Stmt.ExprStmt && ((Stmt.ExprStmt) stmt).expression instanceof Expr.Assign) {
+                Expr valor = ((Expr.Assign) ((Stmt.ExprStmt) stmt).expression).value;
+                if (valor instanceof Expr.Binary && ((Expr.Binary) valor).right instanceof Expr.Grouping) {
+                    quadrados.add(((Expr.Binary) valor).right);
+                }
+            }
+        }
+        assertTrue(quadrados.size() >= 3, "Esperadas as três ocorrências de (altura * altura)");
+        for (Expr quadrado : quadrados) {
+            assertSame(quadrados.get(0), quadrado);
+            assertTrue(quadrado.compartilhado());
+        }
+        assertFalse(((Stmt.Print) comum.get(comum.size() - 1)).expression.compartilhado());
+
+        List<Stmt> atribuicoes = new Parser(CursorDeTokens.de(tokensFrom("x = x + 1; x = x + 1; y = 1.0; z = 1;")),
+                FabricaDeExpr.comCompartilhamento()).analisar();
+        Expr.Assign primeira = (Expr.Assign) ((Stmt.ExprStmt) atribuicoes.get(0)).expression;
+        Expr.Assign segunda = (Expr.Assign) ((Stmt.ExprStmt) atribuicoes.get(1)).expression;
+        assertNotSame(primeira, segunda);
+        assertSame(primeira.value, segunda.value);
+        assertNotSame(((Expr.Assign) ((Stmt.ExprStmt) atribuicoes.get(2)).expression).value,
+                ((Expr.Assign) ((Stmt.ExprStmt) atribuicoes.get(3)).expression).value);
+    }
+
+    @Test
+    void pipelineLexicoEntregaOsMesmosTokensAoParser() {
+        StringBuilder codigo = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            codigo.append("int v").append(i).append(" = v").append(i / 2).append(" * 2.5 + \"s").append(i % 3).append("\";\n");
+        }
+        String fonte = codigo.toString();
+        String sequencial = astSummary(fonte);
+
+        AstPrinter printer = new AstPrinter();
+        try (AnalisadorLexicoEmPipeline tokens = new AnalisadorLexicoEmPipeline(Fonte.de(fonte))) {
+            List<Stmt> programa = new Parser(tokens).analisar();
+            assertEquals(sequencial, programa.stream().map(printer::print).collect(Collectors.joining("\n")));
+        }
+
+        // O erro léxico no fim chega ao Parser na mesma ordem do cursor sob demanda.
+        String comErroLexico = fonte + "int x = 1 @ 2;";
+        RuntimeException esperado = assertThrows(RuntimeException.class,
+                () -> new Parser(new AnalisadorLexico(comErroLexico).cursor()).analisar());
+        RuntimeException obtido = assertThrows(RuntimeException.class, () -> {
+            try (AnalisadorLexicoEmPipeline tokens = new AnalisadorLexicoEmPipeline(Fonte.de(comErroLexico))) {
+                new Parser(tokens).analisar();
+            }
+        });
+        assertEquals(esperado.getMessage(), obtido.getMessage());
+
+        String comErroSintatico = "int = 1;\n" + comErroLexico;
+        RuntimeException sintatico = assertThrows(RuntimeException.class, () -> {
+            try (AnalisadorLexicoEmPipeline tokens = new AnalisadorLexicoEmPipeline(Fonte.de(comErroSintatico))) {
+                new Parser(tokens).analisar();
+            }
+        });
+        assertEquals("Esperado nome de variável", sintatico.getMessage());
+    }
+
+    @Test
+    void erroSintaticoEncerraOProdutorDoPipelineSemClose() throws Exception {
+        StringBuilder codigo = new StringBuilder("int = 1;\n");
+        for (int i = 0; i < 40_000; i++) codigo.append("print(").append(i).append(");\n");
+
+        AnalisadorLexicoEmPipeline tokens = new AnalisadorLexicoEmPipeline(Fonte.de(codigo.toString()));
+        assertThrows(RuntimeException.class, () -> new Parser(tokens).analisar());
+
+        // O anel enche antes do erro; sem o close feito pelo Parser o produtor
+        // ficaria parado nele para sempre.
+        long limite = System.nanoTime() + 5_000_000_000L;
+        while (produtorVivo() && System.nanoTime() < limite) Thread.sleep(10);
+        assertFalse(produtorVivo());
+    }
+
+    private static boolean produtorVivo() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .anyMatch(t -> t.getName().equals("analisador-lexico") && t.isAlive());
+    }
+
+    @Test
+    void tokensMontadosAMaoRecebemIdsDeSimbolo() {
+        List<Token> tokens = List.of(
+                new Token(AnalisadorLexico.TipoToken.PC_INT, "int"),
+                new Token(AnalisadorLexico.TipoToken.ID, "x"),
+                new Token(AnalisadorLexico.TipoToken.DELIM, ";"),
+                new Token(AnalisadorLexico.TipoToken.PC_PRINT, "print"),
+                new Token(AnalisadorLexico.TipoToken.DELIM, "("),
+                new Token(AnalisadorLexico.TipoToken.ID, "x"),
+                new Token(AnalisadorLexico.TipoToken.DELIM, ")"),
+                new Token(AnalisadorLexico.TipoToken.DELIM, ";"),
+                new Token(AnalisadorLexico.TipoToken.EOF, ""));
+        List<Stmt> programa = new Parser(tokens).analisar();
+
+        Stmt.Var declaracao = (Stmt.Var) programa.get(0);
+        Expr.Variable uso = (Expr.Variable) ((Stmt.Print) programa.get(1)).expression;
+        assertTrue(declaracao.simbolo >= 0);
+        assertEquals(declaracao.simbolo, uso.simbolo);
+        assertDoesNotThrow(() -> new AnalisadorSemantico().analisar(programa));
+    }
+
+    @Test
+    void tokensNumericosMontadosAMaoTemOValorDoLexema() {
+        List<Token> tokens = List.of(
+                new Token(AnalisadorLexico.TipoToken.PC_PRINT, "print"),
+                new Token(AnalisadorLexico.TipoToken.DELIM, "("),
+                new Token(AnalisadorLexico.TipoToken.NUM_INT, "42"),
+                new Token(AnalisadorLexico.TipoToken.DELIM, ")"),
+                new Token(AnalisadorLexico.TipoToken.DELIM, ";"),
+                new Token(AnalisadorLexico.TipoToken.PC_PRINT, "print"),
+                new Token(AnalisadorLexico.TipoToken.DELIM, "("),
+                new Token(AnalisadorLexico.TipoToken.NUM_REAL, "2.5"),
+                new Token(AnalisadorLexico.TipoToken.DELIM, ")"),
+                new Token(AnalisadorLexico.TipoToken.DELIM, ";"),
+                new Token(AnalisadorLexico.TipoToken.EOF, ""));
+        List<Stmt> programa = new Parser(tokens).analisar();
+
+        assertEquals(42, ((Expr.Literal) ((Stmt.Print) programa.get(0)).expression).value);
+        assertEquals(2.5, ((Expr.Literal) ((Stmt.Print) programa.get(1)).expression).value);
+        RuntimeException erro = assertThrows(RuntimeException.class,
+                () -> new Token(AnalisadorLexico.TipoToken.NUM_INT, "99999999999999999999"));
+        assertTrue(erro.getMessage().contains("grande demais"));
+    }
+
+    @Test
+    void analisePlanaIgualAConversaoDaArvore() throws Exception {
+        String exemplo = Files.readString(Path.of("src/test/resources/exemplo.txt"));
+        String aninhado = """
+                int i = 0;
+                if (i < 1) if (i > 2) print(1); else { real r = -(i + 2) * 3.5; while (i < 3) i = i + 1; }
+                while (i > 0) if (i == 1) { } else i = i - 1;
+                { string s = "x"; read(s); { } }
+                """;
+        for (String codigo : List.of(exemplo, aninhado)) {
+            AstPlana esperada = AstPlana.de(parse(codigo));
+            AstPlana obtida = new Parser(tokensFrom(codigo)).analisarPlano();
+            assertEquals(esperada.tamanho(), obtida.tamanho());
+            for (int no = 0; no < esperada.tamanho(); no++) {
+                assertEquals(esperada.tipo(no), obtida.tipo(no), "tipo do nó " + no);
+                assertEquals(esperada.fim(no), obtida.fim(no), "fim do nó " + no);
+                assertEquals(esperada.simbolo(no), obtida.simbolo(no), "valor do nó " + no);
+                switch (esperada.tipo(no)) {
+                    case DECLARACAO -> assertEquals(esperada.tipoDeclarado(no), obtida.tipoDeclarado(no));
+                    case LITERAL, VARIAVEL, READ, ATRIBUICAO -> assertEquals(esperada.constante(no), obtida.constante(no));
+                    default -> { }
+                }
+            }
+        }
+
+        StringBuilder fundo = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) fundo.append("while (1) { ");
+        fundo.append("print(1);");
+        for (int i = 0; i < 50_000; i++) fundo.append(" }");
+        AstPlana profunda = new Parser(tokensFrom(fundo.toString())).analisarPlano();
+        assertEquals(50_000 * 3 + 2, profunda.tamanho());
+        assertEquals(profunda.tamanho(), profunda.fim(0));
+
+        assertThrows(RuntimeException.class, () -> new Parser(tokensFrom("if (1) { print(1);")).analisarPlano());
+    }
 }
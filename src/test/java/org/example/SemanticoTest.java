@@ -1,14 +1,26 @@
 package org.example;
 
+import org.example.gerador.GeradorCodigo;
+import org.example.icg.GeradorDeCodigo;
+import org.example.icg.Instrucao;
+import org.example.icg.InterpretadorIC;
 import org.example.lexico.AnalisadorLexico;
+import org.example.sintatico.AstPlana;
+import org.example.sintatico.Expr;
 import org.example.sintatico.Parser;
 import org.example.sintatico.Stmt;
 import org.example.semantico.AnalisadorSemantico;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class SemanticoTest {
 
@@ -51,4 +63,133 @@ public class SemanticoTest {
 
         assertThrows(RuntimeException.class, () -> parse(codigo));
     }
+
+    @Test
+    void astPlanaReportaOsMesmosErros() {
+        String[] programas = {
+                "int x = 1; int x = 2;",
+                "print(y);",
+                "int a = 1; while (a < 3) { b = a; }",
+                "read(z);",
+                "int x = x; print(x);",
+                "if (1 < 2) { int t = 1; } print(t);",
+                "int x = 1; { int x = 2; }"
+        };
+        for (String codigo : programas) {
+            List<Stmt> stmts = parse(codigo);
+            String esperado = mensagemDeErro(() -> new AnalisadorSemantico().analisar(stmts));
+            String obtido = mensagemDeErro(() -> new AnalisadorSemantico().analisar(AstPlana.de(stmts)));
+            assertEquals(esperado, obtido, codigo);
+        }
+    }
+
+    @Test
+    void resolvedorRespeitaOsEscoposDosBlocos() {
+        List<Stmt> stmts = parse("""
+                int a = 1;
+                { int t = a; print(t); }
+                { real t = 2.5; print(t); }
+                """);
+        new AnalisadorSemantico().analisar(stmts);
+
+        Stmt.Var a = (Stmt.Var) stmts.get(0);
+        Stmt.Var t1 = (Stmt.Var) ((Stmt.Block) stmts.get(1)).statements.get(0);
+        Stmt.Var t2 = (Stmt.Var) ((Stmt.Block) stmts.get(2)).statements.get(0);
+        Expr.Variable usoDeA = (Expr.Variable) t1.initializer;
+        assertEquals(0, a.slot);
+        assertEquals(a.slot, usoDeA.slot);
+        assertEquals(1, t1.slot);
+        assertEquals(t1.slot, t2.slot);
+
+        assertThrows(RuntimeException.class, () -> new AnalisadorSemantico().analisar(parse("{ int t = 1; } t = 2;")));
+        assertThrows(RuntimeException.class, () -> new AnalisadorSemantico().analisar(parse("int t; { int t = 1; }")));
+    }
+
+    @Test
+    void arvoreTipadaTemTiposEConversoesExplicitas() {
+        List<Stmt> tipado = new AnalisadorSemantico().analisar(parse("""
+                int a = 2;
+                real r = a;
+                print(a * 2.5);
+                print(a / 2);
+                """));
+
+        Expr inicializacao = ((Stmt.Var) tipado.get(1)).initializer;
+        assertInstanceOf(Expr.Conversion.class, inicializacao);
+        assertEquals(Expr.Tipo.REAL, inicializacao.tipo);
+        assertEquals(Expr.Tipo.INT, ((Expr.Conversion) inicializacao).expression.tipo);
+
+        Expr.Binary produto = (Expr.Binary) ((Stmt.Print) tipado.get(2)).expression;
+        assertEquals(Expr.Tipo.REAL, produto.tipo);
+        assertInstanceOf(Expr.Conversion.class, produto.left);
+        assertEquals(Expr.Tipo.INT, ((Stmt.Print) tipado.get(3)).expression.tipo);
+    }
+
+    // A conversão explícita faz os interpretadores tratarem o valor como real,
+    // como o Java já fazia: 'real x = 5' imprime 5.0, não mais 5.
+    @Test
+    void valoresConvertidosParaRealSaoImpressosComoReal() {
+        List<Stmt> tipado = new AnalisadorSemantico().analisar(parse("real x = 5; print(x); int y = 7; real z = y; print(z);"));
+
+        String esperado = "5.0" + System.lineSeparator() + "7.0" + System.lineSeparator();
+        assertEquals(esperado, saida(() -> new Interpretador().executar(tipado)));
+        List<Instrucao> codigo = new GeradorDeCodigo().gerar(tipado);
+        String saidaIC = saida(() -> new InterpretadorIC(codigo).executar());
+        assertTrue(saidaIC.startsWith(esperado), saidaIC);
+    }
+
+    @Test
+    void condicaoInteiraViraComparacaoComZeroNoJava() {
+        List<Stmt> tipado = new AnalisadorSemantico().analisar(parse("int k = 1; while (k) { k = k - 1; } if (k) { print(k); }"));
+
+        String java = new GeradorCodigo().gerarClasseJava(tipado);
+        assertTrue(java.contains("while ((k) != 0)"), java);
+        assertTrue(java.contains("if ((k) != 0)"), java);
+    }
+
+    @Test
+    void conversaoNoJavaSeAplicaAExpressaoInteira() {
+        List<Stmt> tipado = new AnalisadorSemantico().analisar(parse("int i = 7; int a = 2; real q = i / 2; real r = a - 1 + 0.5;"));
+
+        String java = new GeradorCodigo().gerarClasseJava(tipado);
+        assertTrue(java.contains("double q = ((double) (i / 2));"), java);
+        assertTrue(java.contains("double r = ((double) (a - 1)) + 0.5;"), java);
+    }
+
+    private String saida(Runnable execucao) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        try {
+            execucao.run();
+        } finally {
+            System.setOut(original);
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void misturasDeTiposInvalidasSaoRejeitadas() {
+        String[] programas = {
+                "int x = 2.5;",
+                "string s = \"a\"; print(s + 1);",
+                "string s = \"a\"; if (s) { print(s); }",
+                "real r = 1.0; string s = \"a\"; print(r == s);",
+                "int x = 1; x = \"texto\";"
+        };
+        for (String codigo : programas) {
+            List<Stmt> stmts = parse(codigo);
+            RuntimeException erro = assertThrows(RuntimeException.class, () -> new AnalisadorSemantico().analisar(stmts), codigo);
+            assertTrue(erro.getMessage().startsWith("Erro Semântico"), erro.getMessage());
+        }
+    }
+
+    private String mensagemDeErro(Runnable analise) {
+        try {
+            analise.run();
+            return null;
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
 }